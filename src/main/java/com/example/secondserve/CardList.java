@@ -0,0 +1,169 @@
+package com.example.secondserve;
+
+import javafx.beans.binding.Bindings;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.Region;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A list of cards that only builds the cards on screen.
+ * <p>
+ * The rows are shown in a {@link ListView}, which creates cells for the visible
+ * area only and reuses them while scrolling. Each cell holds one card made by
+ * {@code newCard}; when the cell is reused the card is filled with another row
+ * instead of being rebuilt. So the number of nodes, and the CSS and layout work
+ * for them, depends on the height of the list and not on the number of rows.
+ * <p>
+ * Rows are looked up by key (their id), so push events and delta refreshes can add,
+ * replace or remove single rows. Because a card is reused for other rows, anything
+ * it shows beyond the row itself (a ticked checkbox, a note) must come from state
+ * the controller keeps; call {@link #refresh()} after changing that state.
+ * FX thread only.
+ */
+public final class CardList<T> {
+
+    /** One reusable card: the node, and how to show a row in it. */
+    public interface Card<T> {
+        Region getNode();
+
+        void show(T row);
+    }
+
+    private final ListView<T> view;
+    private final Function<T, ?> keyOf;
+    private final Map<Object, T> byKey = new HashMap<>();
+    private final Label placeholder = new Label();
+    private int cardsBuilt;
+
+    public CardList(ListView<T> view, Function<T, ?> keyOf, Supplier<? extends Card<T>> newCard) {
+        this.view = view;
+        this.keyOf = keyOf;
+        view.getStyleClass().add("card-list"); // no list look: cells are transparent, the cards are styled as before
+        view.setFocusTraversable(false);
+        placeholder.getStyleClass().add("placeholder-text");
+        view.setPlaceholder(placeholder);
+        view.setCellFactory(list -> {
+            cardsBuilt++;
+            return new CardCell<>(newCard.get());
+        });
+    }
+
+    private static final class CardCell<T> extends ListCell<T> {
+        private final Card<T> card;
+
+        CardCell(Card<T> card) {
+            this.card = card;
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+            // The card spans the cell, as it did the old VBox; the list's width decides, not the card's content
+            setPrefWidth(0);
+            card.getNode().prefWidthProperty().bind(Bindings.createDoubleBinding(
+                    () -> getWidth() - snappedLeftInset() - snappedRightInset(), widthProperty(), paddingProperty()));
+        }
+
+        @Override
+        protected void updateItem(T row, boolean empty) {
+            super.updateItem(row, empty);
+            if (empty || row == null) {
+                setGraphic(null);
+                return;
+            }
+            card.show(row);
+            setGraphic(card.getNode());
+        }
+    }
+
+    /** Text shown while there are no rows. */
+    public void setPlaceholder(String text) {
+        placeholder.setText(text);
+    }
+
+    public void setAll(List<T> rows) {
+        byKey.clear();
+        rows.forEach(row -> byKey.put(keyOf.apply(row), row));
+        view.getItems().setAll(rows);
+    }
+
+    /** Appends rows, e.g. the next batch of a list still streaming in. */
+    public void addAll(List<T> rows) {
+        rows.forEach(row -> byKey.put(keyOf.apply(row), row));
+        view.getItems().addAll(rows);
+    }
+
+    public void add(T row) {
+        add(view.getItems().size(), row);
+    }
+
+    public void add(int index, T row) {
+        byKey.put(keyOf.apply(row), row);
+        view.getItems().add(index, row);
+    }
+
+    /** Shows {@code row} in place of the row with the same key; false if there is none. */
+    public boolean replace(T row) {
+        int index = indexOf(keyOf.apply(row));
+        if (index < 0) return false;
+        byKey.put(keyOf.apply(row), row);
+        view.getItems().set(index, row);
+        return true;
+    }
+
+    /** Removes the row with {@code key}, returning the position it had, or -1 if it was not listed. */
+    public int remove(Object key) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            byKey.remove(key);
+            view.getItems().remove(index);
+        }
+        return index;
+    }
+
+    public void clear() {
+        byKey.clear();
+        view.getItems().clear();
+    }
+
+    public T get(Object key) {
+        return byKey.get(key);
+    }
+
+    public boolean contains(Object key) {
+        return byKey.containsKey(key);
+    }
+
+    public int indexOf(Object key) {
+        T row = byKey.get(key);
+        return row == null ? -1 : view.getItems().indexOf(row);
+    }
+
+    public boolean isEmpty() {
+        return view.getItems().isEmpty();
+    }
+
+    public int size() {
+        return view.getItems().size();
+    }
+
+    /** The rows in display order, read-only. */
+    public List<T> rows() {
+        return Collections.unmodifiableList(view.getItems());
+    }
+
+    /** Shows the visible rows again, after state their cards read (e.g. the selection) changed. */
+    public void refresh() {
+        view.refresh();
+    }
+
+    /** Cards made so far; stays near the number of visible rows however long the list is. */
+    public int getCardsBuilt() {
+        return cardsBuilt;
+    }
+}
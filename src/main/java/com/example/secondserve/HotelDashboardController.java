@@ -1,13 +1,15 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
+import com.example.secondserve.api.Batch;
+import com.example.secondserve.api.DeltaSync;
+import com.example.secondserve.api.PushChannel;
+import com.example.secondserve.api.RequestPriority;
 import com.example.secondserve.dto.FoodItemDto;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.example.secondserve.dto.AuthResponse;
+import com.example.secondserve.dto.BulkTransitionResultDto;
 import com.example.secondserve.dto.DashboardStatsDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -18,21 +20,28 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class HotelDashboardController {
-    private Timeline refreshTimeline;
     // --- FXML UI Components ---
     @FXML private BorderPane mainBorderPane;
     @FXML private Label donatedValueLabel;
@@ -41,18 +50,30 @@ public class HotelDashboardController {
     @FXML private Button dashboardButton;
     @FXML private Button profileButton;
     @FXML private Button requestsButton;
-    @FXML private VBox newLeftoversContainer;
+    @FXML private ListView<FoodItemDto> newLeftoversList;
     @FXML private Label hotelName;
+    @FXML private CheckBox selectAllLeftoversCheckBox;
+    @FXML private Button approveSelectedButton;
+    @FXML private Button rejectSelectedButton;
     // A reference to the initial dashboard view to easily return to it.
     private Node dashboardView;
     private Button activeButton;
-
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Items currently listed, by food item id, so push events can update single rows; only visible ones get a card
+    private CardList<FoodItemDto> leftoverCards;
+    // False until the first full list has been drawn; until then delta results are drawn in full
+    private boolean leftoversRendered;
+    // Ids of the leftover cards whose checkbox is ticked, for the bulk approve/reject buttons
+    private final Set<Long> selectedLeftovers = new LinkedHashSet<>();
+
+    private final ApiClient api = ApiClient.getInstance();
+    // Approvals and rejections show at once; server data for items still being sent is skipped
+    private final OptimisticActions<FoodItemDto> actions =
+            new OptimisticActions<>(api.onFxThread("dashboard.actions"), FoodItemDto::getId);
 
     @FXML
     public void initialize() {
-        objectMapper.registerModule(new JavaTimeModule());
+        leftoverCards = new CardList<>(newLeftoversList, FoodItemDto::getId, LeftoverCard::new);
+        leftoverCards.setPlaceholder("No new leftovers are awaiting review.");
         AuthResponse session = SessionManager.getSession();
         if (session != null) {
 
@@ -65,21 +86,48 @@ public class HotelDashboardController {
         setActiveButton(dashboardButton);
 
         // Asynchronously load dynamic data from the server.
-        loadDashboardStats();
-        loadPendingLeftovers();
+        loadInitialData();
+        subscribeToLiveUpdates();
         setupAutoRefresh();
     }
 
+    /**
+     * Applies server push events to the open dashboard one row at a time.
+     * The subscriptions are dropped once the dashboard leaves the window (see closeWhenReplaced).
+     */
+    private void subscribeToLiveUpdates() {
+        PushChannel push = api.getPushChannel();
+        Executor fxThread = api.onFxThread("dashboard.push");
+        closeWhenReplaced(List.of(
+                push.subscribe("food-item.pending", FoodItemDto.class, fxThread, this::addLeftoverCard),
+                push.subscribe("food-item.resolved", FoodItemDto.class, fxThread, item -> dropLeftoverCard(item.getId())),
+                push.subscribe("dashboard.stats", DashboardStatsDto.class, fxThread, this::handleStatsResponse)));
+    }
+
+    // The dashboard is the scene's root, so it never loses its scene; it leaves the window when
+    // the stage is given another scene (logout). Swapping the center view keeps it open.
+    private void closeWhenReplaced(List<PushChannel.Subscription> subscriptions) {
+        mainBorderPane.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) return;
+            newScene.windowProperty().addListener((o, oldWindow, newWindow) -> {
+                if (oldWindow != null && newWindow == null) subscriptions.forEach(PushChannel.Subscription::close);
+            });
+        });
+    }
+
+    /**
+     * Periodic refreshes run through the shared RefreshScheduler: they pause while the
+     * dashboard is swapped out or minimized, slow down while nothing changes (push events
+     * keep the view current meanwhile) and are cancelled on logout.
+     */
     private void setupAutoRefresh() {
-        refreshTimeline = new Timeline(
-                new KeyFrame(Duration.seconds(30), event -> {
-                    System.out.println("Auto-refreshing dashboard...");
-                    loadDashboardStats();
-                    loadPendingLeftovers();
-                })
-        );
-        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
-        refreshTimeline.play();
+        RefreshScheduler scheduler = RefreshScheduler.getInstance();
+        scheduler.register("dashboard.stats", newLeftoversList, Duration.seconds(30), () -> {
+            // Debug aid: -Dsecondserve.api.logMetrics=true prints the API metrics on every refresh
+            if (Boolean.getBoolean("secondserve.api.logMetrics")) System.out.print(api.getMetrics().summary());
+            return loadDashboardStats();
+        });
+        scheduler.register("dashboard.leftovers", newLeftoversList, Duration.seconds(30), this::loadPendingLeftovers);
     }
 
     /**
@@ -121,164 +169,306 @@ public class HotelDashboardController {
 
     // --- API Communication Logic ---
 
-    private void loadDashboardStats() {
-        String authToken = SessionManager.getAuthToken();
-        if (authToken == null) {
-
+    /**
+     * First render: stats and pending leftovers come in one batch request. The batch
+     * also primes the leftovers' delta sync, so the periodic refreshes below only
+     * fetch changes. The pending donation requests are prefetched behind it, so the
+     * Donation Requests view opens with them already loaded.
+     */
+    private void loadInitialData() {
+        Long hotelId = SessionManager.getHotelId();
+        if (SessionManager.getAuthToken() == null || hotelId == null) {
+            System.err.println("Not logged in or hotelId is null. Cannot fetch dashboard data.");
             return;
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/hotels/dashboard-stats"))
-                .header("Authorization", authToken)
-                .GET()
-                .build();
+        Batch batch = api.newBatch();
+        batch.dashboardStats()
+                .thenApplyAsync(this::handleStatsResponse, api.onFxThread("dashboard.stats"))
+                .whenComplete((changed, e) -> {
+                    if (e != null) handleStatsError(e);
+                });
+        batch.pendingFoodItems(hotelId)
+                .thenApplyAsync(this::handleLeftoversResponse, api.onFxThread("dashboard.leftovers"))
+                .whenComplete((changed, e) -> {
+                    if (e != null) handleConnectionError(e);
+                });
+        batch.send();
 
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(this::handleStatsResponse)
-                .exceptionally(this::handleConnectionError);
+        api.withPriority(RequestPriority.PREFETCH, api.pendingRequestsForHotelSync(hotelId)::refresh)
+                .whenComplete((result, e) -> {
+                    if (e != null) System.err.println("Could not prefetch donation requests: " + e.getMessage());
+                });
     }
 
-    private void handleStatsResponse(HttpResponse<String> response) {
-        Platform.runLater(() -> {
-            if (response.statusCode() == 200) {
-                try {
-                    DashboardStatsDto stats = objectMapper.readValue(response.body(), DashboardStatsDto.class);
-                    // Update the UI labels with the fetched data
-                    donatedValueLabel.setText(stats.getTotalDonatedThisWeek().toString());
-                    loggedValueLabel.setText(stats.getTotalLoggedThisWeek().toString());
-                    hotelCodeLabel.setText(stats.getHotelCode());
-                } catch (IOException e) {
-                    showAlert("Application Error", "Could not parse dashboard data from the server.");
-                }
-            } else {
-                showAlert("Server Error", "Could not load dashboard stats. Status: " + response.statusCode());
-            }
-        });
+    // Completes with true if the stats shown changed; failures are reported here and fail the future
+    private CompletableFuture<Boolean> loadDashboardStats() {
+        if (SessionManager.getAuthToken() == null) {
+
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return api.getDashboardStats()
+                .thenApplyAsync(this::handleStatsResponse, api.onFxThread("dashboard.stats"))
+                .whenComplete((changed, e) -> {
+                    if (e != null) handleStatsError(e);
+                });
     }
 
-    private void loadPendingLeftovers() {
+    // Runs on the FX thread with an already decoded DTO
+    private boolean handleStatsResponse(DashboardStatsDto stats) {
+        String donated = stats.getTotalDonatedThisWeek().toString();
+        String logged = stats.getTotalLoggedThisWeek().toString();
+        boolean changed = !donated.equals(donatedValueLabel.getText()) || !logged.equals(loggedValueLabel.getText())
+                || !Objects.equals(stats.getHotelCode(), hotelCodeLabel.getText());
+
+        // Update the UI labels with the fetched data
+        donatedValueLabel.setText(donated);
+        loggedValueLabel.setText(logged);
+        hotelCodeLabel.setText(stats.getHotelCode());
+        return changed;
+    }
+
+    private Void handleStatsError(Throwable e) {
+        Throwable cause = ApiException.rootCause(e);
+        if (cause instanceof ApiException) {
+            int status = ((ApiException) cause).getStatusCode();
+            Platform.runLater(() -> showAlert("Server Error", "Could not load dashboard stats. Status: " + status));
+        } else if (cause instanceof UncheckedIOException) {
+            Platform.runLater(() -> showAlert("Application Error", "Could not parse dashboard data from the server."));
+        } else {
+            handleConnectionError(e);
+        }
+        return null;
+    }
+
+    // Completes with true if the list changed; failures are reported here and fail the future
+    private CompletableFuture<Boolean> loadPendingLeftovers() {
         String authToken = SessionManager.getAuthToken();
         Long hotelId = SessionManager.getHotelId(); // This method now exists and works
         if (authToken == null || hotelId == null) {
             System.err.println("Not logged in or hotelId is null. Cannot fetch leftovers.");
-            return;
+            return CompletableFuture.completedFuture(false);
         }
 
-        // We use the new endpoint created on the server
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-items/hotel/" + hotelId + "/pending"))
-                .header("Authorization", authToken)
-                .GET()
-                .build();
+        // Only the changes since the last refresh are downloaded once the cache is warm
+        return api.pendingFoodItemsSync(hotelId).refresh()
+                .thenApplyAsync(this::handleLeftoversResponse, api.onFxThread("dashboard.leftovers"))
+                .whenComplete((changed, e) -> {
+                    if (e != null) handleConnectionError(e);
+                });
+    }
 
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(this::handleLeftoversResponse)
-                .exceptionally(this::handleConnectionError);
+    // Runs on the FX thread; parsing and merging already happened on the API decode pool
+    private boolean handleLeftoversResponse(DeltaSync.Result<FoodItemDto> result) {
+        if (result.isFullReload() || !leftoversRendered) {
+            updateLeftoversUI(result.getItems());
+            return true;
+        }
+        result.getRemoved().forEach(this::dropLeftoverCard);
+        result.getAdded().forEach(this::addLeftoverCard);
+        result.getUpdated().forEach(this::addLeftoverCard);
+        return result.hasChanges();
     }
 
-    private void handleLeftoversResponse(HttpResponse<String> response) {
-        Platform.runLater(() -> {
-            if (response.statusCode() == 200) {
-                try {
-                    // Use a TypeReference to parse a List of objects
-                    List<FoodItemDto> pendingItems = objectMapper.readValue(response.body(), new TypeReference<List<FoodItemDto>>() {});
-                    updateLeftoversUI(pendingItems);
-                } catch (IOException e) {
-                    System.err.println("Error parsing pending leftovers JSON: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            } else {
-                System.err.println("Failed to fetch pending leftovers. Status: " + response.statusCode());
-            }
-        });
+    private void updateLeftoversUI(List<FoodItemDto> allPendingItems) {
+        // Items approved or rejected a moment ago may still be in the list the server sent
+        List<FoodItemDto> pendingItems = actions.withoutPending(allPendingItems);
+        leftoversRendered = true;
+        selectedLeftovers.retainAll(pendingItems.stream().map(FoodItemDto::getId).collect(Collectors.toSet()));
+        updateBulkButtons();
+        leftoverCards.setAll(pendingItems); // Replaces old items; the placeholder shows while there are none
     }
 
-    private void updateLeftoversUI(List<FoodItemDto> pendingItems) {
-        newLeftoversContainer.getChildren().clear(); // Clear old items
+    // Push event: a new item is awaiting review (or an existing one changed)
+    private void addLeftoverCard(FoodItemDto item) {
+        Long hotelId = SessionManager.getHotelId();
+        if (item.getId() == null || (item.getHotelId() != null && !item.getHotelId().equals(hotelId))) return;
+        if (actions.skip(item)) return; // being approved or rejected here; the server's answer decides
 
-        if (pendingItems.isEmpty()) {
-            Label placeholder = new Label("No new leftovers are awaiting review.");
-            placeholder.getStyleClass().add("placeholder-text");
-            newLeftoversContainer.getChildren().add(placeholder);
-        } else {
-            for (FoodItemDto item : pendingItems) {
-                newLeftoversContainer.getChildren().add(createLeftoverCard(item));
-            }
+        if (!leftoverCards.replace(item)) {
+            leftoverCards.add(item);
         }
     }
 
-    private HBox createLeftoverCard(FoodItemDto item) {
-        HBox card = new HBox(10);
-        card.setAlignment(Pos.CENTER_LEFT);
-        card.getStyleClass().add("leftover-card"); // For CSS styling
+    // Server data: the item was approved or rejected, possibly by another manager
+    private void dropLeftoverCard(Long foodItemId) {
+        actions.skipRemoved(foodItemId); // one being decided here stays gone if that fails
+        removeLeftoverCard(foodItemId);
+    }
 
-        Label nameLabel = new Label(item.getFoodName());
-        nameLabel.setMinWidth(200);
-        nameLabel.getStyleClass().add("leftover-name");
+    private void removeLeftoverCard(Long foodItemId) {
+        if (selectedLeftovers.remove(foodItemId)) updateBulkButtons();
+        leftoverCards.remove(foodItemId);
+    }
 
-        Label quantityLabel = new Label(String.format("%.2f %s", item.getQuantity(), item.getUnit()));
-        quantityLabel.setMinWidth(120);
-        quantityLabel.getStyleClass().add("leftover-details");
+    // One leftover card, built once per visible row and filled with whichever item the row shows
+    private class LeftoverCard implements CardList.Card<FoodItemDto> {
+        private final CheckBox selectBox = new CheckBox();
+        private final Label nameLabel = new Label();
+        private final Label quantityLabel = new Label();
+        private final Label expiryLabel = new Label();
+        private final HBox card = new HBox(10);
+        private FoodItemDto item;
 
-        Label expiryLabel = new Label("Expires: " + item.getExpiryDate().toString());
-        expiryLabel.getStyleClass().add("leftover-details");
+        LeftoverCard() {
+            card.setAlignment(Pos.CENTER_LEFT);
+            card.getStyleClass().add("leftover-card"); // For CSS styling
 
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
+            // Only clicks change the selection; showing another item in this card does not
+            selectBox.setOnAction(e -> {
+                if (selectBox.isSelected()) selectedLeftovers.add(item.getId()); else selectedLeftovers.remove(item.getId());
+                updateBulkButtons();
+            });
 
-        Button approveButton = new Button("Approve");
-        approveButton.getStyleClass().add("approve-button");
-        approveButton.setOnAction(e -> handleApprove(item.getId()));
+            nameLabel.setMinWidth(200);
+            nameLabel.getStyleClass().add("leftover-name");
 
-        Button rejectButton = new Button("Reject");
-        rejectButton.getStyleClass().add("reject-button");
-        rejectButton.setOnAction(e -> handleReject(item.getId()));
+            quantityLabel.setMinWidth(120);
+            quantityLabel.getStyleClass().add("leftover-details");
 
-        card.getChildren().addAll(nameLabel, quantityLabel, expiryLabel, spacer, approveButton, rejectButton);
-        return card;
+            expiryLabel.getStyleClass().add("leftover-details");
+
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+
+            Button approveButton = new Button("Approve");
+            approveButton.getStyleClass().add("approve-button");
+            approveButton.setOnAction(e -> handleApprove(item.getId()));
+
+            Button rejectButton = new Button("Reject");
+            rejectButton.getStyleClass().add("reject-button");
+            rejectButton.setOnAction(e -> handleReject(item.getId()));
+
+            card.getChildren().addAll(selectBox, nameLabel, quantityLabel, expiryLabel, spacer, approveButton, rejectButton);
+        }
+
+        @Override
+        public HBox getNode() {
+            return card;
+        }
+
+        @Override
+        public void show(FoodItemDto item) {
+            this.item = item;
+            selectBox.setSelected(selectedLeftovers.contains(item.getId()));
+            nameLabel.setText(item.getFoodName());
+            quantityLabel.setText(String.format("%.2f %s", item.getQuantity(), item.getUnit()));
+            expiryLabel.setText("Expires: " + item.getExpiryDate().toString());
+        }
     }
 
     private void handleReject(Long foodItemId) {
-        String authToken = SessionManager.getAuthToken();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-items/" + foodItemId))
-                .header("Authorization", authToken)
-                .DELETE() // DELETE request
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(response -> {
-                    if (response.statusCode() == 204) { // 204 No Content is success for DELETE
-                        Platform.runLater(this::loadPendingLeftovers); // Refresh the list
-                    } else {
-                        System.err.println("Failed to reject item. Status: " + response.statusCode());
-                    }
-                });
+        transitionLeftover(foodItemId, "reject", () -> api.rejectFoodItem(foodItemId));
     }
 
     private void handleApprove(Long foodItemId) {
-        String authToken = SessionManager.getAuthToken();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-items/" + foodItemId + "/approve"))
-                .header("Authorization", authToken)
-                .PUT(HttpRequest.BodyPublishers.noBody()) // PUT request
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(response -> {
-                    if (response.statusCode() == 200) {
-                        Platform.runLater(this::loadPendingLeftovers); // Refresh the list on success
-                    } else {
-                        System.err.println("Failed to approve item. Status: " + response.statusCode());
-                    }
-                });
+        transitionLeftover(foodItemId, "approve", () -> api.approveFoodItem(foodItemId));
+    }
+
+    // The card goes at once and comes back where it was if the call fails; nothing is reloaded
+    private void transitionLeftover(Long foodItemId, String action, Supplier<CompletableFuture<Void>> call) {
+        Map<Long, Runnable> restore = new HashMap<>();
+        actions.run(foodItemId, () -> restore.putAll(hideLeftoverCards(List.of(foodItemId))), call, (ignored, e) -> {
+            if (e == null) return;
+            ApiException apiError = ApiException.unwrap(e);
+            if (apiError != null && apiError.getStatusCode() == 404) return; // already handled by someone else
+            restore.values().forEach(Runnable::run);
+            System.err.println("Failed to " + action + " item: " + e.getMessage());
+        });
+    }
+
+    /**
+     * Takes the items {@code ids} out of the list, returning for each one an action
+     * that puts it back at its old position, ticked if it was (used when the server
+     * refuses the change). It comes back as the server last sent it meanwhile, and not
+     * at all if the server dropped it from the pending list.
+     */
+    private Map<Long, Runnable> hideLeftoverCards(List<Long> ids) {
+        Map<Long, Runnable> restore = new HashMap<>();
+        for (Long id : ids) {
+            FoodItemDto item = leftoverCards.get(id);
+            if (item == null) continue;
+            int position = leftoverCards.indexOf(id);
+            boolean selected = selectedLeftovers.contains(id);
+            restore.put(id, () -> {
+                if (leftoverCards.contains(id)) return; // the server sent it again meanwhile
+                FoodItemDto current = actions.rollbackTo(id, item);
+                if (current == null) return;
+                leftoverCards.add(Math.min(position, leftoverCards.size()), current);
+                if (selected) selectedLeftovers.add(id);
+                updateBulkButtons();
+            });
+        }
+        ids.forEach(this::removeLeftoverCard);
+        return restore;
+    }
+
+    // --- Bulk actions ---
+
+    @FXML
+    private void handleSelectAllLeftovers() {
+        if (selectAllLeftoversCheckBox.isSelected()) {
+            leftoverCards.rows().forEach(item -> selectedLeftovers.add(item.getId()));
+        } else {
+            selectedLeftovers.clear();
+        }
+        leftoverCards.refresh(); // redraws the ticks of the visible cards
+        updateBulkButtons();
+    }
+
+    @FXML
+    private void handleApproveSelected() {
+        transitionSelected("approve");
+    }
+
+    @FXML
+    private void handleRejectSelected() {
+        transitionSelected("reject");
+    }
+
+    /**
+     * Sends every ticked item in one request. The cards go at once; the ones that
+     * failed come back, still ticked, so the manager can retry them.
+     */
+    private void transitionSelected(String action) {
+        List<Long> ids = new ArrayList<>(selectedLeftovers);
+        if (ids.isEmpty()) return;
+        Map<Long, Runnable> restore = new HashMap<>();
+
+        actions.run(ids, () -> {
+            restore.putAll(hideLeftoverCards(ids));
+            selectAllLeftoversCheckBox.setSelected(false);
+        }, () -> api.bulkTransitionFoodItems(ids, action), (result, e) -> {
+            if (e != null) {
+                restore.values().forEach(Runnable::run);
+                handleConnectionError(e);
+                return;
+            }
+            List<BulkTransitionResultDto.ItemResult> failures = result.getFailures();
+            failures.forEach(failure -> restore.getOrDefault(failure.getId(), () -> { }).run());
+            if (!failures.isEmpty()) {
+                showAlert("Some items were not updated", failures.size() + " of " + ids.size()
+                        + " items could not be " + (action.equals("approve") ? "approved" : "rejected")
+                        + ". They are still selected; they may have been handled by someone else.");
+            }
+        });
+    }
+
+    private void updateBulkButtons() {
+        approveSelectedButton.setDisable(selectedLeftovers.isEmpty());
+        rejectSelectedButton.setDisable(selectedLeftovers.isEmpty());
     }
 
     private Void handleConnectionError(Throwable e) {
         Platform.runLater(() -> {
-            System.err.println("Connection Error: " + e.getMessage());
-            //showAlert("Connection Error", "Could not connect to the server.");
+            ApiException apiError = ApiException.unwrap(e);
+            if (apiError != null) {
+                System.err.println("Server Error: status " + apiError.getStatusCode());
+            } else {
+                System.err.println("Connection Error: " + e.getMessage());
+                //showAlert("Connection Error", "Could not connect to the server.");
+            }
         });
         return null;
     }
@@ -303,7 +493,9 @@ public class HotelDashboardController {
                 // If it is, cast it and pass the mainBorderPane reference
                 ((HotelDonationreqController) controller).setMainBorderPane(mainBorderPane);
             }
-            // 5. Finally, set the loaded view into the center of the dashboard
+            // 5. Finally, set the loaded view into the center of the dashboard.
+            // The view it replaces cancels its own outstanding loads once detached (see CancellationScope);
+            // the main dashboard view is kept for handleShowDashboard, so its refreshes just pause.
             mainBorderPane.setCenter(view);
 
         } catch (IOException e) {
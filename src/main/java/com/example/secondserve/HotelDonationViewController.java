@@ -1,11 +1,12 @@
 package com.example.secondserve;
 
-import com.example.secondserve.dto.FoodItemDto;
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
+import com.example.secondserve.api.Batch;
+import com.example.secondserve.api.CancellationScope;
+import com.example.secondserve.dto.FoodItemListingDto;
 import com.example.secondserve.dto.FoodRequestDto;
 import com.example.secondserve.dto.HotelDto;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -13,28 +14,23 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.util.List;
 
 public class HotelDonationViewController {
 
     // --- FXML UI Components ---
     @FXML private Label hotelNameSubtitle, hotelNameLabel, hotelAddressLabel, hotelContactLabel;
-    @FXML private TableView<FoodItemDto> foodItemsTableView;
-    @FXML private TableColumn<FoodItemDto, String> itemNameColumn;
-    @FXML private TableColumn<FoodItemDto, String> quantityColumn;
-    @FXML private TableColumn<FoodItemDto, String> conditionColumn;
-    @FXML private TableColumn<FoodItemDto, LocalDate> expiryDateColumn;
-    @FXML private TableColumn<FoodItemDto, Void> requestColumn;
+    @FXML private TableView<FoodItemListingDto> foodItemsTableView;
+    @FXML private TableColumn<FoodItemListingDto, String> itemNameColumn;
+    @FXML private TableColumn<FoodItemListingDto, String> quantityColumn;
+    @FXML private TableColumn<FoodItemListingDto, String> conditionColumn;
+    @FXML private TableColumn<FoodItemListingDto, LocalDate> expiryDateColumn;
+    @FXML private TableColumn<FoodItemListingDto, Void> requestColumn;
 
     private long hotelId;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ApiClient api = ApiClient.getInstance();
+    private final CancellationScope loads = new CancellationScope(); // aborted when the user navigates away
     private NgoPortalController mainPortalController;
 
     /**
@@ -43,9 +39,12 @@ public class HotelDonationViewController {
     public void initData(long hotelId, NgoPortalController mainPortalController) {
         this.hotelId = hotelId;
         this.mainPortalController = mainPortalController;
+        // Leaving the view (another hotel, back, other tab) aborts downloads still running for it
+        foodItemsTableView.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) loads.cancel();
+        });
         setupTableColumns();
-        loadHotelDetails();
-        loadAvailableFoodItems();
+        loadHotelAndFoodItems();
     }
 
     private void setupTableColumns() {
@@ -72,8 +71,8 @@ public class HotelDonationViewController {
                     return;
                 }
 
-                // Get the FoodItemDto for the current row
-                FoodItemDto foodItem = getTableView().getItems().get(getIndex());
+                // Get the FoodItemListingDto for the current row
+                FoodItemListingDto foodItem = getTableView().getItems().get(getIndex());
                 String status = foodItem.getCurrentUserRequestStatus();
 
                 // Check if there is already an active request for this item
@@ -99,7 +98,7 @@ public class HotelDonationViewController {
     /**
      * This method handles the logic for sending a donation request to the server.
      */
-    private void handleRequestItem(FoodItemDto foodItem, Button button) {
+    private void handleRequestItem(FoodItemListingDto foodItem, Button button) {
         String authToken = SessionManager.getAuthToken();
         if (authToken == null) {
             showAlert("Authentication Error", "You are not logged in.");
@@ -111,110 +110,77 @@ public class HotelDonationViewController {
         requestPayload.setFoodItemId(foodItem.getId());
         requestPayload.setRequestedQuantity(foodItem.getQuantity());
 
-        try {
-            String requestBody = objectMapper.writeValueAsString(requestPayload);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/food-requests"))
-                    .header("Authorization", authToken)
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            button.setDisable(true); // Disable button immediately to prevent double-clicks
-
-            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                    .thenAccept(response -> Platform.runLater(() -> {
-                        if (response.statusCode() == 201) { // 201 Created
-                            // SUCCESS: Update the UI to show "Pending"
-                            button.setText("PENDING");
-                            button.getStyleClass().remove("request-button");
-                            button.getStyleClass().add("pending-button");
-                        } else {
+        button.setDisable(true); // Disable button immediately to prevent double-clicks
+
+        api.createFoodRequest(requestPayload)
+                .thenAccept(created -> Platform.runLater(() -> {
+                    // SUCCESS: Update the UI to show "Pending"
+                    button.setText("PENDING");
+                    button.getStyleClass().remove("request-button");
+                    button.getStyleClass().add("pending-button");
+                })).exceptionally(e -> {
+                    Platform.runLater(() -> {
+                        if (ApiException.unwrap(e) != null) {
                             // The request failed
                             showAlert("Request Failed", "This item might no longer be available. Please refresh the list.");
-                            button.setDisable(false);
-                        }
-                    })).exceptionally(e -> {
-                        // Handle network failure
-                        Platform.runLater(() -> {
+                        } else {
+                            // Handle network failure
                             showAlert("Connection Error", "Could not send the request. Please check your connection.");
-                            button.setDisable(false);
-                        });
-                        return null;
+                        }
+                        button.setDisable(false);
                     });
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+                    return null;
+                });
     }
 
     /**
-     * Fetches the public details of the selected hotel from the server.
+     * Fetches the public details of the selected hotel and its currently available
+     * food items in one batch request, so the view renders after a single round trip.
      */
-    private void loadHotelDetails() {
+    private void loadHotelAndFoodItems() {
         String authToken = SessionManager.getAuthToken();
         if (authToken == null) {
             showAlert("Authentication Error", "You are not logged in. Please restart and log in again.");
             return;
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/hotels/" + this.hotelId))
-                .header("Authorization", authToken)
-                .GET()
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(response -> {
-                    Platform.runLater(() -> {
-                        if (response.statusCode() == 200) {
-                            try {
-                                HotelDto hotel = objectMapper.readValue(response.body(), HotelDto.class);
-
-                                hotelNameSubtitle.setText("From " + hotel.getHotelName());
-                                hotelNameLabel.setText(hotel.getHotelName());
-                                hotelAddressLabel.setText(hotel.getAddress());
-                                hotelContactLabel.setText("Contact: " + (hotel.getPhone() != null ? hotel.getPhone() : "Not provided"));
-
-                            } catch (IOException e) {
-                                e.printStackTrace();
-                                showAlert("Application Error", "Failed to parse hotel details from the server.");
-                            }
-                        } else {
-                            showAlert("Server Error", "Could not load hotel details. Status: " + response.statusCode());
-                        }
-                    });
-                }).exceptionally(this::handleConnectionError);
+        Batch batch = api.newBatch();
+        loads.track(batch.hotel(this.hotelId))
+                .thenAcceptAsync(hotel -> {
+                    hotelNameSubtitle.setText("From " + hotel.getHotelName());
+                    hotelNameLabel.setText(hotel.getHotelName());
+                    hotelAddressLabel.setText(hotel.getAddress());
+                    hotelContactLabel.setText("Contact: " + (hotel.getPhone() != null ? hotel.getPhone() : "Not provided"));
+                }, api.onFxThread("ngo.hotelDetails"))
+                .exceptionally(e -> handleLoadError(e, "hotel details"));
+        loads.track(batch.foodItemsForHotel(this.hotelId, FoodItemListingDto.class))
+                .thenAcceptAsync(items -> {
+                    foodItemsTableView.setItems(FXCollections.observableArrayList(items));
+                    System.out.println("Loaded " + items.size() + " food items");
+                }, api.onFxThread("ngo.hotelFoodItems"))
+                .exceptionally(e -> handleLoadError(e, "food items"));
+        batch.send();
     }
 
     /**
-     * Fetches the list of currently available food items from the selected hotel.
+     * Reports a failed load: server errors and parse errors get their own message,
+     * anything else is treated as a connection problem.
      */
-    private void loadAvailableFoodItems() {
-        String authToken = SessionManager.getAuthToken();
-        if (authToken == null) return;
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-items/hotel/" + this.hotelId))
-                .header("Authorization", authToken)
-                .GET()
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(response -> {
-                    Platform.runLater(() -> {
-                        if (response.statusCode() == 200) {
-                            try {
-                                List<FoodItemDto> foodItems = objectMapper.readValue(response.body(), new TypeReference<>() {});
-                                foodItemsTableView.setItems(FXCollections.observableArrayList(foodItems));
-                            } catch (IOException e) {
-                                e.printStackTrace();
-                                showAlert("Application Error", "Failed to parse food item list from the server.");
-                            }
-                        } else {
-                            showAlert("Server Error", "Could not load food items. Status: " + response.statusCode());
-                        }
-                    });
-                }).exceptionally(this::handleConnectionError);
+    private Void handleLoadError(Throwable e, String what) {
+        if (CancellationScope.isCancellation(e)) {
+            return null; // the user already left this view
+        }
+        Throwable cause = ApiException.rootCause(e);
+        if (cause instanceof ApiException) {
+            Platform.runLater(() -> showAlert("Server Error", "Could not load " + what + ". Status: " + ((ApiException) cause).getStatusCode()));
+            return null;
+        }
+        if (cause instanceof UncheckedIOException) {
+            cause.printStackTrace();
+            Platform.runLater(() -> showAlert("Application Error", "Failed to parse " + what + " from the server."));
+            return null;
+        }
+        return handleConnectionError(e);
     }
 
     /**
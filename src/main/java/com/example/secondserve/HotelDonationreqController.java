@@ -1,9 +1,13 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
+import com.example.secondserve.api.CancellationScope;
+import com.example.secondserve.api.ConflictException;
+import com.example.secondserve.api.DeltaSync;
+import com.example.secondserve.api.PushChannel;
+import com.example.secondserve.dto.BulkTransitionResultDto;
 import com.example.secondserve.dto.FoodRequestDto;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -14,36 +18,99 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
-import javafx.scene.layout.VBox;
 import javafx.scene.layout.BorderPane;
+import javafx.util.Duration;
+import org.controlsfx.control.Notifications;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 public class HotelDonationreqController {
 
     // --- FXML UI Components ---
-    @FXML private VBox requestsContainer;
+    @FXML private ListView<FoodRequestDto> requestsList;
     @FXML private BorderPane mainBorderPane;
+    @FXML private CheckBox selectAllRequestsCheckBox;
+    @FXML private Button approveSelectedButton;
+    @FXML private Button rejectSelectedButton;
 
     // --- API Communication ---
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ApiClient api = ApiClient.getInstance();
+    private final CancellationScope loads = new CancellationScope(); // aborted when the view is replaced
+    // Approvals and rejections show at once; server data for requests still being sent is skipped
+    private final OptimisticActions<FoodRequestDto> actions =
+            new OptimisticActions<>(api.onFxThread("hotel.pendingRequests.actions"), FoodRequestDto::getId);
+    // Requests currently listed, by id, so push events can add or remove single rows; only visible ones get a card
+    private CardList<FoodRequestDto> requestCards;
+    // What another manager did to requests this one was deciding on at the same time, by request id (see showConflict)
+    private final Map<Long, String> conflictNotes = new HashMap<>();
+    // False until the first full list has been drawn
+    private boolean requestsRendered;
+    // Ids of the request cards whose checkbox is ticked, for the bulk approve/reject buttons
+    private final Set<Long> selectedRequests = new LinkedHashSet<>();
 
     @FXML
     public void initialize() {
+        requestCards = new CardList<>(requestsList, FoodRequestDto::getId, RequestCard::new);
+        requestCards.setPlaceholder("Loading requests...");
         loadPendingRequests();
+        subscribeToLiveUpdates();
+        setupAutoRefresh();
+    }
+
+    // Background refresh while this view is open; it and any load still running are dropped once the view is replaced
+    private void setupAutoRefresh() {
+        RefreshScheduler.Handle refresh = RefreshScheduler.getInstance()
+                .register("hotel.pendingRequests", requestsList, Duration.seconds(30), this::loadPendingRequests);
+        requestsList.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                refresh.cancel();
+                loads.cancel();
+            }
+        });
+    }
+
+    /**
+     * New requests and status changes made elsewhere (e.g. by another manager) are pushed
+     * by the server. The subscriptions end when this view is replaced in the dashboard.
+     */
+    private void subscribeToLiveUpdates() {
+        PushChannel push = api.getPushChannel();
+        Executor fxThread = api.onFxThread("hotel.pendingRequests.push");
+        List<PushChannel.Subscription> subscriptions = List.of(
+                push.subscribe("food-request.created", FoodRequestDto.class, fxThread, this::applyRequestUpdate),
+                push.subscribe("food-request.status", FoodRequestDto.class, fxThread, this::applyRequestUpdate));
+        requestsList.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) subscriptions.forEach(PushChannel.Subscription::close);
+        });
+    }
+
+    private void applyRequestUpdate(FoodRequestDto request) {
+        if (actions.skip(request)) return; // being approved or rejected here; the server's answer decides
+        if (!"PENDING".equalsIgnoreCase(request.getRequestStatus())) {
+            removeRequestCard(request.getId());
+        } else if (!requestCards.replace(request)) {
+            requestCards.add(request);
+        }
     }
 
     /**
@@ -53,117 +120,166 @@ public class HotelDonationreqController {
         this.mainBorderPane = borderPane;
     }
 
-    private void loadPendingRequests() {
+    // Completes with true if the list changed; failures are reported here and fail the future
+    private CompletableFuture<Boolean> loadPendingRequests() {
         String authToken = SessionManager.getAuthToken();
         Long hotelId = SessionManager.getSession() != null ? SessionManager.getSession().getUserId() : null;
         System.out.println("Attempting to load requests for hotelId: " + hotelId);
         if (authToken == null || hotelId == null) {
             showAlert(Alert.AlertType.ERROR, "Authentication Error", "Could not verify user. Please log in again.");
-            requestsContainer.getChildren().clear();
-            Label placeholder = new Label("Could not load requests due to an authentication error.");
-            placeholder.getStyleClass().add("placeholder-text");
-            requestsContainer.getChildren().add(placeholder);
-            return;
+            requestCards.clear();
+            requestCards.setPlaceholder("Could not load requests due to an authentication error.");
+            return CompletableFuture.completedFuture(false);
         }
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-requests/hotel/" + hotelId + "?status=PENDING"))
-                .header("Authorization", authToken)
-                .GET()
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(this::handleRequestsResponse)
-                .exceptionally(this::handleConnectionError);
+        // The pending list is cached per session; reopening this view only downloads what changed
+        // The sync is shared with later visits, so leaving only detaches this view from it
+        return loads.guard(api.pendingRequestsForHotelSync(hotelId).refresh())
+                .thenApplyAsync(this::handleRequestsResponse, api.onFxThread("hotel.pendingRequests"))
+                .whenComplete((changed, e) -> {
+                    if (e != null && !CancellationScope.isCancellation(e)) handleLoadError(e);
+                });
     }
 
-    private void handleRequestsResponse(HttpResponse<String> response) {
-        Platform.runLater(() -> {
-            System.out.println("Response Status: " + response.statusCode());
-            System.out.println("Response Body: " + response.body());
-
-            if (response.statusCode() == 200) {
-                try {
-                    List<FoodRequestDto> requests = objectMapper.readValue(response.body(), new TypeReference<>() {});
-                    System.out.println("Number of requests loaded: " + (requests != null ? requests.size() : 0));
-                    displayRequests(requests);
-                } catch (IOException e) {
-                    System.err.println("Parse error: " + e.getMessage());
-                    e.printStackTrace();
-                    showAlert(Alert.AlertType.ERROR, "Application Error", "Could not parse the list of requests from the server.");
-                }
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Server Error", "Could not load donation requests. Status: " + response.statusCode() + "\nBody: " + response.body());
-            }
+    // Runs on the FX thread with the already decoded and merged changes
+    private boolean handleRequestsResponse(DeltaSync.Result<FoodRequestDto> result) {
+        System.out.println("Number of requests loaded: " + result.getItems().size());
+        if (result.isFullReload() || !requestsRendered) {
+            displayRequests(result.getItems());
+            return true;
+        }
+        result.getRemoved().forEach(id -> {
+            actions.skipRemoved(id);
+            removeRequestCard(id);
         });
+        result.getAdded().forEach(this::applyRequestUpdate);
+        result.getUpdated().forEach(this::applyRequestUpdate);
+        return result.hasChanges();
     }
 
-    private void displayRequests(List<FoodRequestDto> requests) {
-        requestsContainer.getChildren().clear();
-        if (requests == null || requests.isEmpty()) {
-            Label placeholder = new Label("There are no pending donation requests at this time.");
-            placeholder.getStyleClass().add("placeholder-text");
-            requestsContainer.getChildren().add(placeholder);
-        } else {
-            for (FoodRequestDto request : requests) {
-                HBox card = createRequestCard(request);
-                requestsContainer.getChildren().add(card);
-            }
+    private void removeRequestCard(Long requestId) {
+        if (selectedRequests.remove(requestId)) updateBulkButtons();
+        conflictNotes.remove(requestId);
+        requestCards.remove(requestId);
+    }
+
+    private Void handleLoadError(Throwable e) {
+        Throwable cause = ApiException.rootCause(e);
+        if (cause instanceof ApiException) {
+            ApiException apiError = (ApiException) cause;
+            Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Server Error", "Could not load donation requests. Status: " + apiError.getStatusCode() + "\nBody: " + apiError.getResponseBody()));
+            return null;
+        }
+        if (cause instanceof UncheckedIOException) {
+            System.err.println("Parse error: " + cause.getMessage());
+            cause.printStackTrace();
+            Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Application Error", "Could not parse the list of requests from the server."));
+            return null;
         }
+        return handleConnectionError(e);
     }
 
-    // In HotelDonationreqController.java
-
-    private HBox createRequestCard(FoodRequestDto request) {
-        // Create card with consistent spacing
-        HBox card = new HBox(15);  // Increased spacing slightly
-        card.getStyleClass().add("request-card");
-        card.setAlignment(Pos.CENTER_LEFT);
-
-        // 1. NGO Name Label (fixed width for alignment)
-        Label ngoNameLabel = new Label(request.getNgoName());
-        ngoNameLabel.getStyleClass().add("ngo-name-label");
-        ngoNameLabel.setMinWidth(180);
-        ngoNameLabel.setPrefWidth(180);
-
-        // 2. Food Details (fixed width)
-        String foodDetails = String.format("%.2f %s of %s",
-                request.getRequestedQuantity(),
-                request.getUnit(),
-                request.getFoodItemName());
-        Label foodDetailsLabel = new Label(foodDetails);
-        foodDetailsLabel.getStyleClass().add("food-details-label");
-        foodDetailsLabel.setMinWidth(240);
-        foodDetailsLabel.setPrefWidth(240);
-
-        // 3. Request Date
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        Label dateLabel = new Label("Received: " + request.getRequestDate().format(formatter));
-        dateLabel.getStyleClass().add("date-label");
-
-        // 4. Spacer
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
-
-        // 5. Buttons
-        Button approveButton = new Button("Approve");
-        approveButton.getStyleClass().add("approve-button");
-        approveButton.setOnAction(event -> handleApprove(request, card));
-
-        Button rejectButton = new Button("Reject");
-        rejectButton.getStyleClass().add("reject-button");
-        rejectButton.setOnAction(event -> handleReject(request, card));
-
-        card.getChildren().addAll(ngoNameLabel, foodDetailsLabel, dateLabel, spacer, approveButton, rejectButton);
-
-        // Click handler for NGO details
-        card.setOnMouseClicked(event -> {
-            if (event.getButton() == MouseButton.PRIMARY &&
-                    !(event.getTarget() instanceof Button)) {
-                showNgoDetails(request.getNgoId());
-            }
-        });
+    private void displayRequests(List<FoodRequestDto> allRequests) {
+        // Requests approved or rejected a moment ago may still be in the list the server sent
+        List<FoodRequestDto> requests = allRequests == null ? null : actions.withoutPending(allRequests);
+        requestsRendered = true;
+        conflictNotes.clear();
+        selectedRequests.clear();
+        updateBulkButtons();
+        requestCards.setPlaceholder("There are no pending donation requests at this time.");
+        requestCards.setAll(requests == null ? List.of() : requests);
+    }
+
+    // One request card, built once per visible row and filled with whichever request the row shows
+    private class RequestCard implements CardList.Card<FoodRequestDto> {
+        private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+        private final HBox card = new HBox(15);  // Increased spacing slightly
+        private final CheckBox selectBox = new CheckBox();
+        private final Label ngoNameLabel = new Label();
+        private final Label foodDetailsLabel = new Label();
+        private final Label dateLabel = new Label();
+        private final Label noteLabel = new Label();
+        private final Button approveButton = new Button("Approve");
+        private final Button rejectButton = new Button("Reject");
+        private FoodRequestDto request; // the copy shown; a decision on it is conditional on its version
+
+        RequestCard() {
+            card.getStyleClass().add("request-card");
+            card.setAlignment(Pos.CENTER_LEFT);
+
+            // 0. Selection box for bulk actions; its clicks must not open the NGO details.
+            // Only clicks change the selection; showing another request in this card does not
+            selectBox.setOnAction(event -> {
+                if (selectBox.isSelected()) selectedRequests.add(request.getId()); else selectedRequests.remove(request.getId());
+                updateBulkButtons();
+            });
+            selectBox.addEventHandler(MouseEvent.MOUSE_CLICKED, MouseEvent::consume);
+
+            // 1. NGO Name Label (fixed width for alignment)
+            ngoNameLabel.getStyleClass().add("ngo-name-label");
+            ngoNameLabel.setMinWidth(180);
+            ngoNameLabel.setPrefWidth(180);
+
+            // 2. Food Details (fixed width)
+            foodDetailsLabel.getStyleClass().add("food-details-label");
+            foodDetailsLabel.setMinWidth(240);
+            foodDetailsLabel.setPrefWidth(240);
+
+            // 3. Request Date
+            dateLabel.getStyleClass().add("date-label");
+
+            // 4. What another manager did meanwhile, if anything
+            noteLabel.getStyleClass().add("conflict-note");
+
+            // 5. Spacer
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+
+            // 6. Buttons
+            approveButton.getStyleClass().add("approve-button");
+            approveButton.setOnAction(event -> handleApprove(request));
+
+            rejectButton.getStyleClass().add("reject-button");
+            rejectButton.setOnAction(event -> handleReject(request));
+
+            card.getChildren().addAll(selectBox, ngoNameLabel, foodDetailsLabel, dateLabel, noteLabel, spacer, approveButton, rejectButton);
+
+            // Click handler for NGO details
+            card.setOnMouseClicked(event -> {
+                if (event.getButton() == MouseButton.PRIMARY &&
+                        !(event.getTarget() instanceof Button)) {
+                    showNgoDetails(request.getNgoId());
+                }
+            });
+        }
 
-        return card;
+        @Override
+        public HBox getNode() {
+            return card;
+        }
+
+        @Override
+        public void show(FoodRequestDto request) {
+            this.request = request;
+            selectBox.setSelected(selectedRequests.contains(request.getId()));
+            ngoNameLabel.setText(request.getNgoName());
+            foodDetailsLabel.setText(String.format("%.2f %s of %s",
+                    request.getRequestedQuantity(),
+                    request.getUnit(),
+                    request.getFoodItemName()));
+            dateLabel.setText("Received: " + request.getRequestDate().format(DATE_FORMAT));
+
+            String note = conflictNotes.get(request.getId());
+            noteLabel.setText(note);
+            noteLabel.setVisible(note != null);
+            noteLabel.setManaged(note != null);
+            // A request decided by someone else stays listed only to say so; it cannot be acted on
+            boolean pending = "PENDING".equalsIgnoreCase(request.getRequestStatus());
+            for (Node control : List.of(selectBox, approveButton, rejectButton)) {
+                control.setVisible(pending);
+                control.setManaged(pending);
+            }
+        }
     }
     /**
      * Navigates to the NGO details view
@@ -189,31 +305,164 @@ public class HotelDonationreqController {
         }
     }
 
-    private void handleApprove(FoodRequestDto requestDto, HBox cardNode) {
-        updateRequestStatus(requestDto, "approve", cardNode);
+    private void handleApprove(FoodRequestDto requestDto) {
+        updateRequestStatus(requestDto, "approve");
     }
 
-    private void handleReject(FoodRequestDto requestDto, HBox cardNode) {
-        updateRequestStatus(requestDto, "reject", cardNode);
+    private void handleReject(FoodRequestDto requestDto) {
+        updateRequestStatus(requestDto, "reject");
     }
 
-    private void updateRequestStatus(FoodRequestDto requestDto, String action, HBox cardNode) {
+    // The card goes at once; it comes back if the call fails, unless the request was already processed elsewhere
+    private void updateRequestStatus(FoodRequestDto requestDto, String action) {
         String authToken = SessionManager.getAuthToken();
         if (authToken == null) return;
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-requests/" + requestDto.getId() + "/" + action))
-                .header("Authorization", authToken)
-                .PUT(HttpRequest.BodyPublishers.noBody())
-                .build();
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(response -> Platform.runLater(() -> {
-                    if (response.statusCode() == 200) {
-                        requestsContainer.getChildren().remove(cardNode);
-                        showAlert(Alert.AlertType.INFORMATION, "Success", "The request has been " + (action.equals("approve") ? "approved." : "rejected."));
-                    } else {
-                        showAlert(Alert.AlertType.ERROR, "Error", "Could not update the request status. It may have already been processed.");
+        Map<Long, Runnable> restore = new HashMap<>();
+        actions.run(requestDto.getId(), () -> restore.putAll(hideRequestCards(List.of(requestDto.getId()))),
+                () -> api.transitionFoodRequest(requestDto, action), (stored, e) -> {
+                    if (e == null) {
+                        if (stored != null) applyRequestUpdate(stored); // the server's copy wins
+                        showStatus("The request has been " + (action.equals("approve") ? "approved." : "rejected."));
+                        return;
                     }
-                })).exceptionally(this::handleConnectionError);
+                    ConflictException conflict = ConflictException.unwrap(e);
+                    if (conflict != null) {
+                        restore.values().forEach(Runnable::run);
+                        showConflict(conflict.getCurrent(FoodRequestDto.class));
+                        return;
+                    }
+                    ApiException apiError = ApiException.unwrap(e);
+                    if (apiError == null) {
+                        restore.values().forEach(Runnable::run);
+                        handleConnectionError(e);
+                        return;
+                    }
+                    if (apiError.getStatusCode() != 404) restore.values().forEach(Runnable::run);
+                    showAlert(Alert.AlertType.ERROR, "Error", "Could not update the request status. It may have already been processed.");
+                });
+    }
+
+    /**
+     * Shows in the list what another manager did to a request this one tried to decide on
+     * at the same time, from the current copy the server sent with its refusal: a request
+     * still pending is shown with its current details and a note, one already decided
+     * stays listed with a note saying so. A note goes when a refresh redraws or drops the request.
+     */
+    private void showConflict(FoodRequestDto current) {
+        boolean pending = "PENDING".equalsIgnoreCase(current.getRequestStatus());
+        conflictNotes.put(current.getId(), pending
+                ? "Changed by another manager - please check it again"
+                : "Already " + current.getRequestStatus().toLowerCase() + " by another manager");
+        if (!pending && selectedRequests.remove(current.getId())) updateBulkButtons();
+        if (!requestCards.replace(current)) {
+            requestCards.add(current);
+        }
+    }
+
+    /**
+     * Takes the requests {@code ids} out of the list, returning for each one an action
+     * that puts it back at its old position, ticked if it was (used when the server
+     * refuses the change). It comes back as the server last sent it meanwhile, and not
+     * at all if that copy is no longer pending.
+     */
+    private Map<Long, Runnable> hideRequestCards(List<Long> ids) {
+        Map<Long, Runnable> restore = new HashMap<>();
+        for (Long id : ids) {
+            FoodRequestDto request = requestCards.get(id);
+            if (request == null) continue;
+            int position = requestCards.indexOf(id);
+            boolean selected = selectedRequests.contains(id);
+            restore.put(id, () -> {
+                if (requestCards.contains(id)) return; // the server sent it again meanwhile
+                FoodRequestDto current = actions.rollbackTo(id, request);
+                if (current == null || !"PENDING".equalsIgnoreCase(current.getRequestStatus())) return;
+                requestCards.add(Math.min(position, requestCards.size()), current);
+                if (selected) selectedRequests.add(id);
+                updateBulkButtons();
+            });
+        }
+        ids.forEach(this::removeRequestCard);
+        return restore;
+    }
+
+    // --- Bulk actions ---
+
+    @FXML
+    private void handleSelectAllRequests() {
+        if (selectAllRequestsCheckBox.isSelected()) {
+            requestCards.rows().stream()
+                    .filter(request -> "PENDING".equalsIgnoreCase(request.getRequestStatus()))
+                    .forEach(request -> selectedRequests.add(request.getId()));
+        } else {
+            selectedRequests.clear();
+        }
+        requestCards.refresh(); // redraws the ticks of the visible cards
+        updateBulkButtons();
+    }
+
+    @FXML
+    private void handleApproveSelected() {
+        transitionSelected("approve");
+    }
+
+    @FXML
+    private void handleRejectSelected() {
+        transitionSelected("reject");
+    }
+
+    /**
+     * Sends every ticked request in one call. The cards go at once; the ones that failed
+     * come back, still ticked, and are listed in a single summary. Those another manager
+     * changed meanwhile come back as they are now, with a note, as in {@link #showConflict};
+     * if the server sent no current copies they are brought up to date by a delta refresh.
+     */
+    private void transitionSelected(String action) {
+        String authToken = SessionManager.getAuthToken();
+        List<Long> ids = new ArrayList<>(selectedRequests);
+        if (authToken == null || ids.isEmpty()) return;
+        List<FoodRequestDto> loaded = ids.stream().map(requestCards::get).collect(Collectors.toList());
+        Map<Long, Runnable> restore = new HashMap<>();
+
+        actions.run(ids, () -> {
+            restore.putAll(hideRequestCards(ids));
+            selectAllRequestsCheckBox.setSelected(false);
+        }, () -> api.bulkTransitionFoodRequests(loaded, action), (result, e) -> {
+            if (e != null) {
+                restore.values().forEach(Runnable::run);
+                handleConnectionError(e);
+                return;
+            }
+            String verb = action.equals("approve") ? "approved" : "rejected";
+            List<BulkTransitionResultDto.ItemResult> failures = result.getFailures();
+            failures.forEach(failure -> restore.getOrDefault(failure.getId(), () -> { }).run());
+            long changed = failures.stream().filter(failure -> failure.getStatus() == 412).count();
+            boolean reload = false;
+            for (BulkTransitionResultDto.ItemResult failure : failures) {
+                if (failure.getStatus() != 412) continue;
+                FoodRequestDto current = failure.getCurrent(FoodRequestDto.class);
+                if (current != null) showConflict(current); // the restored card shows the request as it is now
+                else reload = true;
+            }
+            if (reload) {
+                loadPendingRequests(); // only the changed requests are downloaded
+            }
+            if (failures.isEmpty()) {
+                showStatus(ids.size() + " request(s) have been " + verb + ".");
+            } else if (changed == failures.size()) {
+                showAlert(Alert.AlertType.WARNING, "Partially Completed",
+                        (ids.size() - failures.size()) + " request(s) " + verb + ", " + changed
+                                + " had been changed by another manager and are shown as they are now.");
+            } else {
+                showAlert(Alert.AlertType.WARNING, "Partially Completed",
+                        (ids.size() - failures.size()) + " request(s) " + verb + ", " + failures.size()
+                                + " could not be updated. They may have already been processed and are still selected.");
+            }
+        });
+    }
+
+    private void updateBulkButtons() {
+        approveSelectedButton.setDisable(selectedRequests.isEmpty());
+        rejectSelectedButton.setDisable(selectedRequests.isEmpty());
     }
 
     // --- Navigation Methods ---
@@ -250,6 +499,17 @@ public class HotelDonationreqController {
         return null;
     }
 
+    // The list already shows the change, so success is only confirmed in passing; dialogs are for what went wrong
+    private void showStatus(String message) {
+        Notifications.create()
+                .owner(requestsList)
+                .title("Success")
+                .text(message)
+                .position(Pos.BOTTOM_RIGHT)
+                .hideAfter(Duration.seconds(3))
+                .showInformation();
+    }
+
     private void showAlert(Alert.AlertType type, String title, String message) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
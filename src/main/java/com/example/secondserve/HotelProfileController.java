@@ -1,8 +1,10 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
+import com.example.secondserve.api.CancellationScope;
 import com.example.secondserve.dto.AuthResponse;
 import com.example.secondserve.dto.HotelDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -12,12 +14,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 
 public class HotelProfileController {
 
@@ -35,9 +32,8 @@ public class HotelProfileController {
     @FXML private HBox editButtonsBox;
 
     // --- API Communication ---
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule());
+    private final ApiClient api = ApiClient.getInstance();
+    private final CancellationScope loads = new CancellationScope(); // aborted when the view is replaced
 
     private HotelDto currentHotelData; // Store the currently displayed hotel data
 
@@ -46,6 +42,10 @@ public class HotelProfileController {
      */
     @FXML
     public void initialize() {
+        // Switching to another tab aborts the profile download if it is still running
+        viewPane.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) loads.cancel();
+        });
         loadProfileData();
         switchToViewMode(); // Ensure the UI starts in the correct state
     }
@@ -57,29 +57,23 @@ public class HotelProfileController {
             return;
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/hotels/" + session.getUserId()))
-                .header("Authorization", SessionManager.getAuthToken())
-                .GET()
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(response -> {
+        loads.track(api.getHotel(session.getUserId()))
+                .thenAccept(hotel -> Platform.runLater(() -> {
+                    this.currentHotelData = hotel;
+                    populateViewLabels(currentHotelData);
+                })).exceptionally(e -> {
+                    if (CancellationScope.isCancellation(e)) return null; // the user already left this view
+                    Throwable cause = ApiException.rootCause(e);
                     Platform.runLater(() -> {
-                        if (response.statusCode() == 200) {
-                            try {
-                                this.currentHotelData = objectMapper.readValue(response.body(), HotelDto.class);
-                                populateViewLabels(currentHotelData);
-                            } catch (IOException e) {
-                                e.printStackTrace();
-                                showAlert(Alert.AlertType.ERROR, "Data Error", "Failed to parse hotel profile data from server.");
-                            }
+                        if (cause instanceof ApiException) {
+                            showAlert(Alert.AlertType.ERROR, "Server Error", "Failed to load profile. Status: " + ((ApiException) cause).getStatusCode());
+                        } else if (cause instanceof UncheckedIOException) {
+                            cause.printStackTrace();
+                            showAlert(Alert.AlertType.ERROR, "Data Error", "Failed to parse hotel profile data from server.");
                         } else {
-                            showAlert(Alert.AlertType.ERROR, "Server Error", "Failed to load profile. Status: " + response.statusCode());
+                            showAlert(Alert.AlertType.ERROR, "Connection Error", "Could not connect to the server.");
                         }
                     });
-                }).exceptionally(e -> {
-                    Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Connection Error", "Could not connect to the server."));
                     return null;
                 });
     }
@@ -115,51 +109,51 @@ public class HotelProfileController {
     }
 
     /**
-     * Saves the changes by sending the updated data to the server.
+     * Saves the changes by sending only the edited fields to the server.
      */
     @FXML
     private void handleSaveChanges(ActionEvent actionEvent) {
-        // Create a new DTO with the updated values from the TextFields
-        HotelDto updatedHotel = new HotelDto();
-        updatedHotel.setHotelName(hotelNameField.getText());
-        updatedHotel.setManagerName(managerNameField.getText());
-        updatedHotel.setPhone(phoneField.getText());
-        updatedHotel.setAddress(addressField.getText());
-        // Email and License are not editable, so they are not included in the update payload.
+        if (currentHotelData == null) return;
+        String hotelName = hotelNameField.getText();
+        String managerName = managerNameField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
+        // Email and License are not editable, so they never end up in the patch.
 
         AuthResponse session = SessionManager.getSession();
         if (session == null) return;
 
-        try {
-            String requestBody = objectMapper.writeValueAsString(updatedHotel);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/hotels/" + session.getUserId()))
-                    .header("Authorization", SessionManager.getAuthToken())
-                    .header("Content-Type", "application/json")
-                    .PUT(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                    .thenAccept(response -> Platform.runLater(() -> {
-                        if (response.statusCode() == 200) {
-                            try {
-                                this.currentHotelData = objectMapper.readValue(response.body(), HotelDto.class);
-                                populateViewLabels(this.currentHotelData);
-                                showAlert(Alert.AlertType.INFORMATION, "Success", "Profile updated successfully.");
-                                switchToViewMode();
-                            } catch (IOException e) { e.printStackTrace();}
-                        } else {
-                            System.out.println("Update failed. Server responded with status code: " + response.statusCode());
-                            System.out.println("Server error response body: " + response.body());
-                            showAlert(Alert.AlertType.ERROR, "Update Failed", "Could not save changes to the server.");
-                        }
-                    })).exceptionally(e -> {  e.printStackTrace();
-                        // -----------------------------------------
-                        Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Connection Error", "An unexpected error occurred.")); return null; });
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        api.patchHotel(session.getUserId(), currentHotelData, hotel -> {
+                    hotel.setHotelName(hotelName);
+                    hotel.setManagerName(managerName);
+                    hotel.setPhone(phone);
+                    hotel.setAddress(address);
+                })
+                .thenAccept(hotel -> Platform.runLater(() -> {
+                    // The server echoes the saved profile, so there is nothing to reload
+                    this.currentHotelData = hotel;
+                    populateViewLabels(this.currentHotelData);
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "Profile updated successfully.");
+                    switchToViewMode();
+                })).exceptionally(e -> {
+                    ApiException apiError = ApiException.unwrap(e);
+                    if (apiError != null && apiError.getStatusCode() == 412) {
+                        // Saved from somewhere else since we loaded it: show that version instead of overwriting it
+                        Platform.runLater(() -> {
+                            showAlert(Alert.AlertType.WARNING, "Profile Changed", "This profile was changed elsewhere. The latest version has been loaded; please make your edits again.");
+                            switchToViewMode();
+                            loadProfileData();
+                        });
+                    } else if (apiError != null) {
+                        System.out.println("Update failed. Server responded with status code: " + apiError.getStatusCode());
+                        System.out.println("Server error response body: " + apiError.getResponseBody());
+                        Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Update Failed", "Could not save changes to the server."));
+                    } else {
+                        e.printStackTrace();
+                        Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Connection Error", "An unexpected error occurred."));
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -1,9 +1,12 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
+import com.example.secondserve.api.DeltaSync;
+import com.example.secondserve.api.FoodItemOutbox;
+import com.example.secondserve.api.PushChannel;
 import com.example.secondserve.dto.AuthResponse;
 import com.example.secondserve.dto.FoodItemDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
@@ -17,19 +20,18 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import javafx.stage.Stage;
 import javafx.geometry.Insets;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public class KitchenMainController {
 
@@ -43,17 +45,42 @@ public class KitchenMainController {
     @FXML private ComboBox<String> conditionComboBox;
     @FXML private TextArea notesArea;
     @FXML private Button logLeftoverButton;
-    @FXML private VBox todaysItemsContainer;
-    @FXML private Label placeholderLabel;
+    @FXML private ListView<LoggedRow> todaysItemsList;
+
+    private final ApiClient api = ApiClient.getInstance();
+    // Rows of todaysItemsList by key; items can arrive from our own POST, the push stream and delta refreshes
+    private CardList<LoggedRow> loggedItems;
+
+    // One row of today's list: a logged item, or one still in the offline outbox with its status
+    private static final class LoggedRow {
+        final Object key; // the item id, or the outbox entry key while the server does not have it
+        final FoodItemDto item;
+        final String status; // null for logged items
+        final String statusStyle;
+
+        private LoggedRow(Object key, FoodItemDto item, String status, String statusStyle) {
+            this.key = key;
+            this.item = item;
+            this.status = status;
+            this.statusStyle = statusStyle;
+        }
+
+        static LoggedRow logged(FoodItemDto item) {
+            // An item without an id cannot be matched with later updates, so it gets a key of its own
+            return new LoggedRow(item.getId() != null ? item.getId() : new Object(), item, null, null);
+        }
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule())
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        static LoggedRow outbox(FoodItemOutbox.Entry entry, String status) {
+            return new LoggedRow(entry.getKey(), entry.getItem(), status, "item-status-" + entry.getState().name().toLowerCase());
+        }
+
+        boolean isOutbox() {
+            return status != null;
+        }
+    }
 
     @FXML
     public void initialize() {
-        objectMapper.registerModule(new JavaTimeModule());
         AuthResponse session = SessionManager.getSession();
         if (session != null) {
 
@@ -63,60 +90,62 @@ public class KitchenMainController {
         categoryComboBox.setItems(FXCollections.observableArrayList("Prepared Food", "Ingredients"));
         conditionComboBox.setItems(FXCollections.observableArrayList("Fresh", "Good", "Near Expiry"));
 
-        // Set proper spacing for the container
-        todaysItemsContainer.setSpacing(10.0);
+        loggedItems = new CardList<>(todaysItemsList, row -> row.key, LoggedItemCard::new);
+        loggedItems.setPlaceholder("No items logged today.");
 
-        // Load today's logged items from server
+        // Load today's logged items from server, then keep them fresh (paused while minimized, cancelled on logout)
         loadTodaysItems();
+        RefreshScheduler.getInstance().register("kitchen.today", todaysItemsList, javafx.util.Duration.seconds(60), this::loadTodaysItems);
+
+        openOutbox();
+
+        // Items logged on other kitchen terminals of this hotel are pushed by the server
+        closeWhenReplaced(api.getPushChannel().subscribe(
+                "food-item.pending", FoodItemDto.class, api.onFxThread("kitchen.push"), this::updateLoggedItemsList));
+    }
+
+    // This view is the scene's root, so it never loses its scene; it leaves the window
+    // when the stage is given another scene (logout), and then stops listening
+    private void closeWhenReplaced(PushChannel.Subscription subscription) {
+        todaysItemsList.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) return;
+            newScene.windowProperty().addListener((o, oldWindow, newWindow) -> {
+                if (oldWindow != null && newWindow == null) subscription.close();
+            });
+        });
     }
 
-    private void loadTodaysItems() {
+    // Completes with true if the list changed, so the refresh scheduler can back off while it does not
+    private CompletableFuture<Boolean> loadTodaysItems() {
         String authToken = SessionManager.getAuthToken();
-        if (authToken == null) return;
+        if (authToken == null) return CompletableFuture.completedFuture(false);
 
         Long hotelId = SessionManager.getSession() != null ? SessionManager.getSession().getUserId() : null;
-        if (hotelId == null) return;
+        if (hotelId == null) return CompletableFuture.completedFuture(false);
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-items/hotel/" + hotelId + "/today"))
-                .header("Authorization", authToken)
-                .GET()
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(this::handleTodaysItemsResponse)
-                .exceptionally(e -> {
-                    Platform.runLater(() -> System.out.println("Could not load today's items: " + e.getMessage()));
-                    return null;
+        // After the first load only the changes since the last refresh are downloaded
+        return api.todaysFoodItemsSync(hotelId).refresh()
+                .thenApplyAsync(this::handleTodaysItemsResponse, api.onFxThread("kitchen.today"))
+                .whenComplete((changed, e) -> {
+                    if (e != null) Platform.runLater(() -> System.out.println("Could not load today's items: " + e.getMessage()));
                 });
     }
 
-    private void handleTodaysItemsResponse(HttpResponse<String> response) {
-        Platform.runLater(() -> {
-            if (response.statusCode() == 200) {
-                try {
-                    com.fasterxml.jackson.core.type.TypeReference<java.util.List<FoodItemDto>> typeRef =
-                            new com.fasterxml.jackson.core.type.TypeReference<java.util.List<FoodItemDto>>() {};
-                    java.util.List<FoodItemDto> items = objectMapper.readValue(response.body(), typeRef);
-
-                    if (items != null && !items.isEmpty()) {
-                        // Remove placeholder
-                        if (placeholderLabel != null) {
-                            todaysItemsContainer.getChildren().remove(placeholderLabel);
-                        }
-                        todaysItemsContainer.setAlignment(javafx.geometry.Pos.TOP_LEFT);
-
-                        // Add all items (newest first)
-                        for (FoodItemDto item : items) {
-                            HBox card = createLoggedItemCard(item);
-                            todaysItemsContainer.getChildren().add(card);
-                        }
-                    }
-                } catch (IOException e) {
-                    System.out.println("Error parsing today's items: " + e.getMessage());
-                }
-            }
-        });
+    // Runs on the FX thread with the already decoded and merged changes
+    private boolean handleTodaysItemsResponse(DeltaSync.Result<FoodItemDto> result) {
+        for (Long removedId : result.getRemoved()) {
+            loggedItems.remove(removedId);
+        }
+        if (result.isFullReload()) {
+            // Items still in the outbox stay on top, then all items (newest first)
+            List<LoggedRow> rows = loggedItems.rows().stream().filter(LoggedRow::isOutbox).collect(Collectors.toList());
+            result.getItems().forEach(item -> rows.add(LoggedRow.logged(item)));
+            loggedItems.setAll(rows);
+            return true;
+        }
+        result.getAdded().forEach(this::updateLoggedItemsList);
+        result.getUpdated().forEach(this::updateLoggedItemsList);
+        return result.hasChanges();
     }
 
     public void handleLogout(ActionEvent actionEvent) {
@@ -173,6 +202,24 @@ public class KitchenMainController {
         sendDataToServer(foodItem);
     }
 
+    /**
+     * Opens this kitchen's offline outbox, shows what is still waiting in it (e.g. from
+     * before a restart) and follows each queued item until the server has it.
+     */
+    private void openOutbox() {
+        Long hotelId = SessionManager.getSession() != null ? SessionManager.getSession().getUserId() : null;
+        if (hotelId == null) return;
+        FoodItemOutbox outbox = api.getFoodItemOutbox();
+        try {
+            outbox.open(hotelId);
+        } catch (IOException e) {
+            System.err.println("Offline outbox unavailable, items will be sent directly: " + e.getMessage());
+            return;
+        }
+        closeWhenReplaced(outbox.subscribe(api.onFxThread("kitchen.outbox"), this::handleOutboxUpdate));
+        outbox.pending().forEach(this::handleOutboxUpdate);
+    }
+
     private void sendDataToServer(FoodItemDto foodItem) {
         String authToken = SessionManager.getAuthToken();
         if (authToken == null) {
@@ -180,56 +227,73 @@ public class KitchenMainController {
             return;
         }
 
+        // Normally the item goes into the on-disk outbox and shows up at once as queued;
+        // the outbox uploads it in the background, even if the network is down right now
         try {
-            String requestBody = objectMapper.writeValueAsString(foodItem);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/food-items"))
-                    .header("Content-Type", "application/json")
-                    .header("Authorization", authToken)
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            logLeftoverButton.setDisable(true);
-
-            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                    .thenAccept(this::handleServerResponse)
-                    .exceptionally(this::handleConnectionError);
-
+            api.getFoodItemOutbox().submit(foodItem);
+            clearForm();
+            return;
         } catch (IOException e) {
-            showAlert("Error", "An unexpected error occurred while preparing the request.");
-            e.printStackTrace();
-            logLeftoverButton.setDisable(false);
+            System.err.println("Could not queue item offline, sending directly: " + e.getMessage());
         }
+
+        logLeftoverButton.setDisable(true);
+
+        api.createFoodItem(foodItem)
+                .thenAccept(this::handleServerResponse)
+                .exceptionally(this::handleConnectionError);
     }
 
-    private void handleServerResponse(HttpResponse<String> response) {
+    private void handleServerResponse(FoodItemDto createdItem) {
         Platform.runLater(() -> {
-            if (response.statusCode() == 201) {
-                try {
-                    FoodItemDto createdItem = objectMapper.readValue(response.body(), FoodItemDto.class);
-                    showAlert("Success", "Food item has been logged and is awaiting manager approval.");
-                    updateLoggedItemsList(createdItem);
-                    clearForm();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    showAlert("Parsing Error", "Successfully logged item, but could not parse the server's response.");
-                }
-            } else {
-                showAlert("Server Error", "Failed to log item. Status: " + response.statusCode() + ". Check server logs.");
-            }
+            showAlert("Success", "Food item has been logged and is awaiting manager approval.");
+            updateLoggedItemsList(createdItem);
+            clearForm();
             logLeftoverButton.setDisable(false);
         });
     }
 
     private Void handleConnectionError(Throwable e) {
+        Throwable cause = ApiException.rootCause(e);
         Platform.runLater(() -> {
-            showAlert("Connection Error", "Could not connect to the server. Please check if it is running.");
+            if (cause instanceof ApiException) {
+                showAlert("Server Error", "Failed to log item. Status: " + ((ApiException) cause).getStatusCode() + ". Check server logs.");
+            } else if (cause instanceof UncheckedIOException) {
+                cause.printStackTrace();
+                showAlert("Parsing Error", "Successfully logged item, but could not parse the server's response.");
+            } else {
+                showAlert("Connection Error", "Could not connect to the server. Please check if it is running.");
+            }
             logLeftoverButton.setDisable(false);
         });
         return null;
     }
 
+    // Runs on the FX thread for every outbox state change
+    private void handleOutboxUpdate(FoodItemOutbox.Entry entry) {
+        switch (entry.getState()) {
+            case QUEUED:
+                if (loggedItems.contains(entry.getKey())) return;
+                loggedItems.add(0, LoggedRow.outbox(entry, "Queued - will sync when online"));
+                break;
+            case SYNCED:
+                int position = loggedItems.remove(entry.getKey());
+                FoodItemDto created = entry.getServerItem();
+                if (position >= 0 && created != null && created.getId() != null && !loggedItems.contains(created.getId())) {
+                    // Show the real item in the queued one's position
+                    loggedItems.add(position, LoggedRow.logged(created));
+                } else if (created != null) {
+                    // The push event for this item already drew it
+                    updateLoggedItemsList(created);
+                }
+                break;
+            case FAILED:
+                loggedItems.replace(LoggedRow.outbox(entry, "Not logged - " + entry.getError()));
+                showAlert("Server Error", "\"" + entry.getItem().getFoodName() + "\" could not be logged. " + entry.getError());
+                break;
+        }
+    }
+
     private LocalDate calculateExpiryDate(String condition) {
         LocalDate today = LocalDate.now();
         switch (condition) {
@@ -241,58 +305,72 @@ public class KitchenMainController {
     }
 
     private void updateLoggedItemsList(FoodItemDto newItem) {
-        // Remove placeholder if it exists
-        if (placeholderLabel != null && todaysItemsContainer.getChildren().contains(placeholderLabel)) {
-            todaysItemsContainer.getChildren().remove(placeholderLabel);
+        // An item that is already listed is shown again in place (our own POST and its push event both land here),
+        // a new one goes at the TOP (index 0) for newest-first display
+        LoggedRow row = LoggedRow.logged(newItem);
+        if (!loggedItems.replace(row)) {
+            loggedItems.add(0, row);
         }
+    }
 
-        // Ensure container is aligned to top
-        todaysItemsContainer.setAlignment(javafx.geometry.Pos.TOP_LEFT);
-
-        // Create the new card and add it at the TOP (index 0) for newest-first display
-        HBox itemCard = createLoggedItemCard(newItem);
-        todaysItemsContainer.getChildren().add(0, itemCard);
+    // One logged item card, built once per visible row and filled with whichever row it shows
+    private class LoggedItemCard implements CardList.Card<LoggedRow> {
+        private final DateTimeFormatter expiryFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
+        private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
+
+        private final Label nameLabel = new Label();
+        private final Label detailsLabel = new Label();
+        private final Label timestampLabel = new Label();
+        private final Label statusLabel = new Label();
+        private final HBox card;
+
+        LoggedItemCard() {
+            // VBox for the main text content
+            nameLabel.getStyleClass().add("item-name");
+            detailsLabel.getStyleClass().add("item-details");
+            VBox textContainer = new VBox(5.0, nameLabel, detailsLabel);
+
+            // Spacer to push timestamp to the right
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+
+            timestampLabel.getStyleClass().add("item-details");
+
+            // Main card container; the status is only shown for items still in the outbox
+            card = new HBox(15.0, textContainer, spacer, timestampLabel, statusLabel);
+            card.getStyleClass().add("logged-item-card");
+            card.setPadding(new Insets(15, 20, 15, 20));
+        }
 
-        // Debug output
-        System.out.println("Total items in container: " + todaysItemsContainer.getChildren().size());
-        System.out.println("Container spacing: " + todaysItemsContainer.getSpacing());
-    }
+        @Override
+        public HBox getNode() {
+            return card;
+        }
 
-    private HBox createLoggedItemCard(FoodItemDto item) {
-        // VBox for the main text content
-        VBox textContainer = new VBox(5.0);
-
-        // Food name label
-        Label nameLabel = new Label(item.getFoodName());
-        nameLabel.getStyleClass().add("item-name");
-
-        // Quantity and expiry details
-        DateTimeFormatter expiryFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
-        String details = String.format("Quantity: %.2f %s  |  Category: %s  |  Expires: %s",
-                item.getQuantity(),
-                item.getUnit(),
-                formatEnumForDisplay(item.getCategory()),
-                item.getExpiryDate().format(expiryFormatter));
-        Label detailsLabel = new Label(details);
-        detailsLabel.getStyleClass().add("item-details");
-
-        textContainer.getChildren().addAll(nameLabel, detailsLabel);
-
-        // Spacer to push timestamp to the right
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
-
-        // Timestamp label
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-        Label timestampLabel = new Label("Logged at " + item.getLoggedAt().format(timeFormatter));
-        timestampLabel.getStyleClass().add("item-details");
-
-        // Main card container
-        HBox card = new HBox(15.0, textContainer, spacer, timestampLabel);
-        card.getStyleClass().add("logged-item-card");
-        card.setPadding(new Insets(15, 20, 15, 20));
-
-        return card;
+        @Override
+        public void show(LoggedRow row) {
+            FoodItemDto item = row.item;
+            nameLabel.setText(item.getFoodName());
+
+            // Quantity and expiry details
+            detailsLabel.setText(String.format("Quantity: %.2f %s  |  Category: %s  |  Expires: %s",
+                    item.getQuantity(),
+                    item.getUnit(),
+                    formatEnumForDisplay(item.getCategory()),
+                    item.getExpiryDate().format(expiryFormatter)));
+
+            // Items still in the offline outbox have no server timestamp yet
+            timestampLabel.setText(item.getLoggedAt() != null
+                    ? "Logged at " + item.getLoggedAt().format(timeFormatter)
+                    : "Logged just now");
+
+            statusLabel.setVisible(row.isOutbox());
+            statusLabel.setManaged(row.isOutbox());
+            if (row.isOutbox()) {
+                statusLabel.setText(row.status);
+                statusLabel.getStyleClass().setAll("label", "item-details", row.statusStyle);
+            }
+        }
     }
 
     // Helper method to convert enum values back to readable format
@@ -1,8 +1,9 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
 import com.example.secondserve.dto.AuthResponse;
 import com.example.secondserve.dto.LoginRequest;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -16,11 +17,8 @@ import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.net.URI;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.Objects;
 
 public class LoginController {
@@ -37,8 +35,7 @@ public class LoginController {
     private String userType;
 
     // --- For making API calls ---
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ApiClient api = ApiClient.getInstance();
 
     /**
      * Initializes the controller, called automatically after FXML is loaded.
@@ -94,54 +91,39 @@ public class LoginController {
 
         LoginRequest loginPayload = new LoginRequest(email, password, this.userType);
 
-        try {
-            String requestBody = objectMapper.writeValueAsString(loginPayload);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/auth/login")) // Your server's endpoint
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            loginButton.setDisable(true); // Prevent user from clicking multiple times
-
-            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                    .thenAccept(response -> handleServerResponse(response, event))
-                    .exceptionally(this::handleConnectionError);
+        loginButton.setDisable(true); // Prevent user from clicking multiple times
 
-        } catch (IOException e) {
-            showAlert("Application Error", "An unexpected error occurred. Please try again.");
-            e.printStackTrace();
-        }
+        api.login(loginPayload)
+                .thenAccept(authResponse -> handleServerResponse(authResponse, event))
+                .exceptionally(this::handleConnectionError);
     }
 
     /**
-     * Processes the HTTP response from the server after a login attempt.
+     * Processes the decoded login response from the server.
      */
-    private void handleServerResponse(HttpResponse<String> response, ActionEvent event) {
+    private void handleServerResponse(AuthResponse authResponse, ActionEvent event) {
         Platform.runLater(() -> {
-            if (response.statusCode() == 200) {
-                try {
-                    AuthResponse authResponse = objectMapper.readValue(response.body(), AuthResponse.class);
-                    SessionManager.createSession(authResponse); // Save user token and info
-                    showAlert("Success", "Login successful! Welcome, " + authResponse.getName() + ".");
-                    navigateToDashboard(event);
-                } catch (IOException e) {
-                    showAlert("Application Error", "Could not process the server's response.");
-                }
-            } else {
-                showAlert("Login Failed", "Invalid email, password, or role. Please try again.");
-            }
+            SessionManager.createSession(authResponse); // Save user token and info
+            showAlert("Success", "Login successful! Welcome, " + authResponse.getName() + ".");
+            navigateToDashboard(event);
             loginButton.setDisable(false); // Re-enable the button
         });
     }
 
     /**
-     * Handles network errors if the server cannot be reached.
+     * Handles rejected logins and network errors if the server cannot be reached.
      */
     private Void handleConnectionError(Throwable e) {
+        Throwable cause = ApiException.rootCause(e);
         Platform.runLater(() -> {
-            System.err.println("Connection Error: " + e.getMessage());
-            showAlert("Connection Error", "Could not connect to the server. Please ensure it is running.");
+            if (cause instanceof ApiException) {
+                showAlert("Login Failed", "Invalid email, password, or role. Please try again.");
+            } else if (cause instanceof UncheckedIOException) {
+                showAlert("Application Error", "Could not process the server's response.");
+            } else {
+                System.err.println("Connection Error: " + e.getMessage());
+                showAlert("Connection Error", "Could not connect to the server. Please ensure it is running.");
+            }
             loginButton.setDisable(false);
         });
         return null;
@@ -1,26 +1,32 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
+import com.example.secondserve.api.ConflictException;
+import com.example.secondserve.api.CancellationScope;
+import com.example.secondserve.api.DeltaSync;
+import com.example.secondserve.api.PushChannel;
+import com.example.secondserve.dto.BulkTransitionResultDto;
 import com.example.secondserve.dto.FoodRequestDto;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.util.Callback;
+import javafx.util.Duration;
 
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class MyRequestsController {
 
@@ -32,15 +38,63 @@ public class MyRequestsController {
     @FXML private TableColumn<FoodRequestDto, String> foodItemColumn;
     @FXML private TableColumn<FoodRequestDto, String> dateColumn;
     @FXML private TableColumn<FoodRequestDto, String> statusColumn;
+    @FXML private Button completeSelectedButton;
 
     // --- API Communication ---
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ApiClient api = ApiClient.getInstance();
+    private final CancellationScope loads = new CancellationScope(); // aborted when the view is replaced
+    // Completions show at once; server data for requests still being sent is skipped
+    private final OptimisticActions<FoodRequestDto> actions =
+            new OptimisticActions<>(api.onFxThread("ngo.myRequests.actions"), FoodRequestDto::getId);
+    // False until the table holds a complete copy of the history; until then results are drawn in full
+    private boolean rowsLoaded;
 
     @FXML
     public void initialize() {
         setupTableColumns();
         loadMyRequests();
+        subscribeToStatusUpdates();
+        setupAutoRefresh();
+    }
+
+    // Background refresh while the table is open; it and any load still running are dropped once the view is replaced
+    private void setupAutoRefresh() {
+        RefreshScheduler.Handle refresh = RefreshScheduler.getInstance()
+                .register("ngo.myRequests", requestsTableView, Duration.seconds(30), this::loadMyRequests);
+        requestsTableView.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                refresh.cancel();
+                loads.cancel();
+            }
+        });
+    }
+
+    /**
+     * Replaces a single row when the server pushes a status change, instead of reloading the table.
+     * The subscription is dropped once this view is taken out of the window.
+     */
+    private void subscribeToStatusUpdates() {
+        PushChannel.Subscription subscription = api.getPushChannel().subscribe(
+                "food-request.status", FoodRequestDto.class, api.onFxThread("ngo.myRequests.push"), this::applyStatusUpdate);
+        requestsTableView.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) subscription.close();
+        });
+    }
+
+    private void applyStatusUpdate(FoodRequestDto updated) {
+        if (actions.skip(updated)) return; // being completed here; the server's answer decides
+        replaceRow(updated);
+    }
+
+    private boolean replaceRow(FoodRequestDto updated) {
+        List<FoodRequestDto> rows = requestsTableView.getItems();
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getId().equals(updated.getId())) {
+                rows.set(i, updated);
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -48,6 +102,11 @@ public class MyRequestsController {
      * Includes special formatting for the date, food item, and status columns.
      */
     private void setupTableColumns() {
+        // Several approved requests can be completed at once (Ctrl/Shift-click)
+        requestsTableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        requestsTableView.getSelectionModel().getSelectedItems().addListener(
+                (ListChangeListener<FoodRequestDto>) change -> updateCompleteSelectedButton());
+
         hotelNameColumn.setCellValueFactory(new PropertyValueFactory<>("hotelName"));
 
         // Food item name only
@@ -98,7 +157,7 @@ public class MyRequestsController {
                         completeButton.getStyleClass().add("complete-button"); // Apply CSS
                         completeButton.setOnAction(event -> {
                             FoodRequestDto request = getTableView().getItems().get(getIndex());
-                            handleCompleteDonation(request.getId());
+                            handleCompleteDonation(request);
                         });
                     }
 
@@ -124,76 +183,186 @@ public class MyRequestsController {
         actionColumn.setCellFactory(cellFactory);
     }
 
-    private void handleCompleteDonation(Long requestId) {
+    private void handleCompleteDonation(FoodRequestDto request) {
+        Long requestId = request.getId();
         String authToken = SessionManager.getAuthToken();
         if (authToken == null) {
             showAlert("Authentication Error", "Could not verify user. Please log in again.");
             return;
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-requests/" + requestId + "/complete"))
-                .header("Authorization", authToken)
-                .PUT(HttpRequest.BodyPublishers.noBody()) // Using PUT to update the resource state
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(response -> {
-                    if (response.statusCode() == 200) {
-                        Platform.runLater(this::loadMyRequests); // Refresh the table on success
-                    } else {
-                        Platform.runLater(() -> showAlert("Update Failed", "Could not complete the donation. Server responded with status: " + response.statusCode()));
+        // The row shows COMPLETED at once and is rolled back if the call fails; nothing is reloaded
+        actions.run(requestId, () -> setStatus(List.of(requestId), "COMPLETED"),
+                () -> api.transitionFoodRequest(request, "complete"), (stored, e) -> {
+                    if (e == null) {
+                        if (stored != null) replaceRow(stored); // the server's copy wins
+                        return;
+                    }
+                    ConflictException conflict = ConflictException.unwrap(e);
+                    if (conflict != null) {
+                        replaceRow(conflict.getCurrent(FoodRequestDto.class));
+                        showAlert("Update Failed", "The hotel changed this request meanwhile; it now shows its current status.");
+                        return;
+                    }
+                    rollBack(request);
+                    ApiException apiError = ApiException.unwrap(e);
+                    if (apiError != null) {
+                        showAlert("Update Failed", "Could not complete the donation. Server responded with status: " + apiError.getStatusCode());
+                        return;
                     }
-                })
-                .exceptionally(this::handleConnectionError);
+                    handleConnectionError(e);
+                });
+    }
+
+    @FXML
+    private void handleCompleteSelected() {
+        List<FoodRequestDto> loaded = selectedApproved();
+        List<Long> ids = loaded.stream().map(FoodRequestDto::getId).collect(Collectors.toList());
+        if (ids.isEmpty()) return;
+
+        actions.run(ids, () -> {
+            setStatus(ids, "COMPLETED");
+            updateCompleteSelectedButton();
+        }, () -> api.bulkTransitionFoodRequests(loaded, "complete"), (result, e) -> {
+            if (e != null) {
+                loaded.forEach(this::rollBack);
+                updateCompleteSelectedButton();
+                handleConnectionError(e);
+                return;
+            }
+            // Requests the hotel changed meanwhile show as they are now, like a single completion's 412
+            List<BulkTransitionResultDto.ItemResult> failures = result.getFailures();
+            boolean reload = false;
+            for (BulkTransitionResultDto.ItemResult failure : failures) {
+                FoodRequestDto current = failure.getStatus() == 412 ? failure.getCurrent(FoodRequestDto.class) : null;
+                if (current != null) {
+                    replaceRow(current);
+                    continue;
+                }
+                loaded.stream().filter(request -> request.getId().equals(failure.getId())).forEach(this::rollBack);
+                if (failure.getStatus() == 412) reload = true;
+            }
+            updateCompleteSelectedButton();
+            if (reload) {
+                loadMyRequests(); // the server sent no current copies: fetch just the changes
+            }
+            if (!failures.isEmpty()) {
+                showAlert("Update Failed", failures.size() + " of " + ids.size() + " donations could not be completed."
+                        + " Those changed by the hotel meanwhile show their current status; please try the others again.");
+            }
+        });
+    }
+
+    // Only approved requests can be completed; other selected rows are ignored
+    private List<FoodRequestDto> selectedApproved() {
+        return requestsTableView.getSelectionModel().getSelectedItems().stream()
+                .filter(request -> "APPROVED".equalsIgnoreCase(request.getRequestStatus()))
+                .collect(Collectors.toList());
+    }
+
+    private void updateCompleteSelectedButton() {
+        completeSelectedButton.setDisable(selectedApproved().isEmpty());
+    }
+
+    // Changes the status of rows locally instead of reloading the history. The rows are the request
+    // history cache's own objects, which stay as the server sent them: the table gets changed copies.
+    private void setStatus(List<Long> requestIds, String status) {
+        List<FoodRequestDto> rows = requestsTableView.getItems();
+        for (int i = 0; i < rows.size(); i++) {
+            FoodRequestDto row = rows.get(i);
+            if (requestIds.contains(row.getId())) {
+                FoodRequestDto changed = new FoodRequestDto(row);
+                changed.setRequestStatus(status);
+                rows.set(i, changed);
+            }
+        }
+    }
+
+    // A completion the server refused: the row goes back to the server's newest copy, which
+    // may have arrived while the completion was pending, else to how it was before the click
+    private void rollBack(FoodRequestDto shownBefore) {
+        FoodRequestDto current = actions.rollbackTo(shownBefore.getId(), shownBefore);
+        if (current == null) {
+            requestsTableView.getItems().removeIf(row -> row.getId().equals(shownBefore.getId()));
+        } else if (!replaceRow(current)) {
+            requestsTableView.getItems().add(current);
+        }
     }
 
     /**
      * Fetches the request history for the logged-in NGO from the server.
      */
-    private void loadMyRequests() {
+    // Completes with true if the history changed; failures are reported here and fail the future
+    private CompletableFuture<Boolean> loadMyRequests() {
         String authToken = SessionManager.getAuthToken();
         Long ngoId = SessionManager.getSession() != null ? SessionManager.getSession().getUserId() : null;
         System.out.println("Loading requests for NGO ID: " + ngoId);
         if (authToken == null || ngoId == null) {
             showAlert("Authentication Error", "Could not verify user. Please log in again.");
-            return;
+            return CompletableFuture.completedFuture(false);
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/food-requests/ngo/" + ngoId))
-                .header("Authorization", authToken)
-                .GET()
-                .build();
+        DeltaSync<FoodRequestDto> requestsSync = api.requestsForNgoSync(ngoId);
+        Executor fxThread = api.onFxThread("ngo.myRequests");
 
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(this::handleServerResponse)
-                .exceptionally(this::handleConnectionError);
+        // A cold cache is downloaded in full and its rows are appended batch by batch while it
+        // is still arriving; once warm, only the changes since the last load are fetched
+        ObservableList<FoodRequestDto> streamedRows = FXCollections.observableArrayList();
+        if (!requestsSync.isWarm()) {
+            requestsTableView.setItems(streamedRows);
+        }
+        // The sync is shared with later visits, so leaving only detaches this view from it
+        return loads.guard(requestsSync.refresh(fxThread, batch -> {
+                    if (!loads.isCancelled()) streamedRows.addAll(batch);
+                }))
+                .thenApplyAsync(result -> applyRequestChanges(result, streamedRows), fxThread)
+                .whenComplete((changed, e) -> {
+                    if (e != null && !CancellationScope.isCancellation(e)) handleConnectionError(e);
+                });
     }
 
-    private void handleServerResponse(HttpResponse<String> response) {
-        Platform.runLater(() -> {
-            System.out.println("Response Status: " + response.statusCode());
-            System.out.println("Response Body: " + response.body());
-
-            if (response.statusCode() == 200) {
-                try {
-                    List<FoodRequestDto> requests = objectMapper.readValue(response.body(), new TypeReference<>() {});
-                    System.out.println("Parsed " + requests.size() + " requests");
-                    requestsTableView.setItems(FXCollections.observableArrayList(requests));
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    showAlert("Application Error", "Could not parse request history from the server.");
-                }
-            } else {
-                showAlert("Server Error", "Failed to load request history. Status: " + response.statusCode());
+    private boolean applyRequestChanges(DeltaSync.Result<FoodRequestDto> result, ObservableList<FoodRequestDto> streamedRows) {
+        if (result.isFullReload() || !rowsLoaded) {
+            rowsLoaded = true;
+            boolean alreadyStreamed = requestsTableView.getItems() == streamedRows
+                    && streamedRows.size() == result.getItems().size();
+            if (!alreadyStreamed) {
+                requestsTableView.setItems(FXCollections.observableArrayList(result.getItems()));
             }
-        });
+            // Rows being completed right now keep the status shown until the server has answered
+            setStatus(requestsTableView.getItems().stream().filter(actions::skip)
+                    .map(FoodRequestDto::getId).collect(Collectors.toList()), "COMPLETED");
+            System.out.println("Parsed " + result.getItems().size() + " requests");
+            return true;
+        }
+
+        List<FoodRequestDto> rows = requestsTableView.getItems();
+        result.getRemoved().forEach(actions::skipRemoved);
+        rows.removeIf(row -> result.getRemoved().contains(row.getId()));
+        result.getAdded().forEach(this::upsertRow);
+        result.getUpdated().forEach(this::upsertRow);
+        return result.hasChanges();
     }
+
+    private void upsertRow(FoodRequestDto request) {
+        if (actions.skip(request)) return;
+        if (!replaceRow(request)) {
+            requestsTableView.getItems().add(request);
+        }
+    }
+
     private Void handleConnectionError(Throwable e) {
+        Throwable cause = ApiException.rootCause(e);
         Platform.runLater(() -> {
-            System.err.println("Connection Error: " + e.getMessage());
-            showAlert("Connection Error", "Could not connect to the server to fetch your requests.");
+            if (cause instanceof ApiException) {
+                showAlert("Server Error", "Failed to load request history. Status: " + ((ApiException) cause).getStatusCode());
+            } else if (cause instanceof UncheckedIOException) {
+                cause.printStackTrace();
+                showAlert("Application Error", "Could not parse request history from the server.");
+            } else {
+                System.err.println("Connection Error: " + e.getMessage());
+                showAlert("Connection Error", "Could not connect to the server to fetch your requests.");
+            }
         });
         return null;
     }
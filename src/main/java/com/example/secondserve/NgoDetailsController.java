@@ -1,8 +1,8 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
 import com.example.secondserve.dto.NgoDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -13,10 +13,7 @@ import javafx.scene.control.Label;
 import javafx.scene.layout.BorderPane;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 
 public class NgoDetailsController {
 
@@ -33,8 +30,7 @@ public class NgoDetailsController {
     private BorderPane mainBorderPane;
 
     // --- For API Communication ---
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ApiClient api = ApiClient.getInstance();
 
     private long ngoId;
 
@@ -61,37 +57,27 @@ public class NgoDetailsController {
             return;
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/ngos/" + this.ngoId))
-                .header("Authorization", authToken)
-                .GET()
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        api.getNgo(this.ngoId)
                 .thenAccept(this::handleServerResponse)
                 .exceptionally(this::handleConnectionError);
     }
 
-    private void handleServerResponse(HttpResponse<String> response) {
-        Platform.runLater(() -> {
-            if (response.statusCode() == 200) {
-                try {
-                    NgoDto ngo = objectMapper.readValue(response.body(), NgoDto.class);
-                    populateLabels(ngo);
-                } catch (IOException e) {
-                    showAlert("Application Error", "Failed to parse NGO details from the server.");
-                    e.printStackTrace();
-                }
-            } else {
-                showAlert("Server Error", "Could not load NGO details. Status: " + response.statusCode());
-            }
-        });
+    private void handleServerResponse(NgoDto ngo) {
+        Platform.runLater(() -> populateLabels(ngo));
     }
 
     private Void handleConnectionError(Throwable e) {
+        Throwable cause = ApiException.rootCause(e);
         Platform.runLater(() -> {
-            System.err.println("Connection Error: " + e.getMessage());
-            showAlert("Connection Error", "Could not connect to the server.");
+            if (cause instanceof ApiException) {
+                showAlert("Server Error", "Could not load NGO details. Status: " + ((ApiException) cause).getStatusCode());
+            } else if (cause instanceof UncheckedIOException) {
+                showAlert("Application Error", "Failed to parse NGO details from the server.");
+                cause.printStackTrace();
+            } else {
+                System.err.println("Connection Error: " + e.getMessage());
+                showAlert("Connection Error", "Could not connect to the server.");
+            }
         });
         return null;
     }
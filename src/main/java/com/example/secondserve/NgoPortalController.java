@@ -1,10 +1,10 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
+import com.example.secondserve.api.CancellationScope;
 import com.example.secondserve.dto.AuthResponse;
-import com.example.secondserve.dto.HotelDto;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.example.secondserve.dto.HotelCardDto;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -16,7 +16,7 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -25,18 +25,16 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 public class NgoPortalController {
 
     @FXML private Button logoutButton;
     @FXML private Label NGO_name;
-    @FXML private VBox hotelCardsContainer;
+    @FXML private ListView<HotelCardDto> hotelCardsList;
     @FXML private BorderPane mainBorderPane;
     @FXML private Button browseHotelsButton;
     @FXML private Button myRequestsButton;
@@ -44,12 +42,13 @@ public class NgoPortalController {
 
     private Node initialBrowseView;
     private Button activeButton;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CancellationScope hotelsLoad = new CancellationScope(); // replaced per load; cancelled when the list is left
+    private final ApiClient api = ApiClient.getInstance();
+    private CardList<HotelCardDto> hotelCards; // only the visible hotels get a card
 
     @FXML
     public void initialize() {
-        objectMapper.registerModule(new JavaTimeModule());
+        hotelCards = new CardList<>(hotelCardsList, HotelCardDto::getId, HotelCard::new);
         AuthResponse session = SessionManager.getSession();
         if (session != null) {
 
@@ -78,6 +77,7 @@ public class NgoPortalController {
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fullPath));
             Parent root = loader.load();
+            hotelsLoad.cancel();
             mainBorderPane.setCenter(root);
         } catch (IOException e) {
             e.printStackTrace();
@@ -106,82 +106,79 @@ public class NgoPortalController {
         String authToken = SessionManager.getAuthToken();
         if (authToken == null) return;
 
-        // Use the existing, simple endpoint that returns all active hotels
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/hotels"))
-                .header("Authorization", authToken)
-                .GET().build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(this::handleHotelListResponse)
+        // An older load still streaming would append its cards to the new list
+        hotelsLoad.cancel();
+        hotelsLoad = new CancellationScope();
+        hotelCards.clear(); // Clear old cards
+        hotelCards.setPlaceholder("Loading hotels...");
+
+        // Use the existing, simple endpoint that returns all active hotels, asking only for the card fields.
+        // Cards are added batch by batch while the list is still downloading.
+        Executor fxThread = api.onFxThread("ngo.hotels");
+        hotelsLoad.track(api.streamHotels(HotelCardDto.class, fxThread, this::displayHotelCards))
+                .thenAcceptAsync(total -> {
+                    if (total == 0) showNoHotelsPlaceholder();
+                }, fxThread)
                 .exceptionally(this::handleConnectionError);
     }
 
-    private void handleHotelListResponse(HttpResponse<String> response) {
-        Platform.runLater(() -> {
-            if (response.statusCode() == 200) {
-                try {
-                    List<HotelDto> hotels = objectMapper.readValue(response.body(), new TypeReference<>() {});
-                    displayHotelCards(hotels);
-                } catch (IOException e) {
-                    showAlert("Application Error", "Failed to parse hotel list.");
-                }
-            } else {
-                showAlert("Server Error", "Failed to load hotels. Status: " + response.statusCode());
-            }
-        });
+    /**
+     * Appends one batch of hotels. Called repeatedly while the list streams in.
+     */
+    private void displayHotelCards(List<HotelCardDto> hotels) {
+        hotelCards.addAll(hotels);
     }
 
-    private void displayHotelCards(List<HotelDto> hotels) {
-
-        hotelCardsContainer.getChildren().clear(); // Clear placeholder or old cards
-
-        if (hotels == null || hotels.isEmpty()) {
-            Label placeholder = new Label("No hotels are currently available for donation.");
-            placeholder.getStyleClass().add("placeholder-text");
-            hotelCardsContainer.getChildren().add(placeholder);
-        } else {
-            for (HotelDto hotel : hotels) {
-                HBox card = createHotelCard(hotel);
-                hotelCardsContainer.getChildren().add(card);
-            }
-        }
+    private void showNoHotelsPlaceholder() {
+        hotelCards.setPlaceholder("No hotels are currently available for donation.");
     }
 
+    // One hotel card, built once per visible row and filled with whichever hotel the row shows
+    private class HotelCard implements CardList.Card<HotelCardDto> {
+        private final Label nameLabel = new Label();
+        private final Label detailsLabel = new Label();
+        private final HBox card;
+        private HotelCardDto hotel;
+
+        HotelCard() {
+            // 1. Hotel Name (Title)
+            nameLabel.getStyleClass().add("hotel-card-title");
+
+            // 2. Hotel Location Details
+            detailsLabel.getStyleClass().add("hotel-card-details");
+
+            // 3. Vertical container for the text
+            VBox textContainer = new VBox(5, nameLabel, detailsLabel); // 5px spacing between title and details
+            textContainer.setAlignment(Pos.CENTER_LEFT);
+
+            // 4. Spacer to push the button to the right
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+
+            // 5. The "View" button
+            Button viewButton = new Button("View Available Food");
+            viewButton.getStyleClass().add("view-details-button");
+            viewButton.setOnAction(event -> navigateToHotelDetails(hotel.getId()));
+
+            // 6. The main HBox for the card
+            card = new HBox(textContainer, spacer, viewButton);
+            card.getStyleClass().add("hotel-card"); // This class now has styles!
+            card.setAlignment(Pos.CENTER); // Vertically align content in the card
+        }
 
-    // In: NgoPortalController.java
-
-    private HBox createHotelCard(HotelDto hotel) {
-        // 1. Hotel Name (Title)
-        Label nameLabel = new Label(hotel.getHotelName());
-        nameLabel.getStyleClass().add("hotel-card-title");
-
-        // 2. Hotel Location Details (New)
-        // Combines city and state for a cleaner look. Handles nulls gracefully.
-        String location = (hotel.getCity() != null ? hotel.getCity() : "") +
-                (hotel.getState() != null ? ", " + hotel.getState() : "");
-        Label detailsLabel = new Label(location);
-        detailsLabel.getStyleClass().add("hotel-card-details");
-
-        // 3. Vertical container for the text
-        VBox textContainer = new VBox(5, nameLabel, detailsLabel); // 5px spacing between title and details
-        textContainer.setAlignment(Pos.CENTER_LEFT);
-
-        // 4. Spacer to push the button to the right
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
-
-        // 5. The "View" button
-        Button viewButton = new Button("View Available Food");
-        viewButton.getStyleClass().add("view-details-button");
-        viewButton.setOnAction(event -> navigateToHotelDetails(hotel.getId()));
-
-        // 6. The main HBox for the card
-        HBox card = new HBox(textContainer, spacer, viewButton);
-        card.getStyleClass().add("hotel-card"); // This class now has styles!
-        card.setAlignment(Pos.CENTER); // Vertically align content in the card
+        @Override
+        public HBox getNode() {
+            return card;
+        }
 
-        return card;
+        @Override
+        public void show(HotelCardDto hotel) {
+            this.hotel = hotel;
+            nameLabel.setText(hotel.getHotelName());
+            // Combines city and state for a cleaner look. Handles nulls gracefully.
+            detailsLabel.setText((hotel.getCity() != null ? hotel.getCity() : "") +
+                    (hotel.getState() != null ? ", " + hotel.getState() : ""));
+        }
     }
 
     private void navigateToHotelDetails(long hotelId) {
@@ -192,6 +189,8 @@ public class NgoPortalController {
             HotelDonationViewController controller = loader.getController();
             controller.initData(hotelId, this);
 
+            // The hotel list stops downloading; the details view cancels its own loads when it is left in turn
+            hotelsLoad.cancel();
             mainBorderPane.setCenter(root);
         } catch (IOException e) {
             e.printStackTrace();
@@ -200,7 +199,17 @@ public class NgoPortalController {
     }
 
     private Void handleConnectionError(Throwable e) {
-        Platform.runLater(() -> showAlert("Connection Error", "Could not connect to the server."));
+        if (CancellationScope.isCancellation(e)) return null; // superseded by another load or navigation
+        Throwable cause = ApiException.rootCause(e);
+        Platform.runLater(() -> {
+            if (cause instanceof ApiException) {
+                showAlert("Server Error", "Failed to load hotels. Status: " + ((ApiException) cause).getStatusCode());
+            } else if (cause instanceof UncheckedIOException) {
+                showAlert("Application Error", "Failed to parse hotel list.");
+            } else {
+                showAlert("Connection Error", "Could not connect to the server.");
+            }
+        });
         return null;
     }
 
@@ -1,8 +1,10 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
+import com.example.secondserve.api.CancellationScope;
 import com.example.secondserve.dto.AuthResponse;
 import com.example.secondserve.dto.NgoDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
@@ -11,12 +13,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 
 public class NgoProfileController {
 
@@ -31,12 +28,16 @@ public class NgoProfileController {
     @FXML private HBox editButtonsBox;
 
     // --- API Communication ---
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ApiClient api = ApiClient.getInstance();
+    private final CancellationScope loads = new CancellationScope(); // aborted when the view is replaced
     private NgoDto currentNgoData; // Store the currently displayed profile data
 
     @FXML
     public void initialize() {
+        // Switching to another tab aborts the profile download if it is still running
+        viewPane.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) loads.cancel();
+        });
         // Fetch the profile data from the server as soon as the view is loaded.
         loadProfileData();
         switchToViewMode();
@@ -50,34 +51,15 @@ public class NgoProfileController {
         }
 
         // The endpoint to get a single NGO by their ID.
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8080/api/ngos/" + session.getUserId()))
-                .header("Authorization", SessionManager.getAuthToken())
-                .GET()
-                .build();
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        loads.track(api.getNgo(session.getUserId()))
                 .thenAccept(this::handleLoadResponse)
                 .exceptionally(this::handleConnectionError);
     }
 
-    private void handleLoadResponse(HttpResponse<String> response) {
+    private void handleLoadResponse(NgoDto ngo) {
         Platform.runLater(() -> {
-            System.out.println("NGO Profile Response Status: " + response.statusCode());
-            System.out.println("NGO Profile Response Body: " + response.body());
-
-            if (response.statusCode() == 200) {
-                try {
-                    this.currentNgoData = objectMapper.readValue(response.body(), NgoDto.class);
-                    populateViewLabels(currentNgoData);
-                } catch (IOException e) {
-                    System.err.println("Parse error: " + e.getMessage());
-                    e.printStackTrace();
-                    showAlert(Alert.AlertType.ERROR, "Data Error", "Failed to parse profile data from the server.");
-                }
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Server Error", "Failed to load profile. Status: " + response.statusCode());
-            }
+            this.currentNgoData = ngo;
+            populateViewLabels(currentNgoData);
         });
     }
 
@@ -104,46 +86,44 @@ public class NgoProfileController {
 
     @FXML
     private void handleSaveChanges() {
-        // Create a DTO with only the fields that are allowed to be updated.
-        NgoDto updatedNgo = new NgoDto();
-        updatedNgo.setNgoName(nameField.getText());
-        updatedNgo.setContactPerson(contactPersonField.getText());
-        updatedNgo.setPhone(phoneField.getText());
-        updatedNgo.setAddress(addressField.getText());
+        if (currentNgoData == null) return;
+        // Only the fields that are allowed to be updated; unchanged ones are left out of the patch.
+        String ngoName = nameField.getText();
+        String contactPerson = contactPersonField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
 
         AuthResponse session = SessionManager.getSession();
         if (session == null) return;
 
-        try {
-            String requestBody = objectMapper.writeValueAsString(updatedNgo);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/ngos/" + session.getUserId()))
-                    .header("Authorization", SessionManager.getAuthToken())
-                    .header("Content-Type", "application/json")
-                    .PUT(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                    .thenAccept(response -> {
-                        if (response.statusCode() == 200) {
-                            Platform.runLater(() -> {
-                                try {
-                                    this.currentNgoData = objectMapper.readValue(response.body(), NgoDto.class);
-                                    populateViewLabels(this.currentNgoData);
-                                    showAlert(Alert.AlertType.INFORMATION, "Success", "Profile updated successfully.");
-                                    switchToViewMode();
-                                } catch (IOException e) {
-                                    showAlert(Alert.AlertType.ERROR, "Data Error", "Failed to parse updated profile data.");
-                                }
-                            });
-                        } else {
-                            Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Update Failed", "Could not save changes to the server."));
-                        }
-                    })
-                    .exceptionally(this::handleConnectionError);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        api.patchNgo(session.getUserId(), currentNgoData, ngo -> {
+                    ngo.setNgoName(ngoName);
+                    ngo.setContactPerson(contactPerson);
+                    ngo.setPhone(phone);
+                    ngo.setAddress(address);
+                })
+                .thenAccept(ngo -> Platform.runLater(() -> {
+                    this.currentNgoData = ngo; // the server's echo of the saved profile
+                    populateViewLabels(this.currentNgoData);
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "Profile updated successfully.");
+                    switchToViewMode();
+                }))
+                .exceptionally(e -> {
+                    if (ApiException.unwrap(e) == null) {
+                        return handleConnectionError(e);
+                    }
+                    if (ApiException.unwrap(e).getStatusCode() == 412) {
+                        // Someone saved the profile after we loaded it; reload rather than overwrite their changes
+                        Platform.runLater(() -> {
+                            showAlert(Alert.AlertType.WARNING, "Profile Changed", "This profile was changed elsewhere. The latest version has been loaded; please make your edits again.");
+                            switchToViewMode();
+                            loadProfileData();
+                        });
+                        return null;
+                    }
+                    Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Update Failed", "Could not save changes to the server."));
+                    return null;
+                });
     }
 
     @FXML
@@ -152,7 +132,18 @@ public class NgoProfileController {
     }
 
     private Void handleConnectionError(Throwable e) {
-        Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Connection Error", "Could not connect to the server."));
+        if (CancellationScope.isCancellation(e)) return null; // the user already left this view
+        Throwable cause = ApiException.rootCause(e);
+        Platform.runLater(() -> {
+            if (cause instanceof ApiException) {
+                showAlert(Alert.AlertType.ERROR, "Server Error", "Failed to load profile. Status: " + ((ApiException) cause).getStatusCode());
+            } else if (cause instanceof UncheckedIOException) {
+                System.err.println("Parse error: " + cause.getMessage());
+                showAlert(Alert.AlertType.ERROR, "Data Error", "Failed to parse profile data from the server.");
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Connection Error", "Could not connect to the server.");
+            }
+        });
         return null;
     }
 
@@ -0,0 +1,100 @@
+package com.example.secondserve;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Status changes (approve, reject, complete) shown in a view as soon as the user
+ * clicks, instead of after the round trip.
+ * <p>
+ * The view changes its rows first, then {@link #run} sends the change. While it is
+ * in flight its rows count as pending: list refreshes and push events for them are
+ * skipped (see {@link #skip}), so a refresh that raced the click cannot bring a row
+ * back. The newest server copy skipped that way is kept, so a failed change rolls
+ * the row back to it (see {@link #rollbackTo}) rather than to what it was before the
+ * click. When the server has answered, {@code settle} runs on the FX thread with the
+ * server's echo, to reconcile the row with what was stored, or with the error, to
+ * roll the row back. All methods must be called on the FX thread.
+ */
+public final class OptimisticActions<T> {
+
+    private final Executor fxThread;
+    private final Function<T, Long> idOf;
+    private final Map<Long, Integer> pending = new HashMap<>(); // row id -> changes in flight
+    private final Map<Long, T> skipped = new HashMap<>(); // row id -> newest server copy while pending; null: row gone
+
+    public OptimisticActions(Executor fxThread, Function<T, Long> idOf) {
+        this.fxThread = fxThread;
+        this.idOf = idOf;
+    }
+
+    /** True while a change of row {@code id} is waiting for the server; server data for it is not current yet. */
+    public boolean isPending(Long id) {
+        return pending.containsKey(id);
+    }
+
+    /** True, and {@code serverCopy} is kept for a rollback, if its row is pending; the caller then ignores it. */
+    public boolean skip(T serverCopy) {
+        Long id = idOf.apply(serverCopy);
+        if (!isPending(id)) return false;
+        skipped.put(id, serverCopy);
+        return true;
+    }
+
+    /** As {@link #skip} for server data saying row {@code id} is gone; a rollback then leaves it out. */
+    public boolean skipRemoved(Long id) {
+        if (!isPending(id)) return false;
+        skipped.put(id, null);
+        return true;
+    }
+
+    /**
+     * The rows of a complete server list that are not pending. The pending ones are skipped,
+     * and pending rows missing from the list count as removed.
+     */
+    public List<T> withoutPending(List<T> serverList) {
+        Set<Long> listed = serverList.stream().map(idOf).collect(Collectors.toSet());
+        pending.keySet().stream().filter(id -> !listed.contains(id)).forEach(this::skipRemoved);
+        return serverList.stream().filter(row -> !skip(row)).collect(Collectors.toList());
+    }
+
+    /**
+     * What a row whose change failed goes back to: the newest server copy skipped while the
+     * change was pending, else {@code shownBefore}, the row as it was before the click. Null
+     * when the server dropped the row meanwhile. Only meaningful inside {@code settle}.
+     */
+    public T rollbackTo(Long id, T shownBefore) {
+        return skipped.containsKey(id) ? skipped.get(id) : shownBefore;
+    }
+
+    /** As {@link #run(Collection, Runnable, Supplier, BiConsumer)} for a single row. */
+    public <R> void run(Long id, Runnable apply, Supplier<CompletableFuture<R>> send, BiConsumer<R, Throwable> settle) {
+        run(List.of(id), apply, send, settle);
+    }
+
+    /** Applies the change to the view, sends it, and hands the server's answer to {@code settle}. */
+    public <R> void run(Collection<Long> ids, Runnable apply, Supplier<CompletableFuture<R>> send, BiConsumer<R, Throwable> settle) {
+        ids.forEach(id -> pending.merge(id, 1, Integer::sum));
+        apply.run();
+        CompletableFuture<R> sent;
+        try {
+            sent = send.get();
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenCompleteAsync((result, error) -> {
+            ids.forEach(id -> pending.computeIfPresent(id, (key, count) -> count == 1 ? null : count - 1));
+            settle.accept(result, error);
+            ids.stream().filter(id -> !isPending(id)).forEach(skipped::remove);
+        }, fxThread);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.secondserve;
+
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.RequestPriority;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.InputEvent;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Central scheduler for the periodic refreshes of the open views, replacing one
+ * INDEFINITE Timeline per controller (which nothing ever stopped).
+ * <p>
+ * Each registered task is tied to a view node and adapts on its own:
+ * <ul>
+ *   <li>it does not run while its view is not showing (detached from the window,
+ *       e.g. swapped out of the dashboard center, or the stage is minimized)</li>
+ *   <li>after an error or a response that changed nothing, its interval doubles,
+ *       up to {@value #MAX_BACKOFF_FACTOR}x the base interval; a change resets it</li>
+ *   <li>while the user is working in the window (any input in the last
+ *       {@value #ACTIVE_WINDOW_MILLIS} ms) the interval is halved</li>
+ * </ul>
+ * Refreshes are sent at background priority, after any call the user is waiting for.
+ * Everything is cancelled when the session ends (see SessionManager.clearSession).
+ * All methods must be called on the FX thread.
+ */
+public final class RefreshScheduler {
+
+    private static final RefreshScheduler INSTANCE = new RefreshScheduler();
+
+    private static final int MAX_BACKOFF_FACTOR = 8;
+    private static final long ACTIVE_WINDOW_MILLIS = 30_000;
+
+    private final List<Task> tasks = new ArrayList<>();
+    private final Timeline ticker = new Timeline(new KeyFrame(Duration.seconds(1), event -> tick()));
+    // Scenes that already report user input to us; weak so closed scenes can be collected
+    private final Map<Scene, Boolean> trackedScenes = new WeakHashMap<>();
+    private final EventHandler<InputEvent> activityTracker = event -> lastUserActivity = System.currentTimeMillis();
+    private long lastUserActivity;
+
+    private RefreshScheduler() {
+        ticker.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    public static RefreshScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /** A registered refresh. */
+    public interface Handle {
+        void cancel();
+    }
+
+    /**
+     * Registers {@code refresh} to run every {@code interval} while {@code view} is showing.
+     * The supplied future completes with true if the refresh found new data and false
+     * if nothing changed; a failed future counts as an error. The first run is one
+     * interval from now - views do their initial load themselves.
+     */
+    public Handle register(String name, Node view, Duration interval, Supplier<CompletableFuture<Boolean>> refresh) {
+        Task task = new Task(name, view, (long) interval.toMillis(), refresh);
+        tasks.add(task);
+        trackActivity(view.getScene());
+        view.sceneProperty().addListener((obs, oldScene, newScene) -> trackActivity(newScene));
+        if (ticker.getStatus() != Timeline.Status.RUNNING) {
+            ticker.play();
+        }
+        return () -> cancel(task);
+    }
+
+    /** Stops every task. Called when the session ends. */
+    public void cancelAll() {
+        tasks.clear();
+        ticker.stop();
+    }
+
+    private void cancel(Task task) {
+        tasks.remove(task);
+        if (tasks.isEmpty()) {
+            ticker.stop();
+        }
+    }
+
+    private void trackActivity(Scene scene) {
+        if (scene != null && trackedScenes.put(scene, Boolean.TRUE) == null) {
+            scene.addEventFilter(InputEvent.ANY, activityTracker);
+        }
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        boolean userActive = now - lastUserActivity < ACTIVE_WINDOW_MILLIS;
+        for (Task task : new ArrayList<>(tasks)) {
+            if (task.running || !isShowing(task.view)) continue;
+            long interval = userActive ? task.currentInterval / 2 : task.currentInterval;
+            if (now - task.lastRun >= interval) {
+                run(task, now);
+            }
+        }
+    }
+
+    private void run(Task task, long now) {
+        task.running = true;
+        task.lastRun = now;
+        CompletableFuture<Boolean> result;
+        try {
+            // Sent behind anything the user is waiting for, see RequestScheduler
+            result = ApiClient.getInstance().withPriority(RequestPriority.BACKGROUND, task.refresh);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((changed, error) -> Platform.runLater(() -> {
+            task.running = false;
+            if (error == null && Boolean.TRUE.equals(changed)) {
+                task.currentInterval = task.baseInterval;
+            } else {
+                task.currentInterval = Math.min(task.currentInterval * 2, task.baseInterval * MAX_BACKOFF_FACTOR);
+                if (error != null) {
+                    System.err.println("Refresh '" + task.name + "' failed, next try in " + task.currentInterval / 1000 + "s");
+                }
+            }
+        }));
+    }
+
+    private static boolean isShowing(Node view) {
+        Scene scene = view.getScene();
+        Window window = scene != null ? scene.getWindow() : null;
+        if (window == null || !window.isShowing()) return false;
+        return !(window instanceof Stage) || !((Stage) window).isIconified();
+    }
+
+    private static final class Task {
+        final String name;
+        final Node view;
+        final long baseInterval;
+        final Supplier<CompletableFuture<Boolean>> refresh;
+        long currentInterval;
+        long lastRun;
+        boolean running;
+
+        Task(String name, Node view, long baseInterval, Supplier<CompletableFuture<Boolean>> refresh) {
+            this.name = name;
+            this.view = view;
+            this.baseInterval = baseInterval;
+            this.refresh = refresh;
+            this.currentInterval = baseInterval;
+            this.lastRun = System.currentTimeMillis();
+        }
+    }
+}
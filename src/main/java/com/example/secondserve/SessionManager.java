@@ -1,5 +1,6 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
 import com.example.secondserve.dto.AuthResponse;
 
 public class SessionManager {
@@ -8,6 +9,8 @@ public class SessionManager {
     @SuppressWarnings("exports")
     public static void createSession(AuthResponse session) {
         currentSession = session;
+        // Live updates for this user are pushed over one stream per session
+        ApiClient.getInstance().getPushChannel().start();
     }
 
     @SuppressWarnings("exports")
@@ -24,6 +27,11 @@ public class SessionManager {
     }
 
     public static void clearSession() {
+        ApiClient.getInstance().getPushChannel().stop();
+        ApiClient.getInstance().clearDeltaSyncs(); // cached lists belong to this user
+        ApiClient.getInstance().clearHttpCache();
+        RefreshScheduler.getInstance().cancelAll();
+        ApiClient.getInstance().getFoodItemOutbox().close(); // queued items stay on disk for the next login
         currentSession = null;
     }
     public static Long getHotelId() {
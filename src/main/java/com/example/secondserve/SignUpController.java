@@ -1,10 +1,11 @@
 package com.example.secondserve;
 
+import com.example.secondserve.api.ApiClient;
+import com.example.secondserve.api.ApiException;
 import com.example.secondserve.dto.AuthResponse;
 import com.example.secondserve.dto.HotelDto;
 import com.example.secondserve.dto.KitchenStaffDto;
 import com.example.secondserve.dto.NgoDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -19,11 +20,9 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class SignUpController {
 
@@ -40,8 +39,7 @@ public class SignUpController {
     @FXML private PasswordField ngoPasswordField;
 
     private String userType;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ApiClient api = ApiClient.getInstance();
 
     @FXML
     public void initialize() {
@@ -120,7 +118,7 @@ public class SignUpController {
         staffDto.setPassword(password);
         staffDto.setHotelCode(hotelCode);
         staffDto.setPosition(positionField.getText());
-        sendRegistrationRequest(staffDto, "http://localhost:8080/api/staff/register", event);
+        sendRegistrationRequest(api.registerKitchenStaff(staffDto), event);
     }
 
     private void registerHotelManager(ActionEvent event) {
@@ -137,7 +135,7 @@ public class SignUpController {
         hotelDto.setAddress(address);
         hotelDto.setHotelLicense(license);
         System.out.println("DEBUG: Preparing to send Hotel Manager registration request to the server...");
-        sendRegistrationRequest(hotelDto, "http://localhost:8080/api/hotels/register", event);
+        sendRegistrationRequest(api.registerHotel(hotelDto), event);
     }
 
     private void registerNGO(ActionEvent event) {
@@ -154,54 +152,45 @@ public class SignUpController {
         ngoDto.setAddress(address);
         ngoDto.setPhone(contact);
         ngoDto.setLicenseNumber(license);
-        sendRegistrationRequest(ngoDto, "http://localhost:8080/api/ngos/register", event);
+        sendRegistrationRequest(api.registerNgo(ngoDto), event);
     }
 
     // --- API Communication ---
-    private <T> void sendRegistrationRequest(T dto, String url, ActionEvent event) {
+    private void sendRegistrationRequest(CompletableFuture<AuthResponse> registration, ActionEvent event) {
         registerButton.setDisable(true);
-        try {
-            String requestBody = objectMapper.writeValueAsString(dto);
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(requestBody)).build();
-            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenAccept(response -> handleServerResponse(response, event)).exceptionally(this::handleConnectionError);
-        } catch (IOException e) {
-            System.err.println("DEBUG: FAILED before sending! Error converting DTO to JSON.");
-            showAlert(Alert.AlertType.ERROR, "Application Error", "An error occurred while preparing the request.");
-            registerButton.setDisable(false);
-        }
+        registration.thenAccept(authResponse -> handleServerResponse(authResponse, event))
+                .exceptionally(this::handleConnectionError);
     }
 
-    private void handleServerResponse(HttpResponse<String> response, ActionEvent event) {
-        System.out.println("DEBUG: Received a response from the server! Status code: " + response.statusCode());
-        System.out.println("DEBUG: Response Body: " + response.body());
+    private void handleServerResponse(AuthResponse authResponse, ActionEvent event) {
+        System.out.println("DEBUG: Received a successful registration response from the server!");
         Platform.runLater(() -> {
-            if (response.statusCode() == 201) { // 201 Created
-                try {
-                    if (response.body() != null && response.body().contains("token")) {
-                        AuthResponse authResponse = objectMapper.readValue(response.body(), AuthResponse.class);
-                        SessionManager.createSession(authResponse);
-                        showAlert(Alert.AlertType.INFORMATION, "Success", "Registration successful! You are now logged in.");
-                        navigateToDashboard(event);
-                    } else {
-                        showAlert(Alert.AlertType.INFORMATION, "Success", "Registration successful! You can now log in.");
-                        navigateToLogin(event); // --- FIXED: This was the method that was missing ---
-                    }
-                } catch (IOException e) {
-                    showAlert(Alert.AlertType.ERROR, "Application Error", "Could not process server response.");
-                }
+            if (authResponse != null) {
+                SessionManager.createSession(authResponse);
+                showAlert(Alert.AlertType.INFORMATION, "Success", "Registration successful! You are now logged in.");
+                navigateToDashboard(event);
             } else {
-                showAlert(Alert.AlertType.ERROR, "Registration Failed", "Could not create account. The email, license, or hotel code may already be in use or invalid.");
+                showAlert(Alert.AlertType.INFORMATION, "Success", "Registration successful! You can now log in.");
+                navigateToLogin(event); // --- FIXED: This was the method that was missing ---
             }
             registerButton.setDisable(false);
         });
     }
 
     private Void handleConnectionError(Throwable e) {
+        Throwable cause = ApiException.rootCause(e);
         Platform.runLater(() -> {
-            showAlert(Alert.AlertType.ERROR, "Connection Error", "Could not connect to the server.");
+            if (cause instanceof ApiException) {
+                System.out.println("DEBUG: Response Body: " + ((ApiException) cause).getResponseBody());
+                showAlert(Alert.AlertType.ERROR, "Registration Failed", "Could not create account. The email, license, or hotel code may already be in use or invalid.");
+            } else if (cause instanceof UncheckedIOException) {
+                showAlert(Alert.AlertType.ERROR, "Application Error", "Could not process server response.");
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Connection Error", "Could not connect to the server.");
+                System.err.println("DEBUG: The HTTP request failed entirely!");
+            }
             registerButton.setDisable(false);
         });
-        System.err.println("DEBUG: The HTTP request failed entirely!");
         return null;
     }
 
@@ -0,0 +1,1034 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.SessionManager;
+import com.example.secondserve.dto.AuthResponse;
+import com.example.secondserve.dto.BatchRequestDto;
+import com.example.secondserve.dto.BatchResponseDto;
+import com.example.secondserve.dto.BulkTransitionRequestDto;
+import com.example.secondserve.dto.BulkTransitionResultDto;
+import com.example.secondserve.dto.ChangeSetDto;
+import com.example.secondserve.dto.DashboardStatsDto;
+import com.example.secondserve.dto.FoodItemDto;
+import com.example.secondserve.dto.FoodRequestDto;
+import com.example.secondserve.dto.HotelDto;
+import com.example.secondserve.dto.KitchenStaffDto;
+import com.example.secondserve.dto.LoginRequest;
+import com.example.secondserve.dto.NgoDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Application-wide client for the SecondServe backend.
+ * <p>
+ * Controllers are recreated on every FXML load, so they must not own their own
+ * HttpClient/ObjectMapper. This class holds the single connection pool and the
+ * single configured ObjectMapper for the whole app and exposes one typed method
+ * per {@code /api/...} endpoint. Every method is asynchronous; a non-2xx answer
+ * fails the returned future with an {@link ApiException}. All calls go through a
+ * {@link ResilientTransport} (timeouts, GET retries, circuit breakers, bulkheads);
+ * a call it refuses fails with {@link ServiceUnavailableException}. Cancelling a
+ * returned future aborts its exchange, see {@link CancellationScope}.
+ */
+public final class ApiClient {
+
+    private static final ApiClient INSTANCE = new ApiClient(ApiConfig.fromEnvironment());
+
+    /** Response header carrying the delta-sync cursor of a full list, see {@link DeltaSync}. */
+    static final String SYNC_CURSOR_HEADER = "X-Sync-Cursor";
+
+    /** Request header that makes a create safe to repeat, see {@link IdempotentCreates}. */
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /** Longest streamed list kept for revalidation; longer ones are downloaded again each time. */
+    private static final int MAX_CACHED_LIST_SIZE = 1_000;
+
+    private static final Set<String> HEDGED_ENDPOINTS = Set.of(
+            "GET /api/hotels", "GET /api/hotels/{id}", "GET /api/food-items/hotel/{id}");
+
+    private final ApiConfig config;
+    private final ExecutorService executor;
+    private final ExecutorService decodeExecutor;
+    private final HttpClient httpClient;
+    private final RegionRouter regions;
+    private final ResilientTransport transport;
+    private final SingleFlight singleFlight;
+    private final IdempotentCreates creates;
+    private final HttpCache httpCache = new HttpCache();
+    private final ObjectMapper objectMapper;
+    private final WireFormat wireFormat;
+    private final Projections projections;
+    private final ApiMetrics metrics = new ApiMetrics();
+    private final PushChannel pushChannel;
+    private final Map<String, DeltaSync<?>> deltaSyncs = new ConcurrentHashMap<>();
+    private final FoodItemOutbox foodItemOutbox;
+    private volatile boolean batchSupported = true; // until the server answers /api/batch with 404
+
+    // The app uses the shared instance; tests in this package build their own against a stand-in backend
+    ApiClient(ApiConfig config) {
+        this.config = config;
+        this.executor = Executors.newCachedThreadPool(daemonThreads("api-io-"));
+        // JSON decoding is CPU bound, so it gets a small fixed pool of its own
+        // instead of competing with socket I/O threads (or the FX thread).
+        int decodeThreads = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        this.decodeExecutor = Executors.newFixedThreadPool(decodeThreads, daemonThreads("api-decode-"));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(config.getConnectTimeout())
+                .executor(executor)
+                .build();
+        this.regions = new RegionRouter(config, httpClient, metrics, config.getConnectTimeout());
+        this.transport = new ResilientTransport(httpClient, executor, metrics, regions,
+                new Hedging(config.getHedgePercentile(), config.getHedgeBudget()));
+        this.singleFlight = new SingleFlight(metrics);
+        this.creates = new IdempotentCreates(metrics);
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.wireFormat = new WireFormat(objectMapper, config.isBinaryPayloads());
+        this.projections = new Projections(objectMapper);
+        this.pushChannel = new PushChannel(config, regions::accountPool, httpClient, objectMapper);
+        this.foodItemOutbox = new FoodItemOutbox(config.getDataDir(), objectMapper, this::createFoodItem);
+    }
+
+    public static ApiClient getInstance() {
+        return INSTANCE;
+    }
+
+    public ApiConfig getConfig() { return config; }
+
+    /** The shared, pre-configured mapper. Safe to use from any thread. */
+    public ObjectMapper getObjectMapper() { return objectMapper; }
+
+    public ApiMetrics getMetrics() { return metrics; }
+
+    /** The session's server push subscription. Started and stopped by {@code SessionManager}. */
+    public PushChannel getPushChannel() { return pushChannel; }
+
+    /** Durable offline queue for kitchen leftover logging. Opened by the kitchen view, closed with the session. */
+    public FoodItemOutbox getFoodItemOutbox() { return foodItemOutbox; }
+
+    /**
+     * Executor for the final "render" stage of a response pipeline. Use it with
+     * {@code thenAcceptAsync(...)} so that only ready-to-render results reach the
+     * FX thread; the time spent there is recorded under {@code "fx " + viewKey}.
+     */
+    public Executor onFxThread(String viewKey) {
+        return new FxExecutor(viewKey, metrics);
+    }
+
+    /** Forgets every cached collection and cursor. Called when the session ends. */
+    public void clearDeltaSyncs() {
+        deltaSyncs.clear();
+    }
+
+    /** Forgets every cached GET response. Called when the session ends. */
+    public void clearHttpCache() {
+        httpCache.clear();
+    }
+
+    // --- Authentication ---
+
+    /**
+     * Logs in at the home region first. An account that region does not know (401/404) may have
+     * registered in another one, so each other region is asked in turn; the one that answers holds
+     * the account and gets its own calls from then on. When no region knows it, the home region's
+     * error is reported.
+     */
+    public CompletableFuture<AuthResponse> login(LoginRequest loginRequest) {
+        List<String> order = new ArrayList<>();
+        order.add(regions.homeRegion());
+        for (String region : regions.regions()) {
+            if (!region.equals(regions.homeRegion())) order.add(region);
+        }
+        return login(loginRequest, order, 0, null);
+    }
+
+    private CompletableFuture<AuthResponse> login(LoginRequest loginRequest, List<String> order, int next, Throwable homeError) {
+        String region = order.get(next);
+        HttpRequest.Builder builder = newRequest(region, "/api/auth/login");
+        RequestPriority priority = RequestPriority.current(); // the next region is asked from another thread
+        CompletableFuture<AuthResponse> answer = send(builder.POST(encodeBody(builder, loginRequest)), type(AuthResponse.class));
+        return answer.thenApply(auth -> signedInAt(region, auth))
+                .exceptionallyCompose(e -> {
+                    ApiException apiError = ApiException.unwrap(e);
+                    boolean unknownHere = apiError != null
+                            && (apiError.getStatusCode() == 401 || apiError.getStatusCode() == 404);
+                    Throwable firstError = homeError != null ? homeError : e;
+                    if (!unknownHere) return CompletableFuture.failedFuture(e);
+                    if (next + 1 == order.size()) return CompletableFuture.failedFuture(firstError);
+                    return RequestPriority.during(priority, () -> login(loginRequest, order, next + 1, firstError));
+                });
+    }
+
+    // The region that logged the account in (or registered it) holds its organisation
+    private AuthResponse signedInAt(String region, AuthResponse auth) {
+        if (auth == null) return null;
+        regions.useAccountRegion(region);
+        if ("HOTEL_MANAGER".equals(auth.getUserType()) && auth.getUserId() != null) {
+            regions.learnHotel(auth.getUserId(), region); // the manager's userId is the hotel id
+        }
+        return auth;
+    }
+
+    /**
+     * Registration endpoints only sometimes log the user in straight away.
+     * The future completes with null when the server did not return a token.
+     */
+    public CompletableFuture<AuthResponse> registerKitchenStaff(KitchenStaffDto staff) {
+        return register("/api/staff/register", staff);
+    }
+
+    public CompletableFuture<AuthResponse> registerHotel(HotelDto hotel) {
+        return register(regions.regionForState(hotel.getState()), "/api/hotels/register", hotel);
+    }
+
+    public CompletableFuture<AuthResponse> registerNgo(NgoDto ngo) {
+        return register(regions.regionForState(ngo.getState()), "/api/ngos/register", ngo);
+    }
+
+    private CompletableFuture<AuthResponse> register(String path, Object dto) {
+        return register(regions.homeRegion(), path, dto);
+    }
+
+    // A new hotel or NGO is created on the shard of its own region, which then holds the session's own calls;
+    // a repeated sign-up creates no second account
+    private CompletableFuture<AuthResponse> register(String region, String path, Object dto) {
+        return creates.<JsonNode>submit(path, objectMapper.valueToTree(dto).toString(), key -> {
+                    HttpRequest.Builder builder = newRequest(region, path).header(IDEMPOTENCY_KEY_HEADER, key);
+                    return send(builder.POST(encodeBody(builder, dto)), type(JsonNode.class));
+                })
+                .thenApply(node -> node != null && node.has("token")
+                        ? signedInAt(region, objectMapper.convertValue(node, AuthResponse.class))
+                        : null);
+    }
+
+    // --- Hotels ---
+
+    /** The hotels of every region, in the order the regions answered. */
+    public CompletableFuture<List<HotelDto>> getHotels() {
+        List<HotelDto> hotels = Collections.synchronizedList(new ArrayList<>());
+        return streamHotels(Runnable::run, hotels::addAll).thenApply(total -> new ArrayList<>(hotels));
+    }
+
+    /**
+     * Streams the hotel list in batches as it downloads. See {@link #streamList};
+     * with regional backends see {@link #scatterHotels}.
+     */
+    public CompletableFuture<Integer> streamHotels(Executor deliverOn, Consumer<List<HotelDto>> onBatch) {
+        return scatterHotels("/api/hotels", HotelDto.class, HotelDto::getId, deliverOn, onBatch);
+    }
+
+    /**
+     * Streams the hotel list reduced to the properties of {@code projection}
+     * (e.g. {@code HotelCardDto}); only those are sent, see {@link Projections}.
+     * The projection must include the hotel's {@code id}.
+     */
+    public <T> CompletableFuture<Integer> streamHotels(Class<T> projection, Executor deliverOn, Consumer<List<T>> onBatch) {
+        return scatterHotels(projections.withFields("/api/hotels", projection), projection,
+                projections.idOf(projection), deliverOn, onBatch);
+    }
+
+    public CompletableFuture<HotelDto> getHotel(long hotelId) {
+        return send(get("/api/hotels/" + hotelId), type(HotelDto.class));
+    }
+
+    public CompletableFuture<HotelDto> updateHotel(long hotelId, HotelDto hotel) {
+        return send(put("/api/hotels/" + hotelId, hotel), type(HotelDto.class));
+    }
+
+    /**
+     * Saves only what {@code edit} changed on a copy of {@code loaded} (the profile as
+     * returned by {@link #getHotel}), as a JSON Merge Patch conditional on the version
+     * that was loaded. The future holds the server's updated profile, or fails with a
+     * 412 {@link ApiException} if someone else saved the profile in the meantime.
+     */
+    public CompletableFuture<HotelDto> patchHotel(long hotelId, HotelDto loaded, Consumer<HotelDto> edit) {
+        return patch("/api/hotels/" + hotelId, loaded, edit, HotelDto.class);
+    }
+
+    public CompletableFuture<DashboardStatsDto> getDashboardStats() {
+        return send(get("/api/hotels/dashboard-stats"), type(DashboardStatsDto.class));
+    }
+
+    // --- NGOs ---
+
+    public CompletableFuture<NgoDto> getNgo(long ngoId) {
+        return send(get("/api/ngos/" + ngoId), type(NgoDto.class));
+    }
+
+    public CompletableFuture<NgoDto> updateNgo(long ngoId, NgoDto ngo) {
+        return send(put("/api/ngos/" + ngoId, ngo), type(NgoDto.class));
+    }
+
+    /** As {@link #patchHotel}, for the NGO profile returned by {@link #getNgo}. */
+    public CompletableFuture<NgoDto> patchNgo(long ngoId, NgoDto loaded, Consumer<NgoDto> edit) {
+        return patch("/api/ngos/" + ngoId, loaded, edit, NgoDto.class);
+    }
+
+    // --- Food items ---
+
+    public CompletableFuture<List<FoodItemDto>> getFoodItemsForHotel(long hotelId) {
+        return send(get("/api/food-items/hotel/" + hotelId), listOf(FoodItemDto.class));
+    }
+
+    public CompletableFuture<Integer> streamFoodItemsForHotel(long hotelId, Executor deliverOn, Consumer<List<FoodItemDto>> onBatch) {
+        return streamCachedList(get("/api/food-items/hotel/" + hotelId), FoodItemDto.class, deliverOn, onBatch);
+    }
+
+    /** As above, reduced to the properties of {@code projection} (e.g. {@code FoodItemListingDto}). */
+    public <T> CompletableFuture<Integer> streamFoodItemsForHotel(long hotelId, Class<T> projection,
+                                                                  Executor deliverOn, Consumer<List<T>> onBatch) {
+        return streamCachedList(get(projections.withFields("/api/food-items/hotel/" + hotelId, projection)),
+                projection, deliverOn, onBatch);
+    }
+
+    public CompletableFuture<List<FoodItemDto>> getPendingFoodItems(long hotelId) {
+        return send(get("/api/food-items/hotel/" + hotelId + "/pending"), listOf(FoodItemDto.class));
+    }
+
+    public CompletableFuture<List<FoodItemDto>> getTodaysFoodItems(long hotelId) {
+        return send(get("/api/food-items/hotel/" + hotelId + "/today"), listOf(FoodItemDto.class));
+    }
+
+    /** Delta-synced cache of the hotel's items awaiting approval. */
+    public DeltaSync<FoodItemDto> pendingFoodItemsSync(long hotelId) {
+        String path = "/api/food-items/hotel/" + hotelId + "/pending";
+        return deltaSync(path, path, "", FoodItemDto.class, FoodItemDto::getId, item -> true);
+    }
+
+    /** Delta-synced cache of today's logged items. A new day starts a new cache. */
+    public DeltaSync<FoodItemDto> todaysFoodItemsSync(long hotelId) {
+        String path = "/api/food-items/hotel/" + hotelId + "/today";
+        return deltaSync(path + "@" + LocalDate.now(), path, "", FoodItemDto.class, FoodItemDto::getId, item -> true);
+    }
+
+    /** Logs a food item under a generated idempotency key, see {@link IdempotentCreates}. */
+    public CompletableFuture<FoodItemDto> createFoodItem(FoodItemDto foodItem) {
+        return creates.submit("/api/food-items", objectMapper.valueToTree(foodItem).toString(),
+                key -> createFoodItem(foodItem, key));
+    }
+
+    /**
+     * Creates a food item with an {@code Idempotency-Key}: sending the same key again
+     * returns the item created the first time instead of logging a duplicate.
+     */
+    public CompletableFuture<FoodItemDto> createFoodItem(FoodItemDto foodItem, String idempotencyKey) {
+        return send(post("/api/food-items", foodItem, true).header(IDEMPOTENCY_KEY_HEADER, idempotencyKey),
+                type(FoodItemDto.class));
+    }
+
+    public CompletableFuture<Void> approveFoodItem(long foodItemId) {
+        return sendDiscarding(authorized("/api/food-items/" + foodItemId + "/approve")
+                .PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    public CompletableFuture<Void> rejectFoodItem(long foodItemId) {
+        return sendDiscarding(authorized("/api/food-items/" + foodItemId).DELETE());
+    }
+
+    /**
+     * Approves or rejects many food items in one round trip. See {@link #bulkTransition}.
+     */
+    public CompletableFuture<BulkTransitionResultDto> bulkTransitionFoodItems(List<Long> foodItemIds, String action) {
+        return bulkTransition("/api/food-items/bulk-transition", new BulkTransitionRequestDto(action, foodItemIds),
+                id -> "reject".equals(action) ? rejectFoodItem(id) : approveFoodItem(id));
+    }
+
+    // --- Food requests ---
+
+    /** Requests a food item under a generated idempotency key, see {@link IdempotentCreates}. */
+    public CompletableFuture<FoodRequestDto> createFoodRequest(FoodRequestDto foodRequest) {
+        return creates.submit("/api/food-requests", objectMapper.valueToTree(foodRequest).toString(),
+                key -> send(post("/api/food-requests", foodRequest, true).header(IDEMPOTENCY_KEY_HEADER, key),
+                        type(FoodRequestDto.class)));
+    }
+
+    public CompletableFuture<List<FoodRequestDto>> getRequestsForNgo(long ngoId) {
+        return send(get("/api/food-requests/ngo/" + ngoId), listOf(FoodRequestDto.class));
+    }
+
+    public CompletableFuture<Integer> streamRequestsForNgo(long ngoId, Executor deliverOn, Consumer<List<FoodRequestDto>> onBatch) {
+        return streamList(get("/api/food-requests/ngo/" + ngoId), FoodRequestDto.class, deliverOn, onBatch);
+    }
+
+    /** Delta-synced cache of the NGO's request history. */
+    public DeltaSync<FoodRequestDto> requestsForNgoSync(long ngoId) {
+        String path = "/api/food-requests/ngo/" + ngoId;
+        return deltaSync(path, path, "", FoodRequestDto.class, FoodRequestDto::getId, request -> true);
+    }
+
+    /** Delta-synced cache of the requests still awaiting this hotel's decision. */
+    public DeltaSync<FoodRequestDto> pendingRequestsForHotelSync(long hotelId) {
+        String path = "/api/food-requests/hotel/" + hotelId;
+        return deltaSync(path + "?status=PENDING", path, "status=PENDING", FoodRequestDto.class, FoodRequestDto::getId,
+                request -> "PENDING".equalsIgnoreCase(request.getRequestStatus()));
+    }
+
+    public CompletableFuture<List<FoodRequestDto>> getPendingRequestsForHotel(long hotelId) {
+        return send(get("/api/food-requests/hotel/" + hotelId + "?status=PENDING"), listOf(FoodRequestDto.class));
+    }
+
+    /**
+     * Moves a food request to a new state. {@code action} is the last path segment
+     * used by the server: "approve", "reject" or "complete". The change is conditional
+     * on the version of {@code loaded} (the copy the user decided on): if the request
+     * changed since, e.g. another manager already decided on it, nothing is changed and
+     * the call fails with a {@link ConflictException} holding the current request.
+     * Completes with the request as the server stored it, or null if the server did not
+     * echo it. The stored or current copy also replaces the request in the delta-synced
+     * request lists, so they match the server without a refresh.
+     */
+    public CompletableFuture<FoodRequestDto> transitionFoodRequest(FoodRequestDto loaded, String action) {
+        HttpRequest.Builder builder = authorized("/api/food-requests/" + loaded.getId() + "/" + action)
+                .PUT(HttpRequest.BodyPublishers.noBody());
+        if (loaded.getVersion() != null) {
+            builder.header("If-Match", "\"" + loaded.getVersion() + "\""); // a request's ETag is its version
+        }
+        CompletableFuture<FoodRequestDto> sent = send(builder, type(FoodRequestDto.class));
+        sent.whenComplete((stored, e) -> {
+            ConflictException conflict = ConflictException.unwrap(e);
+            FoodRequestDto current = conflict != null ? conflict.getCurrent(FoodRequestDto.class) : stored;
+            if (current != null) storeRequest(current);
+        });
+        return sent;
+    }
+
+    /**
+     * Applies {@code action} ("approve", "reject" or "complete") to many food requests in one
+     * round trip, each conditional on the version in {@code loaded} as in {@link #transitionFoodRequest};
+     * a request that changed meanwhile fails with status 412, and its result carries the current
+     * request ({@link BulkTransitionResultDto.ItemResult#getCurrent(Class)}) if the server sent it.
+     * Current copies also replace the requests in the delta-synced request lists.
+     */
+    public CompletableFuture<BulkTransitionResultDto> bulkTransitionFoodRequests(List<FoodRequestDto> loaded, String action) {
+        List<Long> ids = loaded.stream().map(FoodRequestDto::getId).collect(Collectors.toList());
+        Map<Long, Long> versions = new HashMap<>();
+        loaded.stream().filter(request -> request.getVersion() != null)
+                .forEach(request -> versions.put(request.getId(), request.getVersion()));
+        Map<Long, FoodRequestDto> byId = loaded.stream().collect(Collectors.toMap(FoodRequestDto::getId, request -> request));
+        return bulkTransition("/api/food-requests/bulk-transition", new BulkTransitionRequestDto(action, ids, versions),
+                id -> transitionFoodRequest(byId.get(id), action))
+                .thenApply(result -> {
+                    for (BulkTransitionResultDto.ItemResult item : result.getResults()) {
+                        if (item.getCurrent() == null) continue;
+                        FoodRequestDto current = objectMapper.convertValue(item.getCurrent(), FoodRequestDto.class);
+                        item.setCurrent(current);
+                        storeRequest(current);
+                    }
+                    return result;
+                });
+    }
+
+    // The pending and history lists hold the request too; they take the server's copy without a refresh,
+    // and the pending list drops it once it is decided
+    @SuppressWarnings("unchecked")
+    private void storeRequest(FoodRequestDto request) {
+        deltaSyncs.forEach((key, sync) -> {
+            if (key.startsWith("/api/food-requests/")) ((DeltaSync<FoodRequestDto>) sync).replace(request);
+        });
+    }
+
+    // --- Bulk transitions ---
+
+    /**
+     * Sends all ids in one POST; the server answers with a result per id, so a partial
+     * failure still reports which ids went through. A server without the bulk endpoint
+     * (404) is served by issuing the single-item calls concurrently and collecting
+     * their outcomes into the same result shape.
+     */
+    private CompletableFuture<BulkTransitionResultDto> bulkTransition(String path, BulkTransitionRequestDto body,
+                                                                      Function<Long, CompletableFuture<?>> singleCall) {
+        CompletableFuture<BulkTransitionResultDto> bulk = send(post(path, body, true), type(BulkTransitionResultDto.class));
+        RequestPriority priority = RequestPriority.current(); // the fallback below runs on another thread
+        return bulk.exceptionallyCompose(e -> {
+            ApiException apiError = ApiException.unwrap(e);
+            if (apiError == null || apiError.getStatusCode() != 404) {
+                return CompletableFuture.failedFuture(e);
+            }
+            return RequestPriority.during(priority, () -> transitionOneByOne(body.getIds(), singleCall));
+        });
+    }
+
+    private CompletableFuture<BulkTransitionResultDto> transitionOneByOne(List<Long> ids, Function<Long, CompletableFuture<?>> singleCall) {
+        List<CompletableFuture<BulkTransitionResultDto.ItemResult>> calls = ids.stream()
+                .map(id -> singleCall.apply(id).handle((ignored, e) -> {
+                    if (e == null) return new BulkTransitionResultDto.ItemResult(id, true, 200, null);
+                    ApiException apiError = ApiException.unwrap(e);
+                    if (apiError == null) return new BulkTransitionResultDto.ItemResult(id, false, 0, "Could not reach the server");
+                    BulkTransitionResultDto.ItemResult failed =
+                            new BulkTransitionResultDto.ItemResult(id, false, apiError.getStatusCode(), apiError.getResponseBody());
+                    if (apiError instanceof ConflictException) failed.setCurrent(((ConflictException) apiError).getCurrent(Object.class));
+                    return failed;
+                }))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).thenApply(done -> {
+            BulkTransitionResultDto result = new BulkTransitionResultDto();
+            calls.forEach(call -> result.getResults().add(call.join()));
+            return result;
+        });
+    }
+
+    // --- Merge patch ---
+
+    /**
+     * Diffs {@code loaded} against an edited copy and PATCHes the difference. The
+     * precondition is the validator the HTTP cache holds for {@code loaded}. If the
+     * cache already holds a newer version, {@code loaded} is known to be outdated and
+     * the call fails with 412 without a round trip; if it holds none (the server sent
+     * no validators), the patch is sent unconditionally. Nothing is sent when the edit
+     * changed nothing.
+     */
+    private <T> CompletableFuture<T> patch(String path, T loaded, Consumer<T> edit, Class<T> type) {
+        T edited = objectMapper.convertValue(loaded, type);
+        edit.accept(edited);
+        JsonNode changes = MergePatch.diff(objectMapper, loaded, edited);
+        if (changes.isEmpty()) {
+            return CompletableFuture.completedFuture(loaded);
+        }
+
+        HttpRequest.Builder builder = authorized(path)
+                .header("Content-Type", MergePatch.CONTENT_TYPE)
+                .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(serialise(objectMapper, changes)));
+        HttpCache.Entry version = httpCache.lookup(get(path).build());
+        if (version != null && version.value != loaded) {
+            return CompletableFuture.failedFuture(new ApiException(412, "Edited copy of " + path + " is out of date"));
+        }
+        if (version != null) {
+            if (version.etag != null) builder.header("If-Match", version.etag);
+            else builder.header("If-Unmodified-Since", version.lastModified);
+        }
+        metrics.add("patch fields " + endpointKey(builder.build()), changes.size());
+        return send(builder, type(type));
+    }
+
+    // --- Regions ---
+
+    /**
+     * One list from every region's shard: each region is streamed in parallel and its
+     * batches are handed on as they arrive, so the nearest region's hotels show first.
+     * Hotels are remembered with the region that listed them, which is where their
+     * detail and food-item calls then go (see {@link RegionRouter}). A region that
+     * fails is left out (counted as "scatter failed <region>"); the call only fails
+     * if every region did.
+     */
+    private <T> CompletableFuture<Integer> scatterHotels(String path, Class<T> elementType, Function<T, Long> idOf,
+                                                         Executor deliverOn, Consumer<List<T>> onBatch) {
+        if (regions.regions().size() == 1) {
+            return streamCachedList(get(path), elementType, deliverOn, onBatch);
+        }
+        Map<String, CompletableFuture<Integer>> shards = new LinkedHashMap<>();
+        for (String region : regions.regions()) {
+            shards.put(region, streamCachedList(authorized(region, path).GET(), elementType, deliverOn, batch -> {
+                for (T hotel : batch) {
+                    regions.learnHotel(idOf.apply(hotel), region);
+                }
+                onBatch.accept(batch);
+            }));
+        }
+
+        CompletableFuture<Integer> gathered = new CompletableFuture<>();
+        AtomicInteger total = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(shards.size());
+        AtomicInteger answered = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        shards.forEach((region, shard) -> shard.whenComplete((count, error) -> {
+            if (error == null) {
+                total.addAndGet(count);
+                answered.incrementAndGet();
+            } else if (!CancellationScope.isCancellation(error)) {
+                metrics.increment("scatter failed " + region);
+                System.err.println("Region " + region + " did not answer " + path + ": " + ApiException.rootCause(error));
+                failure.compareAndSet(null, error);
+            }
+            if (remaining.decrementAndGet() == 0) {
+                if (answered.get() > 0) gathered.complete(total.get());
+                else gathered.completeExceptionally(failure.get() != null ? failure.get() : new CancellationException());
+            }
+        }));
+        gathered.whenComplete((value, error) -> {
+            if (gathered.isCancelled()) shards.values().forEach(shard -> shard.cancel(true));
+        });
+        return gathered;
+    }
+
+    // --- Delta sync ---
+
+    /**
+     * Returns the cache for one collection, creating it on first use. The full
+     * list lives at {@code path?query}; its changes at {@code path/changes?query&since=...}.
+     * {@code belongs} tells, like {@code query} does for the server, which rows the list holds.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> DeltaSync<T> deltaSync(String cacheKey, String path, String query, Class<T> elementType,
+                                       Function<T, Long> idOf, Predicate<T> belongs) {
+        String listUri = query.isEmpty() ? path : path + "?" + query;
+        String changesUri = path + "/changes?" + (query.isEmpty() ? "" : query + "&") + "since=";
+        JavaType changeSetType = objectMapper.getTypeFactory().constructParametricType(ChangeSetDto.class, elementType);
+        return (DeltaSync<T>) deltaSyncs.computeIfAbsent(cacheKey, key -> new DeltaSync<T>(
+                idOf,
+                belongs,
+                onBatch -> streamList(get(listUri), elementType, Runnable::run, onBatch,
+                        (response, total) -> response.headers().firstValue(SYNC_CURSOR_HEADER).orElse(null), false),
+                since -> send(get(changesUri + URLEncoder.encode(since, StandardCharsets.UTF_8)), changeSetType)));
+    }
+
+    // --- Batches ---
+
+    /** Starts collecting the reads of one screen into a single request, see {@link Batch}. */
+    public Batch newBatch() {
+        return new Batch(this);
+    }
+
+    void sendBatch(List<Batch.Part<?>> parts) {
+        if (parts.isEmpty()) {
+            return;
+        }
+        if (!batchSupported || parts.size() == 1) {
+            parts.forEach(ApiClient::sendIndividually);
+            return;
+        }
+        List<BatchRequestDto.Part> requests = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            requests.add(new BatchRequestDto.Part(String.valueOf(i), parts.get(i).path));
+        }
+        // A batch is answered by one shard, so parts for hotels of different regions go separately
+        String region = regions.regionFor(parts.get(0).path);
+        if (parts.stream().anyMatch(part -> !regions.regionFor(part.path).equals(region))) {
+            parts.forEach(ApiClient::sendIndividually);
+            return;
+        }
+        HttpRequest.Builder builder = authorized(region, "/api/batch");
+        HttpRequest request = builder.POST(encodeBody(builder, new BatchRequestDto(requests))).build();
+        // A batch of GETs only reads, so it keeps what its parts would get alone: retries,
+        // read priority, and hedging if one of them is hedged on its own
+        boolean readOnly = requests.stream().allMatch(part -> "GET".equals(part.getMethod()));
+        boolean hedged = readOnly && requests.stream().anyMatch(part -> isHedged("GET", part.getPath()));
+        CompletableFuture<HttpResponse<byte[]>> exchange = transport.send(request, HttpResponse.BodyHandlers.ofByteArray(), hedged, readOnly);
+        RequestPriority priority = RequestPriority.current(); // the fallback below runs on a decode thread
+        // The batch is aborted only once none of its parts is wanted any more
+        AtomicInteger wanted = new AtomicInteger(parts.size());
+        for (Batch.Part<?> part : parts) {
+            part.result.whenComplete((value, error) -> {
+                if (part.result.isCancelled() && wanted.decrementAndGet() == 0) exchange.cancel(true);
+            });
+        }
+        exchange.thenAcceptAsync(response -> {
+            if (response.statusCode() == 404 || response.statusCode() == 405) {
+                batchSupported = false; // older server: send the parts one by one from now on
+                RequestPriority.during(priority, () -> {
+                    parts.forEach(ApiClient::sendIndividually);
+                    return null;
+                });
+                return;
+            }
+            BatchResponseDto batch = decode(response, type(BatchResponseDto.class));
+            metrics.add("batch parts " + endpointKey(request), parts.size());
+            Map<String, BatchResponseDto.Part> answers = new HashMap<>();
+            for (BatchResponseDto.Part answer : batch.getResponses()) {
+                answers.put(answer.getId(), answer);
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                completePart(parts.get(i), answers.get(String.valueOf(i)));
+            }
+        }, decodeExecutor).exceptionally(e -> {
+            parts.forEach(part -> part.result.completeExceptionally(e));
+            return null;
+        });
+    }
+
+    private <T> void completePart(Batch.Part<T> part, BatchResponseDto.Part answer) {
+        if (answer == null) {
+            part.result.completeExceptionally(new ApiException(502, "The batch response has no answer for " + part.path));
+            return;
+        }
+        JsonNode body = answer.getBody() == null || answer.getBody().isNull() ? null : answer.getBody();
+        if (answer.getStatus() < 200 || answer.getStatus() >= 300) {
+            part.result.completeExceptionally(new ApiException(answer.getStatus(), body == null ? null : body.toString()));
+            return;
+        }
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(answer.getHeaders());
+        try {
+            Object value = body == null ? null : objectMapper.readerFor(part.type).readValue(body);
+            part.result.complete(part.finish.apply(value, headers::get));
+        } catch (IOException e) {
+            part.result.completeExceptionally(new UncheckedIOException("Could not parse batch part " + part.path, e));
+        } catch (RuntimeException e) {
+            part.result.completeExceptionally(e);
+        }
+    }
+
+    private static <T> void sendIndividually(Batch.Part<T> part) {
+        CompletableFuture<T> call = part.individually.get();
+        call.whenComplete((value, error) -> {
+            if (error != null) part.result.completeExceptionally(error);
+            else part.result.complete(value);
+        });
+        part.result.whenComplete((value, error) -> {
+            if (part.result.isCancelled()) call.cancel(true);
+        });
+    }
+
+    <T> CompletableFuture<List<T>> getList(String path, Class<T> elementType) {
+        return send(get(path), listOf(elementType));
+    }
+
+    String withFields(String path, Class<?> projection) {
+        return projections.withFields(path, projection);
+    }
+
+    // --- Request building ---
+
+    private HttpRequest.Builder newRequest(String path) {
+        return newRequest(regions.regionFor(path), path);
+    }
+
+    // Built against the region's first replica; the transport may route it to another one
+    private HttpRequest.Builder newRequest(String region, String path) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(regions.baseUrl(region) + path))
+                .timeout(config.getRequestTimeout())
+                .header("Accept", wireFormat.accept())
+                .header("Accept-Encoding", Compression.ACCEPT_ENCODING);
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return authorized(regions.regionFor(path), path);
+    }
+
+    private HttpRequest.Builder authorized(String region, String path) {
+        HttpRequest.Builder builder = newRequest(region, path);
+        String authToken = SessionManager.getAuthToken();
+        if (authToken != null) {
+            builder.header("Authorization", authToken);
+        }
+        return builder;
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return authorized(path).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body, boolean withAuth) {
+        HttpRequest.Builder builder = withAuth ? authorized(path) : newRequest(path);
+        return builder.POST(encodeBody(builder, body));
+    }
+
+    private HttpRequest.Builder put(String path, Object body) {
+        HttpRequest.Builder builder = authorized(path);
+        return builder.PUT(encodeBody(builder, body));
+    }
+
+    // Sets the content headers on the builder; large bodies (bulk uploads, profiles) are gzipped
+    private HttpRequest.BodyPublisher encodeBody(HttpRequest.Builder builder, Object body) {
+        ObjectMapper mapper = wireFormat.forRequest();
+        byte[] encoded = serialise(mapper, body);
+        builder.header("Content-Type", wireFormat.contentType(mapper));
+        if (!Compression.worthCompressing(encoded)) {
+            return HttpRequest.BodyPublishers.ofByteArray(encoded);
+        }
+        builder.header("Content-Encoding", "gzip");
+        return HttpRequest.BodyPublishers.ofByteArray(Compression.gzip(encoded));
+    }
+
+    private static byte[] serialise(ObjectMapper mapper, Object body) {
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // --- Exchange ---
+
+    /**
+     * Runs {@code calls} with every request it starts sent at {@code priority} instead of
+     * the default (interactive), e.g. {@code api.withPriority(BACKGROUND, sync::refresh)}.
+     * Requests are only tagged while {@code calls} runs, which is when ApiClient sends
+     * them; see {@link RequestScheduler}.
+     */
+    public <T> T withPriority(RequestPriority priority, Supplier<T> calls) {
+        return RequestPriority.during(priority, calls);
+    }
+
+    /**
+     * Sends the request and decodes the body on the decode pool. The raw bytes are
+     * handed straight to Jackson, so no intermediate String copy of the body is made.
+     * Identical GETs already in flight are joined instead of sent again (see {@link SingleFlight}),
+     * and a GET whose last answer carried validators is revalidated rather than re-downloaded
+     * (see {@link HttpCache}).
+     */
+    private <T> CompletableFuture<T> send(HttpRequest.Builder builder, JavaType responseType) {
+        HttpRequest request = builder.build();
+        if ("GET".equals(request.method())) {
+            return singleFlight.execute(request, () -> exchange(request, responseType));
+        }
+        return exchange(request, responseType);
+    }
+
+    private <T> CompletableFuture<T> exchange(HttpRequest request, JavaType responseType) {
+        HttpCache.Entry cached = "GET".equals(request.method()) ? httpCache.lookup(request) : null;
+        HttpRequest sent = cached == null ? request : HttpCache.conditional(request, cached);
+        CompletableFuture<HttpResponse<byte[]>> exchange = transport.send(sent, HttpResponse.BodyHandlers.ofByteArray(), isHedged(request));
+        return cancelsExchange(exchange.thenApplyAsync(response -> decodeOrReuse(request, response, responseType, cached), decodeExecutor), exchange);
+    }
+
+    // A 304 means the decoded object from last time is still current: no body, nothing to parse
+    @SuppressWarnings("unchecked")
+    private <T> T decodeOrReuse(HttpRequest request, HttpResponse<byte[]> response, JavaType responseType, HttpCache.Entry cached) {
+        if (cached != null && response.statusCode() == 304) {
+            metrics.increment("cache revalidated " + endpointKey(request));
+            return (T) cached.value;
+        }
+        T value = decode(response, responseType);
+        // A PATCH answers with the updated resource and its new validators, so it replaces the stale GET entry
+        String method = request.method();
+        if ("GET".equals(method) || "PATCH".equals(method)) {
+            httpCache.store(request, response, value);
+        }
+        return value;
+    }
+
+    /**
+     * Sends a request whose response is a JSON array and decodes it incrementally
+     * on the decode pool. Batches of elements are passed to {@code onBatch} on
+     * {@code deliverOn} while the rest of the body is still downloading; the
+     * returned future completes with the element count after the last batch has
+     * been handed over.
+     */
+    private <T> CompletableFuture<Integer> streamList(HttpRequest.Builder builder, Class<T> elementType,
+                                                     Executor deliverOn, Consumer<List<T>> onBatch) {
+        return streamList(builder, elementType, deliverOn, onBatch, (response, total) -> total, false);
+    }
+
+    /**
+     * As {@link #streamList}, but the decoded list is kept in the {@link HttpCache} when the
+     * server sends validators. If it answers 304 next time, the kept list is handed to
+     * {@code onBatch} again without downloading or parsing anything. Keeping a list costs
+     * the heap that streaming saves, so only lists of up to {@value #MAX_CACHED_LIST_SIZE}
+     * elements are kept; a longer one streams with little heap and is fetched in full next time.
+     */
+    private <T> CompletableFuture<Integer> streamCachedList(HttpRequest.Builder builder, Class<T> elementType,
+                                                           Executor deliverOn, Consumer<List<T>> onBatch) {
+        return streamList(builder, elementType, deliverOn, onBatch, (response, total) -> total, true);
+    }
+
+    /** As above, but completes with whatever {@code result} extracts from the response and element count. */
+    @SuppressWarnings("unchecked")
+    private <T, R> CompletableFuture<R> streamList(HttpRequest.Builder builder, Class<T> elementType, Executor deliverOn,
+                                                   Consumer<List<T>> onBatch, BiFunction<HttpResponse<?>, Integer, R> result,
+                                                   boolean cacheable) {
+        HttpRequest request = builder.build();
+        String key = endpointKey(request);
+        HttpCache.Entry cached = cacheable ? httpCache.lookup(request) : null;
+        HttpRequest sent = cached == null ? request : HttpCache.conditional(request, cached);
+        JsonArrayStream<T> stream = new JsonArrayStream<>(type(elementType), deliverOn, onBatch);
+        CompletableFuture<HttpResponse<InputStream>> exchange = transport.send(sent, HttpResponse.BodyHandlers.ofInputStream(), isHedged(request));
+        CompletableFuture<R> decoded = exchange.thenApplyAsync(response -> {
+                    long start = System.nanoTime();
+                    long allocatedBefore = allocatedBytes();
+                    Compression.CountingInputStream wire = new Compression.CountingInputStream(response.body());
+                    Compression.CountingInputStream plain = null;
+                    ObjectMapper mapper = wireFormat.forResponse(response);
+                    try (InputStream raw = wire) {
+                        if (cached != null && response.statusCode() == 304) {
+                            metrics.increment("cache revalidated " + key);
+                            return result.apply(response, stream.deliverAll((List<T>) cached.value));
+                        }
+                        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                            throw new ApiException(response.statusCode(), errorBody(response, raw.readAllBytes()));
+                        }
+                        // Inflated on the fly: the parser pulls plain JSON/CBOR while compressed bytes arrive
+                        plain = new Compression.CountingInputStream(Compression.decoded(response, raw));
+                        if (!cacheable) {
+                            return result.apply(response, stream.readAll(mapper, plain));
+                        }
+                        List<T> items = new ArrayList<>();
+                        int total = stream.readAll(mapper, plain, items, MAX_CACHED_LIST_SIZE);
+                        // A list too long to keep drops any older entry, which could no longer be revalidated
+                        httpCache.store(request, response, items.size() == total ? Collections.unmodifiableList(items) : null);
+                        return result.apply(response, total);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not parse response from " + response.uri(), e);
+                    } finally {
+                        if (plain != null) {
+                            recordDecode("stream", wireFormat.name(mapper), key, System.nanoTime() - start,
+                                    allocatedBytes() - allocatedBefore, wire.getCount(), plain.getCount());
+                        }
+                    }
+                }, decodeExecutor);
+        // Once the body is being read, cancelling stops the parser and drops batches not yet shown
+        decoded.whenComplete((value, error) -> {
+            if (decoded.isCancelled()) stream.cancel();
+        });
+        return cancelsExchange(decoded, exchange);
+    }
+
+    private CompletableFuture<Void> sendDiscarding(HttpRequest.Builder builder) {
+        CompletableFuture<HttpResponse<byte[]>> exchange = transport.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        return cancelsExchange(exchange.thenApply(response -> {
+            checkStatus(response);
+            return null;
+        }), exchange);
+    }
+
+    /**
+     * A CompletableFuture does not pass cancellation back to the stage it was derived
+     * from, so wire it up by hand: cancelling what the caller holds (see
+     * {@link CancellationScope}) aborts the HTTP exchange too.
+     */
+    private static <T> CompletableFuture<T> cancelsExchange(CompletableFuture<T> result, CompletableFuture<?> exchange) {
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) exchange.cancel(true);
+        });
+        return result;
+    }
+
+    private <T> T decode(HttpResponse<byte[]> response, JavaType responseType) {
+        byte[] body = response.body();
+        // A conditional write that lost answers 412 with the entity as it is now; that is decoded too
+        boolean conflict = response.statusCode() == 412 && body != null && body.length > 0;
+        if (!conflict) {
+            checkStatus(response);
+        }
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        String key = endpointKey(response.request());
+        ObjectMapper mapper = wireFormat.forResponse(response);
+        long start = System.nanoTime();
+        long allocatedBefore = allocatedBytes();
+        Compression.CountingInputStream plain = null;
+        try {
+            plain = new Compression.CountingInputStream(Compression.decoded(response, new ByteArrayInputStream(body)));
+            T value = mapper.readValue(plain, responseType);
+            if (conflict) {
+                throw new ConflictException(value);
+            }
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not parse response from " + response.uri(), e);
+        } finally {
+            if (plain != null) {
+                recordDecode("decode", wireFormat.name(mapper), key, System.nanoTime() - start,
+                        allocatedBytes() - allocatedBefore, body.length, plain.getCount());
+            }
+        }
+    }
+
+    /**
+     * Records one decoded body under "{@code <stage> <format> <endpoint>}" (time) and
+     * "{@code alloc|bytes <format> <endpoint>}" (counters), next to "bytes wire". Comparing
+     * the json and cbor keys of an endpoint shows what each format costs the terminal.
+     */
+    private void recordDecode(String stage, String format, String endpointKey, long nanos,
+                              long allocated, long wireBytes, long plainBytes) {
+        metrics.record(stage + " " + format + " " + endpointKey, nanos);
+        metrics.add("alloc " + format + " " + endpointKey, allocated);
+        metrics.add("bytes wire " + endpointKey, wireBytes);
+        metrics.add("bytes " + format + " " + endpointKey, plainBytes);
+    }
+
+    // Heap allocated so far by the calling thread, or 0 where the JVM cannot tell
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean
+                ? ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes()
+                : 0;
+    }
+
+    private static void checkStatus(HttpResponse<byte[]> response) {
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            byte[] body = response.body();
+            throw new ApiException(response.statusCode(), body == null ? null : errorBody(response, body));
+        }
+    }
+
+    // Error bodies are only for messages, so an undecodable one is shown as is
+    private static String errorBody(HttpResponse<?> response, byte[] body) {
+        try (InputStream plain = Compression.decoded(response, new ByteArrayInputStream(body))) {
+            return new String(plain.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * The reads an NGO waits on before anything is shown (hotel list, hotel details and
+     * its available items) are hedged; see ResilientTransport. Others are not worth the extra load.
+     */
+    private static boolean isHedged(HttpRequest request) {
+        return HEDGED_ENDPOINTS.contains(endpointKey(request));
+    }
+
+    private static boolean isHedged(String method, String path) {
+        return HEDGED_ENDPOINTS.contains(endpointKey(method, URI.create(path).getPath()));
+    }
+
+    /** "GET /api/food-items/hotel/{id}/pending" - ids are folded so metrics group per endpoint. */
+    static String endpointKey(HttpRequest request) {
+        return endpointKey(request.method(), request.uri().getPath());
+    }
+
+    private static String endpointKey(String method, String path) {
+        return method + " " + path.replaceAll("/\\d+", "/{id}");
+    }
+
+    JavaType type(Class<?> type) {
+        return objectMapper.getTypeFactory().constructType(type);
+    }
+
+    JavaType listOf(Class<?> elementType) {
+        return objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true); // never keep the JVM alive after the window closes
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.secondserve.api;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connection settings for the backend API.
+ * Values are read once from system properties (or environment variables) so a
+ * terminal can be pointed at another server without rebuilding, e.g.
+ * {@code -Dsecondserve.api.url=http://10.0.0.5:8080}. A comma-separated list of
+ * URLs names several nodes of the same backend; requests are balanced over them
+ * (see ReplicaPool). Deployments with regional backends list them instead with
+ * {@code -Dsecondserve.api.regions=north=http://n1:8080,http://n2:8080;south=http://s1:8080},
+ * plus {@code secondserve.api.homeRegion} (this terminal's region, default the first)
+ * and optionally {@code secondserve.api.regionTable=Dhaka Division=north;Sylhet Division=south}
+ * (see RegionRouter).
+ */
+public final class ApiConfig {
+
+    private static final String DEFAULT_BASE_URL = "http://localhost:8080";
+    private static final String DEFAULT_REGION = "default";
+
+    private final List<String> baseUrls;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final Path dataDir;
+    private final boolean binaryPayloads;
+    private final double hedgePercentile;
+    private final double hedgeBudget;
+    private final Map<String, List<String>> regions;
+    private final String homeRegion;
+    private final Map<String, String> regionTable;
+
+    public ApiConfig(String baseUrl, Duration connectTimeout, Duration requestTimeout, Path dataDir, boolean binaryPayloads,
+                     double hedgePercentile, double hedgeBudget) {
+        this.baseUrls = parseUrls(baseUrl);
+        this.connectTimeout = connectTimeout;
+        this.requestTimeout = requestTimeout;
+        this.dataDir = dataDir;
+        this.binaryPayloads = binaryPayloads;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeBudget = hedgeBudget;
+        this.regions = Map.of(DEFAULT_REGION, baseUrls);
+        this.homeRegion = DEFAULT_REGION;
+        this.regionTable = Map.of();
+    }
+
+    private ApiConfig(ApiConfig base, Map<String, List<String>> regions, String homeRegion, Map<String, String> regionTable) {
+        this.baseUrls = regions.get(homeRegion);
+        this.connectTimeout = base.connectTimeout;
+        this.requestTimeout = base.requestTimeout;
+        this.dataDir = base.dataDir;
+        this.binaryPayloads = base.binaryPayloads;
+        this.hedgePercentile = base.hedgePercentile;
+        this.hedgeBudget = base.hedgeBudget;
+        this.regions = Collections.unmodifiableMap(new LinkedHashMap<>(regions));
+        this.homeRegion = homeRegion;
+        this.regionTable = Map.copyOf(regionTable);
+    }
+
+    /**
+     * A copy of this configuration for a regional deployment: {@code regions} maps each
+     * region to its backend URLs, {@code regionTable} maps states to regions. The base
+     * URLs become those of {@code homeRegion}.
+     */
+    public ApiConfig withRegions(Map<String, List<String>> regions, String homeRegion, Map<String, String> regionTable) {
+        if (!regions.containsKey(homeRegion)) {
+            throw new IllegalArgumentException("Home region '" + homeRegion + "' is not one of " + regions.keySet());
+        }
+        return new ApiConfig(this, regions, homeRegion, regionTable);
+    }
+
+    private static List<String> parseUrls(String commaSeparated) {
+        List<String> urls = new ArrayList<>();
+        for (String url : commaSeparated.split(",")) {
+            url = url.trim();
+            if (url.isEmpty()) continue;
+            // Strip a trailing slash so paths like "/api/hotels" can be appended directly
+            urls.add(url.endsWith("/") ? url.substring(0, url.length() - 1) : url);
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("No backend URL in '" + commaSeparated + "'");
+        }
+        return List.copyOf(urls);
+    }
+
+    // "a=x;b=y" -> {a: x, b: y}, keeping the order
+    private static Map<String, String> parsePairs(String value) {
+        Map<String, String> pairs = new LinkedHashMap<>();
+        for (String pair : value.split(";")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) pairs.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+        }
+        return pairs;
+    }
+
+    /**
+     * Builds the configuration from {@code secondserve.api.*} system properties,
+     * falling back to the {@code SECONDSERVE_API_URL} environment variable and then to localhost.
+     */
+    public static ApiConfig fromEnvironment() {
+        String baseUrl = System.getProperty("secondserve.api.url", System.getenv("SECONDSERVE_API_URL"));
+        if (baseUrl == null || baseUrl.isBlank()) {
+            baseUrl = DEFAULT_BASE_URL;
+        }
+        ApiConfig config = new ApiConfig(
+                baseUrl,
+                Duration.ofSeconds(Long.getLong("secondserve.api.connectTimeoutSeconds", 5)),
+                Duration.ofSeconds(Long.getLong("secondserve.api.requestTimeoutSeconds", 15)),
+                Path.of(System.getProperty("secondserve.dataDir", System.getProperty("user.home") + "/.secondserve")),
+                Boolean.parseBoolean(System.getProperty("secondserve.api.binary", "true")),
+                Double.parseDouble(System.getProperty("secondserve.api.hedgePercentile", "95")),
+                Double.parseDouble(System.getProperty("secondserve.api.hedgeBudget", "0.05")));
+
+        String regionList = System.getProperty("secondserve.api.regions");
+        if (regionList == null || regionList.isBlank()) {
+            return config;
+        }
+        Map<String, List<String>> regions = new LinkedHashMap<>();
+        parsePairs(regionList).forEach((region, urls) -> regions.put(region, parseUrls(urls)));
+        return config.withRegions(regions,
+                System.getProperty("secondserve.api.homeRegion", regions.keySet().iterator().next()),
+                parsePairs(System.getProperty("secondserve.api.regionTable", "")));
+    }
+
+    /** The first (or only) backend URL; requests are built against it before being routed to a replica. */
+    public String getBaseUrl() { return baseUrls.get(0); }
+    public List<String> getBaseUrls() { return baseUrls; }
+
+    /** Backend URLs per region; a single "default" region unless {@link #withRegions} was used. */
+    public Map<String, List<String>> getRegions() { return regions; }
+    public String getHomeRegion() { return homeRegion; }
+
+    /** State (as in HotelDto/NgoDto) to region, for registrations. */
+    public Map<String, String> getRegionTable() { return regionTable; }
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public Duration getRequestTimeout() { return requestTimeout; }
+
+    /** Local directory for state that must survive restarts, such as the offline outbox journal. */
+    public Path getDataDir() { return dataDir; }
+
+    /** Whether to offer CBOR instead of JSON to the server (see WireFormat); {@code -Dsecondserve.api.binary=false} turns it off. */
+    public boolean isBinaryPayloads() { return binaryPayloads; }
+
+    /** Latency percentile after which a hedgeable GET gets a second copy (see Hedging); {@code -Dsecondserve.api.hedgePercentile=95}. */
+    public double getHedgePercentile() { return hedgePercentile; }
+
+    /** Largest share of hedgeable GETs that may be hedged; {@code -Dsecondserve.api.hedgeBudget=0} turns hedging off. */
+    public double getHedgeBudget() { return hedgeBudget; }
+}
@@ -0,0 +1,44 @@
+package com.example.secondserve.api;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Thrown (inside a failed future) when the server answers with a non-2xx status.
+ * Connection failures are NOT wrapped in this type, so controllers can tell
+ * "the server said no" apart from "the server could not be reached".
+ */
+public class ApiException extends RuntimeException {
+
+    private final int statusCode;
+    private final String responseBody;
+
+    public ApiException(int statusCode, String responseBody) {
+        super("Server responded with status " + statusCode);
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    public int getStatusCode() { return statusCode; }
+    public String getResponseBody() { return responseBody; }
+
+    /**
+     * Strips the CompletionException wrappers added by CompletableFuture and
+     * returns the ApiException underneath, or null if the failure was something else.
+     */
+    public static ApiException unwrap(Throwable error) {
+        Throwable cause = rootCause(error);
+        return cause instanceof ApiException ? (ApiException) cause : null;
+    }
+
+    /**
+     * Returns the first throwable that is not a CompletionException/ExecutionException wrapper.
+     */
+    public static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.secondserve.api;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lightweight timing counters for the API layer.
+ * Each key (e.g. "decode GET /api/hotels" or "fx dashboard.leftovers") keeps a
+ * call count, total time and worst case, which is enough to compare how much
+ * work lands on the JavaFX thread before and after a change, plus p50/p99 over
+ * the most recent {@value Reservoir#SIZE} observations for tail latency. Plain
+ * event counters (e.g. "single-flight hit GET /api/hotels/{id}") are kept alongside.
+ */
+public final class ApiMetrics {
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    /** Records one observation of {@code nanos} under {@code key}. */
+    public void record(String key, long nanos) {
+        timers.computeIfAbsent(key, k -> new Timer()).add(nanos);
+    }
+
+    /** Returns {count, totalNanos, maxNanos} for a key, or zeros if it was never recorded. */
+    public long[] get(String key) {
+        Timer timer = timers.get(key);
+        return timer == null ? new long[] {0, 0, 0} : new long[] {timer.count.sum(), timer.total.sum(), timer.max.get()};
+    }
+
+    /** The {@code percentile} (0-100) of the recent observations of {@code key} in nanos, or 0 if there are none. */
+    public long percentile(String key, double percentile) {
+        Timer timer = timers.get(key);
+        return timer == null ? 0 : timer.recent.percentile(percentile);
+    }
+
+    /** Counts one occurrence of the event {@code key}. */
+    public void increment(String key) {
+        add(key, 1);
+    }
+
+    /** Adds {@code amount} to the counter {@code key}, e.g. a number of bytes. */
+    public void add(String key, long amount) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).add(amount);
+    }
+
+    /** The current value of the counter {@code key}. */
+    public long count(String key) {
+        LongAdder counter = counters.get(key);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /** A one-line-per-key, human readable dump, sorted by key. */
+    public String summary() {
+        StringBuilder result = new StringBuilder();
+        new TreeMap<>(timers).forEach((key, timer) -> {
+            long count = timer.count.sum();
+            double avgMs = count == 0 ? 0 : timer.total.sum() / (double) count / 1_000_000;
+            result.append(String.format("%-48s n=%-6d avg=%.2fms p50=%.2fms p99=%.2fms max=%.2fms%n",
+                    key, count, avgMs, timer.recent.percentile(50) / 1_000_000.0,
+                    timer.recent.percentile(99) / 1_000_000.0, timer.max.get() / 1_000_000.0));
+        });
+        new TreeMap<>(counters).forEach((key, counter) ->
+                result.append(String.format("%-48s n=%d%n", key, counter.sum())));
+        return result.toString();
+    }
+
+    public void reset() {
+        timers.clear();
+        counters.clear();
+    }
+
+    private static final class Timer {
+        final LongAdder count = new LongAdder();
+        final LongAdder total = new LongAdder();
+        final AtomicLong max = new AtomicLong();
+        final Reservoir recent = new Reservoir();
+
+        void add(long nanos) {
+            count.increment();
+            total.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+            recent.add(nanos);
+        }
+    }
+
+    /** The last {@value #SIZE} observations of one key, for percentiles. */
+    static final class Reservoir {
+        static final int SIZE = 1024;
+
+        private final long[] samples = new long[SIZE]; // guarded by "this"
+        private long added;
+
+        synchronized void add(long value) {
+            samples[(int) (added++ % SIZE)] = value;
+        }
+
+        synchronized int size() {
+            return (int) Math.min(added, SIZE);
+        }
+
+        synchronized long percentile(double percentile) {
+            int size = size();
+            if (size == 0) return 0;
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * size) - 1; // nearest-rank
+            return sorted[Math.max(0, Math.min(size - 1, rank))];
+        }
+    }
+}
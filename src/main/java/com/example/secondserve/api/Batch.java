@@ -0,0 +1,102 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.dto.DashboardStatsDto;
+import com.example.secondserve.dto.FoodItemDto;
+import com.example.secondserve.dto.HotelDto;
+import com.fasterxml.jackson.databind.JavaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The reads one screen needs to render, sent together as a single
+ * {@code POST /api/batch} so the screen costs one round trip instead of one per call.
+ * <p>
+ * A view adds the parts it needs, keeps the future of each part, then calls
+ * {@link #send()}. Each future completes (on the decode pool) with its decoded part
+ * as soon as the batch response has been parsed; a part the server answered with an
+ * error fails on its own with an {@link ApiException}, the others are unaffected.
+ * Cancelling every part future aborts the batch. Servers without the batch endpoint
+ * get the parts as individual calls, so views do not need a second code path.
+ */
+public final class Batch {
+
+    /** One GET of the batch; {@code finish} turns the decoded body and the part's headers into the result. */
+    static final class Part<T> {
+        final String path;
+        final JavaType type;
+        final BiFunction<Object, Function<String, String>, T> finish;
+        final Supplier<CompletableFuture<T>> individually;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Part(String path, JavaType type, BiFunction<Object, Function<String, String>, T> finish,
+             Supplier<CompletableFuture<T>> individually) {
+            this.path = path;
+            this.type = type;
+            this.finish = finish;
+            this.individually = individually;
+        }
+    }
+
+    private final ApiClient client;
+    private final List<Part<?>> parts = new ArrayList<>();
+    private boolean sent;
+
+    Batch(ApiClient client) {
+        this.client = client;
+    }
+
+    public CompletableFuture<HotelDto> hotel(long hotelId) {
+        return add("/api/hotels/" + hotelId, client.type(HotelDto.class), () -> client.getHotel(hotelId));
+    }
+
+    public CompletableFuture<DashboardStatsDto> dashboardStats() {
+        return add("/api/hotels/dashboard-stats", client.type(DashboardStatsDto.class), client::getDashboardStats);
+    }
+
+    /** The hotel's available items, reduced to the properties of {@code projection}. */
+    public <T> CompletableFuture<List<T>> foodItemsForHotel(long hotelId, Class<T> projection) {
+        String path = client.withFields("/api/food-items/hotel/" + hotelId, projection);
+        return add(path, client.listOf(projection), () -> client.getList(path, projection));
+    }
+
+    /**
+     * The hotel's items awaiting approval, loaded into {@link ApiClient#pendingFoodItemsSync}
+     * with the cursor of the batch part, so the next refresh of that cache fetches changes only.
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<DeltaSync.Result<FoodItemDto>> pendingFoodItems(long hotelId) {
+        DeltaSync<FoodItemDto> sync = client.pendingFoodItemsSync(hotelId);
+        return add("/api/food-items/hotel/" + hotelId + "/pending", client.listOf(FoodItemDto.class),
+                (body, header) -> sync.load((List<FoodItemDto>) body, header.apply(ApiClient.SYNC_CURSOR_HEADER)),
+                () -> sync.refresh().thenApply(result -> result)); // the refresh is shared: cancelling must not abort it
+    }
+
+    /** Sends the batch; the results arrive through the futures of the parts. */
+    public void send() {
+        if (sent) {
+            throw new IllegalStateException("Batch already sent");
+        }
+        sent = true;
+        client.sendBatch(parts);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> add(String path, JavaType type, Supplier<CompletableFuture<T>> individually) {
+        return add(path, type, (body, header) -> (T) body, individually);
+    }
+
+    private <T> CompletableFuture<T> add(String path, JavaType type, BiFunction<Object, Function<String, String>, T> finish,
+                                         Supplier<CompletableFuture<T>> individually) {
+        if (sent) {
+            throw new IllegalStateException("Batch already sent");
+        }
+        Part<T> part = new Part<>(path, type, finish, individually);
+        parts.add(part);
+        return part.result;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.secondserve.api;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking concurrency limit for one endpoint family, so a slow family
+ * (say, a hanging /api/food-items) cannot take every connection and thread
+ * from the others. Up to {@code maxConcurrent} calls run at once; up to
+ * {@code maxQueued} more wait, most urgent {@link RequestPriority} first (see
+ * {@link PriorityWaitQueue}); beyond that calls are rejected.
+ */
+final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final PriorityWaitQueue waiting; // guarded by "this"
+    private int active;
+
+    Bulkhead(String name, int maxConcurrent, int maxQueued, ApiMetrics metrics) {
+        this.name = name;
+        this.waiting = new PriorityWaitQueue(metrics);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /** Completes when the caller holds a permit; it must call {@link #release()} exactly once afterwards. */
+    synchronized CompletableFuture<Void> acquire(RequestPriority priority) {
+        if (active < maxConcurrent && waiting.size() == 0) {
+            active++;
+            return CompletableFuture.completedFuture(null);
+        }
+        if (waiting.size() >= maxQueued) {
+            return CompletableFuture.failedFuture(new ServiceUnavailableException(
+                    "Too many requests to " + name + " are already waiting"));
+        }
+        return waiting.add(priority).permit;
+    }
+
+    void release() {
+        PriorityWaitQueue.Waiter next;
+        synchronized (this) {
+            next = waiting.poll(priority -> true);
+            if (next == null) {
+                active--;
+                return;
+            }
+        }
+        next.permit.complete(null); // the permit passes straight to the next waiter
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.secondserve.api;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The set of API calls started on behalf of one view.
+ * <p>
+ * A view tracks the futures returned by {@link ApiClient} and cancels its scope
+ * when it is swapped out. Cancelling an ApiClient future aborts the HTTP exchange
+ * (or stops reading a streamed body) and skips decoding; every stage chained on
+ * it fails with a {@link CancellationException} instead of touching the detached
+ * nodes. Error handlers should ignore those, see {@link #isCancellation}.
+ */
+public final class CancellationScope {
+
+    private final Set<CompletableFuture<?>> calls = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /** Registers a call with this scope and returns it. A call tracked after {@link #cancel()} is cancelled at once. */
+    public <T> CompletableFuture<T> track(CompletableFuture<T> call) {
+        calls.add(call);
+        call.whenComplete((result, error) -> calls.remove(call));
+        if (cancelled) {
+            call.cancel(true);
+        }
+        return call;
+    }
+
+    /**
+     * Like {@link #track}, for a future other views may share (such as a {@link DeltaSync}
+     * refresh): cancelling this scope only detaches this view from it, the shared work carries on.
+     */
+    public <T> CompletableFuture<T> guard(CompletableFuture<T> shared) {
+        return track(shared.thenApply(result -> result));
+    }
+
+    /** Cancels every call still running; later calls tracked with this scope are cancelled immediately. */
+    public void cancel() {
+        cancelled = true;
+        for (CompletableFuture<?> call : calls) {
+            call.cancel(true);
+        }
+        calls.clear();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** True if {@code e} only means the call was cancelled because its view went away. */
+    public static boolean isCancellation(Throwable e) {
+        return ApiException.rootCause(e) instanceof CancellationException;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.secondserve.api;
+
+/**
+ * Consecutive-failure circuit breaker for one endpoint family.
+ * <p>
+ * CLOSED lets every call through. After {@value #FAILURE_THRESHOLD} failures in a
+ * row (connection errors, timeouts, 5xx) it goes OPEN and rejects calls without
+ * touching the network for {@value #OPEN_MILLIS} ms. Then it is HALF_OPEN: one
+ * trial call is let through, and its outcome closes or re-opens the circuit.
+ */
+final class CircuitBreaker {
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long OPEN_MILLIS = 10_000;
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    CircuitBreaker(String name) {
+        this.name = name;
+    }
+
+    /** Returns true if a call may be made now. */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() < openUntil) return false;
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default: // HALF_OPEN: only the single trial call
+                if (trialInFlight) return false;
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            System.out.println("Circuit " + name + " closed again");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= FAILURE_THRESHOLD) {
+            if (state != State.OPEN) {
+                System.err.println("Circuit " + name + " opened after " + consecutiveFailures + " failure(s); failing fast for " + OPEN_MILLIS / 1000 + "s");
+            }
+            state = State.OPEN;
+            openUntil = System.currentTimeMillis() + OPEN_MILLIS;
+            trialInFlight = false;
+        }
+    }
+
+    /** Releases a trial that ended without a verdict (e.g. rejected by the bulkhead). */
+    synchronized void onAbandoned() {
+        trialInFlight = false;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.secondserve.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content-Encoding support, which java.net.http leaves to the application:
+ * every request advertises {@link #ACCEPT_ENCODING}, compressed responses are
+ * inflated as a stream while Jackson reads them, and request bodies of at least
+ * {@link #MIN_GZIP_BYTES} are sent gzipped.
+ */
+final class Compression {
+
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+    /** Below this, gzip's header and CPU cost outweigh the bytes saved. */
+    static final int MIN_GZIP_BYTES = 1024;
+
+    private Compression() {
+    }
+
+    /** Wraps {@code body} so it yields the plain bytes, according to the response's Content-Encoding. */
+    static InputStream decoded(HttpResponse<?> response, InputStream body) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("identity").trim().toLowerCase(Locale.ROOT);
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body, 8192);
+            case "deflate":
+                return new InflaterInputStream(body); // zlib-wrapped, as RFC 9110 defines it
+            case "identity":
+            case "":
+                return body;
+            default:
+                throw new IOException("Unsupported Content-Encoding: " + encoding);
+        }
+    }
+
+    static boolean worthCompressing(byte[] body) {
+        return body.length >= MIN_GZIP_BYTES;
+    }
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen with an in-memory stream
+        }
+        return out.toByteArray();
+    }
+
+    /** Counts the bytes read through it, to compare wire size with JSON size. */
+    static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.secondserve.api;
+
+/**
+ * A conditional write (If-Match) refused with 412 because the entity changed on the
+ * server since the client loaded it, e.g. another manager decided on the same request.
+ * The server sends the entity as it is now, so the caller can show what changed
+ * instead of reloading the list.
+ */
+public class ConflictException extends ApiException {
+
+    private final Object current;
+
+    // The body is the entity (possibly CBOR), so the message takes its place, as in bulk results
+    ConflictException(Object current) {
+        super(412, "Changed by someone else");
+        this.current = current;
+    }
+
+    /** The entity as the server holds it now, of the type the write would have returned. */
+    public <T> T getCurrent(Class<T> type) {
+        return type.cast(current);
+    }
+
+    /** As {@link ApiException#unwrap}, or null if the failure was not a conflict. */
+    public static ConflictException unwrap(Throwable error) {
+        Throwable cause = rootCause(error);
+        return cause instanceof ConflictException ? (ConflictException) cause : null;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.dto.ChangeSetDto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A locally cached copy of one server collection that is kept current with
+ * delta requests instead of downloading the whole list on every refresh.
+ * <p>
+ * The first refresh downloads the full list and remembers the cursor the server
+ * sends in the {@code X-Sync-Cursor} header. Later refreshes ask the collection's
+ * {@code /changes?since=<cursor>} endpoint for added, updated and removed rows only
+ * and merge them into the cache, so a steady-state refresh costs O(changes)
+ * rather than O(n). A server without the changes endpoint (404) or without the
+ * cursor header simply gets a full download every time, as before.
+ * <p>
+ * Instances are cached per collection by {@link ApiClient} and dropped when the
+ * session ends. At most one refresh per collection is in flight; concurrent
+ * callers share it.
+ */
+public final class DeltaSync<T> {
+
+    /** Downloads the full list, passing decoded batches on; completes with the cursor header or null. */
+    interface FullLoader<T> {
+        CompletableFuture<String> load(Consumer<List<T>> onBatch);
+    }
+
+    /** Fetches the changes after {@code since}. */
+    interface ChangeLoader<T> {
+        CompletableFuture<ChangeSetDto<T>> load(String since);
+    }
+
+    private final Function<T, Long> idOf;
+    private final Predicate<T> belongs; // whether a row matches the collection's filter, e.g. status=PENDING
+    private final FullLoader<T> fullLoader;
+    private final ChangeLoader<T> changeLoader;
+
+    // --- Guarded by "this" ---
+    private final Map<Long, T> items = new LinkedHashMap<>(); // server order, so updates keep their position
+    private String cursor;
+    private boolean changesSupported = true;
+    private CompletableFuture<Result<T>> inFlight;
+
+    DeltaSync(Function<T, Long> idOf, Predicate<T> belongs, FullLoader<T> fullLoader, ChangeLoader<T> changeLoader) {
+        this.idOf = idOf;
+        this.belongs = belongs;
+        this.fullLoader = fullLoader;
+        this.changeLoader = changeLoader;
+    }
+
+    /** True once a cursor is known, i.e. the next refresh will only fetch changes. */
+    public synchronized boolean isWarm() {
+        return cursor != null && changesSupported;
+    }
+
+    /** Copy of the cached rows in server order. */
+    public synchronized List<T> snapshot() {
+        return new ArrayList<>(items.values());
+    }
+
+    public CompletableFuture<Result<T>> refresh() {
+        return refresh(null, null);
+    }
+
+    /**
+     * Brings the cache up to date. If a full download turns out to be needed,
+     * its rows are also handed to {@code onFullBatch} on {@code deliverOn} while
+     * they are still arriving, so large lists can render progressively.
+     */
+    public synchronized CompletableFuture<Result<T>> refresh(Executor deliverOn, Consumer<List<T>> onFullBatch) {
+        if (inFlight != null && !inFlight.isDone()) {
+            return inFlight;
+        }
+        CompletableFuture<Result<T>> refresh;
+        if (isWarm()) {
+            RequestPriority priority = RequestPriority.current(); // the fallback below runs on another thread
+            refresh = changeLoader.load(cursor)
+                    .thenApply(this::merge)
+                    .exceptionallyCompose(e -> {
+                        ApiException apiError = ApiException.unwrap(e);
+                        if (apiError == null || apiError.getStatusCode() != 404) {
+                            return CompletableFuture.failedFuture(e);
+                        }
+                        synchronized (this) {
+                            changesSupported = false; // old server: fall back to full lists for good
+                        }
+                        return RequestPriority.during(priority, () -> loadFull(deliverOn, onFullBatch));
+                    });
+        } else {
+            refresh = loadFull(deliverOn, onFullBatch);
+        }
+        inFlight = refresh;
+        return refresh;
+    }
+
+    private CompletableFuture<Result<T>> loadFull(Executor deliverOn, Consumer<List<T>> onFullBatch) {
+        Map<Long, T> fresh = new LinkedHashMap<>(); // only touched by the single decoding thread
+        return fullLoader.load(batch -> {
+            for (T item : batch) {
+                fresh.put(idOf.apply(item), item);
+            }
+            if (onFullBatch != null) {
+                deliverOn.execute(() -> onFullBatch.accept(batch));
+            }
+        }).thenApply(newCursor -> {
+            synchronized (this) {
+                items.clear();
+                items.putAll(fresh);
+                cursor = newCursor;
+                return new Result<>(true, List.of(), List.of(), List.of(), snapshot());
+            }
+        });
+    }
+
+    /** Replaces the cache with a full list downloaded elsewhere (a {@link Batch} part) and its cursor. */
+    synchronized Result<T> load(List<T> rows, String newCursor) {
+        items.clear();
+        for (T item : rows) {
+            items.put(idOf.apply(item), item);
+        }
+        cursor = newCursor;
+        return new Result<>(true, List.of(), List.of(), List.of(), snapshot());
+    }
+
+    /**
+     * Takes the server's copy of a row that came back outside a refresh (the answer to a
+     * write, or the current row sent with a conflict), if the cache holds that row. A copy
+     * the collection's filter no longer matches (a decided request in the pending list)
+     * takes the row out instead, as the next delta would.
+     */
+    synchronized void replace(T item) {
+        if (belongs.test(item)) {
+            items.computeIfPresent(idOf.apply(item), (id, old) -> item);
+        } else {
+            items.remove(idOf.apply(item));
+        }
+    }
+
+    private synchronized Result<T> merge(ChangeSetDto<T> changes) {
+        if (changes.isReset()) {
+            items.clear();
+        }
+        for (Long id : changes.getRemoved()) {
+            items.remove(id);
+        }
+        for (T item : changes.getAdded()) {
+            items.put(idOf.apply(item), item);
+        }
+        for (T item : changes.getUpdated()) {
+            items.put(idOf.apply(item), item);
+        }
+        cursor = changes.getCursor();
+        return new Result<>(changes.isReset(), changes.getAdded(), changes.getUpdated(), changes.getRemoved(), snapshot());
+    }
+
+    /**
+     * Outcome of one refresh. A view that has already rendered the collection can
+     * patch itself from the added/updated/removed lists; after a full reload (or on
+     * its first render) it should draw {@link #getItems()} instead.
+     */
+    public static final class Result<T> {
+        private final boolean fullReload;
+        private final List<T> added;
+        private final List<T> updated;
+        private final List<Long> removed;
+        private final List<T> items;
+
+        Result(boolean fullReload, List<T> added, List<T> updated, List<Long> removed, List<T> items) {
+            this.fullReload = fullReload;
+            this.added = added;
+            this.updated = updated;
+            this.removed = removed;
+            this.items = items;
+        }
+
+        public boolean isFullReload() { return fullReload; }
+        public List<T> getAdded() { return added; }
+        public List<T> getUpdated() { return updated; }
+        public List<Long> getRemoved() { return removed; }
+        public List<T> getItems() { return items; }
+
+        public boolean hasChanges() {
+            return fullReload || !added.isEmpty() || !updated.isEmpty() || !removed.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.SessionManager;
+import com.example.secondserve.dto.FoodItemDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Offline-first queue for kitchen leftover logging.
+ * <p>
+ * {@link #submit} accepts a FoodItemDto immediately: the item is appended to an
+ * on-disk {@link WriteAheadJournal} and shown as queued, without waiting for the
+ * network. A single replayer thread then POSTs queued items to
+ * {@code /api/food-items} strictly in submission order, each with its own
+ * {@code Idempotency-Key}, so a retry after a lost response cannot log the item
+ * twice. Connection failures and 5xx answers are retried with jittered backoff;
+ * any other 4xx answer marks the item failed. Items still queued when the app
+ * exits are replayed after the next login of the same kitchen.
+ */
+public final class FoodItemOutbox {
+
+    private static final byte RECORD_QUEUED = 1;
+    private static final byte RECORD_DONE = 2;
+    private static final long MIN_RETRY_MILLIS = 1_000;
+    private static final long MAX_RETRY_MILLIS = 60_000;
+    private static final long COMPACT_ABOVE_BYTES = 256 * 1024;
+
+    public enum State { QUEUED, SYNCED, FAILED }
+
+    /** One submitted item and where it is in its journey to the server. */
+    public static final class Entry {
+        private final String key;
+        private final FoodItemDto item;
+        private final LocalDateTime queuedAt;
+        private volatile State state = State.QUEUED;
+        private volatile FoodItemDto serverItem;
+        private volatile String error;
+
+        Entry(String key, FoodItemDto item, LocalDateTime queuedAt) {
+            this.key = key;
+            this.item = item;
+            this.queuedAt = queuedAt;
+        }
+
+        public String getKey() { return key; }
+        public FoodItemDto getItem() { return item; }
+        public LocalDateTime getQueuedAt() { return queuedAt; }
+        public State getState() { return state; }
+        /** The item as created by the server, once SYNCED. */
+        public FoodItemDto getServerItem() { return serverItem; }
+        /** Why the server refused the item, once FAILED. */
+        public String getError() { return error; }
+    }
+
+    private final Path dataDir;
+    private final ObjectMapper objectMapper;
+    private final BiFunction<FoodItemDto, String, CompletableFuture<FoodItemDto>> sender;
+    private final ScheduledExecutorService replayer = Executors.newSingleThreadScheduledExecutor(ApiClient.daemonThreads("api-outbox-"));
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // --- Guarded by "this" ---
+    private WriteAheadJournal journal;
+    private long openHotelId;
+    private final Deque<Entry> queue = new ArrayDeque<>();
+    private int generation; // bumped by open/close so a replay from an older session stops
+    private boolean draining;
+    private ScheduledFuture<?> scheduledDrain;
+    private int consecutiveFailures;
+
+    FoodItemOutbox(Path dataDir, ObjectMapper objectMapper, BiFunction<FoodItemDto, String, CompletableFuture<FoodItemDto>> sender) {
+        this.dataDir = dataDir;
+        this.objectMapper = objectMapper;
+        this.sender = sender;
+    }
+
+    /**
+     * Opens the journal of one kitchen (hotel) and starts replaying whatever it
+     * still holds. Does nothing if that journal is already open.
+     */
+    public synchronized void open(long hotelId) throws IOException {
+        if (journal != null && openHotelId == hotelId) return;
+        if (journal != null) close();
+        journal = new WriteAheadJournal(dataDir.resolve("kitchen-outbox-" + hotelId + ".wal"));
+        openHotelId = hotelId;
+        Map<String, Entry> pending = new LinkedHashMap<>();
+        for (WriteAheadJournal.Record record : journal.recovered()) {
+            JsonNode node = objectMapper.readTree(record.payload);
+            String key = node.get("key").asText();
+            if (record.type == RECORD_QUEUED) {
+                FoodItemDto item = objectMapper.treeToValue(node.get("item"), FoodItemDto.class);
+                pending.put(key, new Entry(key, item, LocalDateTime.parse(node.get("queuedAt").asText())));
+            } else {
+                pending.remove(key);
+            }
+        }
+        queue.addAll(pending.values());
+        if (!queue.isEmpty()) {
+            System.out.println("Outbox: " + queue.size() + " item(s) waiting from an earlier session");
+        }
+        generation++;
+        consecutiveFailures = 0;
+        scheduleDrain(0);
+    }
+
+    /** Stops replaying, drops listeners and closes the journal; queued items stay on disk. Called when the session ends. */
+    public synchronized void close() {
+        generation++;
+        draining = false;
+        queue.clear();
+        listeners.clear();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Outbox: could not close journal: " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    /**
+     * Queues an item for the server. Returns as soon as the record is written to
+     * the journal file; its fsync and the upload happen in the background.
+     */
+    public Entry submit(FoodItemDto item) throws IOException {
+        Entry entry = new Entry(UUID.randomUUID().toString(), item, LocalDateTime.now());
+        ObjectNode record = objectMapper.createObjectNode()
+                .put("key", entry.key)
+                .put("queuedAt", entry.queuedAt.toString());
+        record.set("item", objectMapper.valueToTree(item));
+        synchronized (this) {
+            if (journal == null) {
+                throw new IOException("Outbox is not open");
+            }
+            journal.append(RECORD_QUEUED, objectMapper.writeValueAsBytes(record))
+                    .exceptionally(e -> {
+                        System.err.println("Outbox: fsync failed, item may not survive a crash: " + e.getMessage());
+                        return null;
+                    });
+            queue.addLast(entry);
+            // New work: try right away instead of waiting out a retry backoff
+            if (draining && scheduledDrain != null && scheduledDrain.cancel(false)) {
+                draining = false;
+            }
+            scheduleDrain(0);
+        }
+        notifyListeners(entry);
+        return entry;
+    }
+
+    /** Items not yet accepted by the server, oldest first. */
+    public synchronized List<Entry> pending() {
+        return new ArrayList<>(queue);
+    }
+
+    /** Receives every state change (including QUEUED on submit) on {@code deliverOn}. */
+    public PushChannel.Subscription subscribe(Executor deliverOn, Consumer<Entry> handler) {
+        Listener listener = new Listener(deliverOn, handler);
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    // --- Replay ---
+
+    private synchronized void scheduleDrain(long delayMillis) {
+        if (draining || queue.isEmpty() || journal == null) return;
+        draining = true;
+        int expectedGeneration = generation;
+        scheduledDrain = replayer.schedule(() -> drain(expectedGeneration), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs on the replayer thread only, so items are sent one at a time in order
+    private void drain(int expectedGeneration) {
+        while (true) {
+            Entry head;
+            synchronized (this) {
+                if (expectedGeneration != generation) return;
+                head = queue.peekFirst();
+                if (head == null || SessionManager.getAuthToken() == null) {
+                    draining = false;
+                    return;
+                }
+            }
+
+            try {
+                FoodItemDto created = sender.apply(head.item, head.key).join();
+                finish(expectedGeneration, head, State.SYNCED, created, null);
+            } catch (RuntimeException e) {
+                ApiException apiError = ApiException.unwrap(e);
+                if (apiError != null && isPermanent(apiError.getStatusCode())) {
+                    finish(expectedGeneration, head, State.FAILED, null, "Server refused the item (status " + apiError.getStatusCode() + ")");
+                    continue;
+                }
+                retryLater(expectedGeneration, e);
+                return;
+            }
+        }
+    }
+
+    private void finish(int expectedGeneration, Entry entry, State state, FoodItemDto serverItem, String error) {
+        synchronized (this) {
+            if (expectedGeneration != generation) return;
+            ObjectNode record = objectMapper.createObjectNode()
+                    .put("key", entry.key)
+                    .put("state", state.name());
+            try {
+                journal.append(RECORD_DONE, objectMapper.writeValueAsBytes(record));
+            } catch (IOException e) {
+                // Worst case the item is replayed after a restart; its idempotency key makes that harmless
+                System.err.println("Outbox: could not record completion: " + e.getMessage());
+            }
+            queue.pollFirst();
+            consecutiveFailures = 0;
+            compactIfIdle();
+        }
+        entry.serverItem = serverItem;
+        entry.error = error;
+        entry.state = state;
+        notifyListeners(entry);
+    }
+
+    private synchronized void retryLater(int expectedGeneration, Throwable e) {
+        if (expectedGeneration != generation) return;
+        draining = false;
+        consecutiveFailures++;
+        long backoff = Math.min(MAX_RETRY_MILLIS, MIN_RETRY_MILLIS << Math.min(consecutiveFailures - 1, 6));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        System.out.println("Outbox: " + queue.size() + " item(s) queued, server unreachable ("
+                + ApiException.rootCause(e) + "), retrying in " + delay + " ms");
+        scheduleDrain(delay);
+    }
+
+    // Only called with the lock held and after the queue drained completely
+    private void compactIfIdle() {
+        try {
+            if (queue.isEmpty() && journal.size() > COMPACT_ABOVE_BYTES) {
+                journal.truncate();
+            }
+        } catch (IOException e) {
+            System.err.println("Outbox: could not compact journal: " + e.getMessage());
+        }
+    }
+
+    // Bad input will never be accepted; anything else (expired login, timeouts, overload, outages) is worth retrying.
+    // 409 means an earlier send under the same key is still being processed: its answer is replayed next time.
+    private static boolean isPermanent(int statusCode) {
+        return statusCode >= 400 && statusCode < 500
+                && statusCode != 401 && statusCode != 403 && statusCode != 408 && statusCode != 409 && statusCode != 429;
+    }
+
+    private void notifyListeners(Entry entry) {
+        for (Listener listener : listeners) {
+            listener.deliverOn.execute(() -> listener.handler.accept(entry));
+        }
+    }
+
+    private static final class Listener {
+        final Executor deliverOn;
+        final Consumer<Entry> handler;
+
+        Listener(Executor deliverOn, Consumer<Entry> handler) {
+            this.deliverOn = deliverOn;
+            this.handler = handler;
+        }
+    }
+}
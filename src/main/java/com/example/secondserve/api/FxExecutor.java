@@ -0,0 +1,34 @@
+package com.example.secondserve.api;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executor;
+
+/**
+ * An Executor that runs tasks on the JavaFX Application Thread and records how
+ * long each one kept the thread busy. Used as the last stage of a response
+ * pipeline: decoding happens on the decode pool, and only the already decoded
+ * result reaches this executor to be rendered.
+ */
+final class FxExecutor implements Executor {
+
+    private final String metricKey;
+    private final ApiMetrics metrics;
+
+    FxExecutor(String viewKey, ApiMetrics metrics) {
+        this.metricKey = "fx " + viewKey;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Platform.runLater(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                metrics.record(metricKey, System.nanoTime() - start);
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.secondserve.api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Policy for hedged GETs: when to send a second copy of a slow read, and how many
+ * may be sent.
+ * <p>
+ * The delay is a percentile (by default p95) of the endpoint's recent latencies,
+ * so only the slowest few percent of calls are hedged. Until an endpoint has
+ * {@value #MIN_SAMPLES} observations nothing is hedged. The budget is a token
+ * bucket: every hedgeable call earns {@code budget} tokens (0.05 by default) and a
+ * hedge costs one, so hedges stay below that share of traffic even when the
+ * backend slows down as a whole, which is exactly when extra load hurts most. The
+ * bucket holds at most one hedge, so a quiet period does not save up a burst.
+ * <p>
+ * The recorded latencies are those of the first copy only. The answer the caller
+ * sees is often the hedge's, and feeding that back would pull the percentile, and
+ * with it the delay, further down with every hedge that wins.
+ */
+final class Hedging {
+
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_TOKENS = 1; // no bursts above the budget
+
+    private final double percentile;
+    private final double budget;
+    private final Map<String, ApiMetrics.Reservoir> latencies = new ConcurrentHashMap<>();
+    private double tokens; // guarded by "this"
+
+    Hedging(double percentile, double budget) {
+        this.percentile = percentile;
+        this.budget = budget;
+    }
+
+    /** Nanos to wait before hedging a call to {@code endpoint}, or -1 if it must not be hedged. Earns budget. */
+    long delayNanos(String endpoint) {
+        if (budget <= 0) return -1;
+        synchronized (this) {
+            tokens = Math.min(MAX_TOKENS, tokens + budget);
+        }
+        ApiMetrics.Reservoir recent = latencies.get(endpoint);
+        return recent == null || recent.size() < MIN_SAMPLES ? -1 : recent.percentile(percentile);
+    }
+
+    /** Takes one hedge from the budget; false if the budget is used up. */
+    synchronized boolean tryAcquire() {
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Records the latency of the first copy of a call. If a hedge won and the first copy was
+     * cancelled, pass the time it had run by then: it would have taken at least that long.
+     */
+    void record(String endpoint, long nanos) {
+        latencies.computeIfAbsent(endpoint, key -> new ApiMetrics.Reservoir()).add(nanos);
+    }
+}
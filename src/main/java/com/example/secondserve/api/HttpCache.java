@@ -0,0 +1,83 @@
+package com.example.secondserve.api;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory HTTP cache of decoded GET responses, keyed by URL and login.
+ * <p>
+ * A response is kept only if the server sent a validator ({@code ETag} and/or
+ * {@code Last-Modified}) and did not forbid storing it. The next GET of the same
+ * URL is sent with {@code If-None-Match} / {@code If-Modified-Since}; if the server
+ * answers 304 the already decoded object is reused, so an unchanged resource
+ * costs a header-only round trip and no parsing at all. Entries are always
+ * revalidated, never served without asking the server. Cached objects are shared
+ * between callers and must be treated as read-only.
+ */
+final class HttpCache {
+
+    private static final int MAX_ENTRIES = 128;
+
+    /** One stored response: its validators and the decoded body. */
+    static final class Entry {
+        final String etag;
+        final String lastModified;
+        final Object value;
+
+        Entry(String etag, String lastModified, Object value) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+    }
+
+    // Least recently used entries are dropped first; guarded by "this"
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    synchronized Entry lookup(HttpRequest request) {
+        return entries.get(keyOf(request));
+    }
+
+    /**
+     * Stores {@code value} as the decoded body of a 200 response to {@code request}, if the
+     * response can be revalidated later. The request is the one ApiClient built, not the one
+     * routed to a replica, so every replica's answers share one entry.
+     */
+    void store(HttpRequest request, HttpResponse<?> response, Object value) {
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        boolean noStore = response.headers().allValues("Cache-Control").stream().anyMatch(v -> v.contains("no-store"));
+        String key = keyOf(request);
+        synchronized (this) {
+            if ((etag == null && lastModified == null) || noStore || value == null) {
+                entries.remove(key);
+            } else {
+                entries.put(key, new Entry(etag, lastModified, value));
+            }
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /** A copy of {@code request} that asks the server to answer 304 if {@code entry} is still current. */
+    static HttpRequest conditional(HttpRequest request, Entry entry) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (entry.etag != null) builder.header("If-None-Match", entry.etag);
+        if (entry.lastModified != null) builder.header("If-Modified-Since", entry.lastModified);
+        return builder.build();
+    }
+
+    // Different logins must never see each other's answers
+    private static String keyOf(HttpRequest request) {
+        return request.uri() + " " + request.headers().firstValue("Authorization").orElse("");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.secondserve.api;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Idempotency keys for create calls (POSTs that make a new row), so a create is
+ * carried out at most once however often it reaches the server.
+ * <p>
+ * Every submission gets a fresh random key, sent as {@value ApiClient#IDEMPOTENCY_KEY_HEADER};
+ * the server answers a repeated key with the first result instead of creating a
+ * duplicate, which also makes such POSTs safe for the transport to retry. For
+ * {@value #WINDOW_MILLIS} ms after it, the same body posted to the same endpoint is
+ * taken to be the same submission (a double click, a second window): while the first
+ * is running or after it succeeded, the caller gets its result without a new request
+ * ({@code "create deduplicated <path>"}); after it failed, it is sent again under the
+ * same key, so if the first did reach the server nothing is created twice. Later the
+ * same body is a new create.
+ */
+final class IdempotentCreates {
+
+    static final long WINDOW_MILLIS = 5_000;
+
+    private static final class Submission {
+        final String key = UUID.randomUUID().toString();
+        CompletableFuture<?> result;
+        long lastSent;
+    }
+
+    private final ApiMetrics metrics;
+    private final Map<String, Submission> recent = new HashMap<>(); // by path and body; guarded by "this"
+
+    IdempotentCreates(ApiMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /** Sends {@code body} to {@code path} through {@code send}, which must put the key it is given on the request. */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> submit(String path, String body, Function<String, CompletableFuture<T>> send) {
+        String fingerprint = path + "\n" + body;
+        Submission submission;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            recent.values().removeIf(old -> now - old.lastSent > WINDOW_MILLIS && old.result.isDone());
+            submission = recent.get(fingerprint);
+            if (submission != null && !submission.result.isCompletedExceptionally()) {
+                metrics.increment("create deduplicated " + path);
+                // A copy: one caller cancelling must not fail the others
+                return ((CompletableFuture<T>) submission.result).thenApply(value -> value);
+            }
+            if (submission == null) {
+                submission = new Submission();
+                recent.put(fingerprint, submission);
+            }
+            submission.lastSent = now;
+            // Sent under the lock, so an identical submission cannot slip in between
+            submission.result = send.apply(submission.key);
+        }
+        return ((CompletableFuture<T>) submission.result).thenApply(value -> value);
+    }
+}
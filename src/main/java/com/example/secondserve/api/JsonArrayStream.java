@@ -0,0 +1,129 @@
+package com.example.secondserve.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Decodes a top-level JSON (or CBOR) array element by element while the body is still
+ * arriving, handing small batches to a consumer as soon as they are complete.
+ * <p>
+ * Only the current batch is ever held in memory - neither the body text nor the
+ * full list is materialised, unless the caller asks to keep a short list (see
+ * {@link #readAll(ObjectMapper, InputStream, List, int)}). Batches start small so the first rows can be shown
+ * quickly, then grow so a long list does not flood the FX event queue.
+ */
+final class JsonArrayStream<T> {
+
+    private static final int FIRST_BATCH_SIZE = 16;
+    private static final int MAX_BATCH_SIZE = 512;
+    private static final long MAX_BATCH_DELAY_NANOS = 50_000_000L; // 50 ms
+
+    private final JavaType elementType;
+    private final Executor deliverOn;
+    private final Consumer<List<T>> sink;
+    private volatile boolean cancelled;
+
+    JsonArrayStream(JavaType elementType, Executor deliverOn, Consumer<List<T>> sink) {
+        this.elementType = elementType;
+        this.deliverOn = deliverOn;
+        this.sink = sink;
+    }
+
+    /**
+     * Reads the whole array from {@code body} with {@code mapper} (which picks the
+     * format), blocking the calling thread while waiting for bytes. Must therefore
+     * be called from a worker thread.
+     *
+     * @return the number of elements decoded
+     */
+    int readAll(ObjectMapper mapper, InputStream body) throws IOException {
+        return readAll(mapper, body, null, 0);
+    }
+
+    /**
+     * As above, additionally appending the elements to {@code retain} (if not null), for
+     * callers that keep the decoded list, such as the HTTP cache. Only lists of up to
+     * {@code retainLimit} elements are kept: beyond that {@code retain} is emptied and the
+     * rest streams through as usual, so {@code retain.size()} equals the returned count
+     * only if the whole list was kept.
+     */
+    int readAll(ObjectMapper mapper, InputStream body, List<? super T> retain, int retainLimit) throws IOException {
+        int total = 0;
+        ObjectReader elementReader = mapper.readerFor(elementType);
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == null || first == JsonToken.VALUE_NULL) {
+                return 0; // empty body or literal null - treat as an empty list
+            }
+            if (first != JsonToken.START_ARRAY) {
+                throw new IOException("Expected an array but found " + first);
+            }
+
+            int batchSize = FIRST_BATCH_SIZE;
+            List<T> batch = new ArrayList<>(batchSize);
+            long batchStarted = System.nanoTime();
+
+            while (!cancelled && parser.nextToken() != JsonToken.END_ARRAY) {
+                T element = elementReader.readValue(parser);
+                batch.add(element);
+                total++;
+                if (retain != null && total > retainLimit) {
+                    retain.clear(); // too long to keep; holding it would defeat the streaming
+                    retain = null;
+                }
+                if (retain != null) retain.add(element);
+                if (batch.size() >= batchSize || System.nanoTime() - batchStarted > MAX_BATCH_DELAY_NANOS) {
+                    deliver(batch);
+                    batchSize = Math.min(batchSize * 2, MAX_BATCH_SIZE);
+                    batch = new ArrayList<>(batchSize);
+                    batchStarted = System.nanoTime();
+                }
+            }
+            if (cancelled) {
+                throw new CancellationException(); // a partial list must not look complete
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Hands an already decoded list to the consumer in batches of the same
+     * maximum size, as if it had just been streamed.
+     *
+     * @return the number of elements delivered
+     */
+    int deliverAll(List<T> elements) {
+        for (int from = 0; from < elements.size() && !cancelled; from += MAX_BATCH_SIZE) {
+            deliver(elements.subList(from, Math.min(elements.size(), from + MAX_BATCH_SIZE)));
+        }
+        return elements.size();
+    }
+
+    /**
+     * Stops reading at the next element and drops batches that have not reached
+     * the consumer yet. Safe to call from any thread.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    private void deliver(List<T> batch) {
+        deliverOn.execute(() -> {
+            if (!cancelled) sink.accept(batch);
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.secondserve.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Builds JSON Merge Patch documents (RFC 7396): only the properties that differ
+ * between the loaded and the edited object, {@code null} for properties that were
+ * cleared. Nested objects are diffed recursively; arrays are replaced whole, as
+ * the RFC requires.
+ */
+final class MergePatch {
+
+    static final String CONTENT_TYPE = "application/merge-patch+json";
+
+    private MergePatch() {
+    }
+
+    /** The patch that turns {@code before} into {@code after}; empty if nothing changed. */
+    static ObjectNode diff(ObjectMapper mapper, Object before, Object after) {
+        return diff(mapper, (ObjectNode) mapper.valueToTree(before), (ObjectNode) mapper.valueToTree(after));
+    }
+
+    private static ObjectNode diff(ObjectMapper mapper, ObjectNode before, ObjectNode after) {
+        ObjectNode patch = mapper.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> changed = after.fields();
+        while (changed.hasNext()) {
+            Map.Entry<String, JsonNode> field = changed.next();
+            JsonNode old = before.get(field.getKey());
+            JsonNode now = field.getValue();
+            if (now.equals(old)) continue;
+            if (old != null && old.isObject() && now.isObject()) {
+                patch.set(field.getKey(), diff(mapper, (ObjectNode) old, (ObjectNode) now));
+            } else {
+                patch.set(field.getKey(), now);
+            }
+        }
+        Iterator<String> names = before.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (!after.has(name)) patch.putNull(name); // cleared in the edit
+        }
+        return patch;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.secondserve.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Calls waiting for a permit, served highest {@link RequestPriority} first and FIFO
+ * within a class. A call that has waited longer than {@value #MAX_WAIT_MILLIS} ms
+ * goes next whatever its class, so a steady stream of clicks cannot starve the
+ * refreshes for good; such promotions count as {@code "queue promoted <class>"}.
+ * Not thread-safe: guarded by the owning {@link Bulkhead} or {@link RequestScheduler}.
+ */
+final class PriorityWaitQueue {
+
+    static final long MAX_WAIT_MILLIS = 2_000;
+
+    static final class Waiter {
+        final RequestPriority priority;
+        final long enqueued = System.nanoTime();
+        final CompletableFuture<Void> permit = new CompletableFuture<>();
+
+        Waiter(RequestPriority priority) {
+            this.priority = priority;
+        }
+    }
+
+    private final ApiMetrics metrics;
+    private final Map<RequestPriority, Deque<Waiter>> waiting = new EnumMap<>(RequestPriority.class);
+    private int size;
+
+    PriorityWaitQueue(ApiMetrics metrics) {
+        this.metrics = metrics;
+        for (RequestPriority priority : RequestPriority.values()) {
+            waiting.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    Waiter add(RequestPriority priority) {
+        Waiter waiter = new Waiter(priority);
+        waiting.get(priority).addLast(waiter);
+        size++;
+        return waiter;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** True if a call of {@code priority} or a more urgent class is already waiting. */
+    boolean hasWaitingAtOrAbove(RequestPriority priority) {
+        for (Map.Entry<RequestPriority, Deque<Waiter>> queue : waiting.entrySet()) {
+            if (queue.getKey().compareTo(priority) > 0) break;
+            if (!queue.getValue().isEmpty()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the call to serve next: the longest-waiting starved one, else the head of
+     * the most urgent class {@code mayStart} accepts; null if none may start.
+     */
+    Waiter poll(Predicate<RequestPriority> mayStart) {
+        Waiter oldest = null;
+        for (Deque<Waiter> queue : waiting.values()) {
+            Waiter head = queue.peekFirst();
+            if (head != null && (oldest == null || head.enqueued < oldest.enqueued)) oldest = head;
+        }
+        if (oldest != null && System.nanoTime() - oldest.enqueued > TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS)) {
+            metrics.increment("queue promoted " + oldest.priority.label());
+            return remove(oldest.priority);
+        }
+        for (Map.Entry<RequestPriority, Deque<Waiter>> queue : waiting.entrySet()) {
+            if (!queue.getValue().isEmpty() && mayStart.test(queue.getKey())) {
+                return remove(queue.getKey());
+            }
+        }
+        return null;
+    }
+
+    private Waiter remove(RequestPriority priority) {
+        size--;
+        return waiting.get(priority).pollFirst();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.secondserve.api;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldsets: a view declares the fields it needs as a small projection DTO
+ * (e.g. HotelCardDto), and the request asks the server for exactly those with
+ * {@code ?fields=id,hotelName,city,state}. The list is read from the projection's
+ * Jackson properties, so renamed properties (@JsonProperty) use their wire names
+ * and adding a field to the class is all it takes to receive it.
+ */
+final class Projections {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, String> fieldLists = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Function<?, Long>> ids = new ConcurrentHashMap<>();
+
+    Projections(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /** {@code path} with a {@code fields} parameter naming the properties of {@code projection}. */
+    String withFields(String path, Class<?> projection) {
+        return path + (path.contains("?") ? "&" : "?") + "fields=" + fieldsOf(projection);
+    }
+
+    /** Reads the {@code id} property of a projection, e.g. to remember which shard listed a hotel. */
+    @SuppressWarnings("unchecked")
+    <T> Function<T, Long> idOf(Class<T> projection) {
+        return (Function<T, Long>) ids.computeIfAbsent(projection, type -> {
+            AnnotatedMember accessor = objectMapper.getSerializationConfig()
+                    .introspect(objectMapper.constructType(type)).findProperties().stream()
+                    .filter(property -> property.getName().equals("id") && property.hasGetter())
+                    .map(BeanPropertyDefinition::getAccessor)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(type.getSimpleName() + " has no id property"));
+            return item -> ((Number) accessor.getValue(item)).longValue();
+        });
+    }
+
+    String fieldsOf(Class<?> projection) {
+        return fieldLists.computeIfAbsent(projection, type -> {
+            BeanDescription description = objectMapper.getDeserializationConfig()
+                    .introspect(objectMapper.constructType(type));
+            return description.findProperties().stream()
+                    .filter(BeanPropertyDefinition::couldDeserialize)
+                    .map(BeanPropertyDefinition::getName)
+                    .collect(Collectors.joining(","));
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.SessionManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * One long-lived Server-Sent Events subscription per session on {@code GET /api/events}.
+ * <p>
+ * The server pushes small events instead of every terminal polling for full lists:
+ * <ul>
+ *   <li>{@code food-item.pending}  - a FoodItemDto was logged and awaits approval</li>
+ *   <li>{@code food-item.resolved} - a FoodItemDto was approved or rejected</li>
+ *   <li>{@code food-request.created} - a FoodRequestDto was created</li>
+ *   <li>{@code food-request.status}  - a FoodRequestDto changed status</li>
+ *   <li>{@code dashboard.stats}    - fresh DashboardStatsDto for the hotel</li>
+ * </ul>
+ * Views subscribe per event type and receive decoded payloads on the executor
+ * they choose. The channel reconnects with jittered backoff and resumes from the
+ * last seen event id; while it is down {@link #isConnected()} is false so views
+ * can fall back to polling.
+ */
+public final class PushChannel {
+
+    private static final long MIN_RECONNECT_MILLIS = 1_000;
+    private static final long MAX_RECONNECT_MILLIS = 30_000;
+
+    private final ApiConfig config;
+    private final Supplier<ReplicaPool> replicas; // those of the account's region, looked up on every connect
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService reader = Executors.newSingleThreadExecutor(ApiClient.daemonThreads("api-push-"));
+    private final ScheduledExecutorService reconnectTimer =
+            Executors.newSingleThreadScheduledExecutor(ApiClient.daemonThreads("api-push-retry-"));
+    private final Map<String, List<Listener<?>>> listeners = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Stream<String> openStream;
+    private volatile String lastEventId;
+    private int consecutiveFailures;
+    private int generation; // bumped by start/stop so callbacks from an older connection are ignored
+
+    PushChannel(ApiConfig config, Supplier<ReplicaPool> replicas, HttpClient httpClient, ObjectMapper objectMapper) {
+        this.config = config;
+        this.replicas = replicas;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+    }
+
+    /** A handle that stops delivery to one listener. */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Registers a handler for one event type. The payload is decoded off the FX
+     * thread and {@code handler} runs on {@code deliverOn}.
+     */
+    public <T> Subscription subscribe(String eventType, Class<T> payloadType, Executor deliverOn, Consumer<T> handler) {
+        Listener<T> listener = new Listener<>(payloadType, deliverOn, handler);
+        List<Listener<?>> forType = listeners.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>());
+        forType.add(listener);
+        return () -> forType.remove(listener);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /** Opens the stream if it is not already open. Called when a session starts. */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        consecutiveFailures = 0;
+        lastEventId = null;
+        connect(++generation);
+    }
+
+    /** Closes the stream and drops every listener. Called when the session ends. */
+    public synchronized void stop() {
+        running = false;
+        connected = false;
+        generation++;
+        Stream<String> stream = openStream;
+        if (stream != null) {
+            stream.close(); // cancels the underlying HTTP exchange
+        }
+        listeners.clear();
+    }
+
+    private synchronized void connect(int expectedGeneration) {
+        String authToken = SessionManager.getAuthToken();
+        if (!running || expectedGeneration != generation || authToken == null) return;
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(replicas.get().streamBaseUrl() + "/api/events")) // a reconnect may land on another node
+                .timeout(config.getRequestTimeout()) // bounds the wait for headers only
+                .header("Accept", "text/event-stream")
+                .header("Authorization", authToken)
+                .GET();
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+
+        httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofLines())
+                .thenAcceptAsync(this::readEvents, reader)
+                .whenComplete((ignored, error) -> onDisconnected(expectedGeneration, error));
+    }
+
+    private void readEvents(HttpResponse<Stream<String>> response) {
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new ApiException(response.statusCode(), null);
+        }
+        openStream = response.body();
+        connected = true;
+        synchronized (this) {
+            consecutiveFailures = 0;
+        }
+
+        EventParser parser = new EventParser();
+        try (Stream<String> lines = response.body()) {
+            lines.forEach(parser::accept); // blocks until the server or stop() closes the stream
+        }
+    }
+
+    private void onDisconnected(int expectedGeneration, Throwable error) {
+        synchronized (this) {
+            if (!running || expectedGeneration != generation) return;
+            connected = false;
+            openStream = null;
+            consecutiveFailures++;
+            long backoff = Math.min(MAX_RECONNECT_MILLIS, MIN_RECONNECT_MILLIS << Math.min(consecutiveFailures - 1, 5));
+            long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            if (error != null) {
+                System.err.println("Push channel lost (" + ApiException.rootCause(error).getMessage() + "), reconnecting in " + delay + " ms");
+            }
+            reconnectTimer.schedule(() -> connect(expectedGeneration), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void dispatch(String eventType, String data) {
+        List<Listener<?>> forType = listeners.get(eventType);
+        if (forType == null || forType.isEmpty()) return;
+        for (Listener<?> listener : forType) {
+            try {
+                listener.deliver(objectMapper, data);
+            } catch (IOException e) {
+                System.err.println("Could not decode '" + eventType + "' event: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Incremental parser for the text/event-stream line format. */
+    private final class EventParser {
+        private String eventType = "message";
+        private final StringBuilder data = new StringBuilder();
+
+        void accept(String line) {
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    dispatch(eventType, data.toString());
+                }
+                eventType = "message";
+                data.setLength(0);
+            } else if (line.startsWith(":")) {
+                // comment / keep-alive
+            } else if (line.startsWith("event:")) {
+                eventType = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) data.append('\n');
+                data.append(line.substring(5).stripLeading());
+            } else if (line.startsWith("id:")) {
+                lastEventId = line.substring(3).trim();
+            }
+        }
+    }
+
+    private static final class Listener<T> {
+        private final Class<T> payloadType;
+        private final Executor deliverOn;
+        private final Consumer<T> handler;
+
+        Listener(Class<T> payloadType, Executor deliverOn, Consumer<T> handler) {
+            this.payloadType = payloadType;
+            this.deliverOn = deliverOn;
+            this.handler = handler;
+        }
+
+        void deliver(ObjectMapper objectMapper, String data) throws IOException {
+            T payload = objectMapper.readValue(data, payloadType);
+            deliverOn.execute(() -> handler.accept(payload));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.secondserve.api;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Sends each call to the regional backend (shard) that owns its data; every
+ * region has its own {@link ReplicaPool}.
+ * <p>
+ * Calls scoped to a hotel ({@code /api/hotels/{id}}, {@code /api/food-items/hotel/{id}/...},
+ * {@code /api/food-requests/hotel/{id}}) go to the region the hotel was listed by
+ * (see {@link #learnHotel}); registrations go to the region of the DTO's state.
+ * Everything else, and any hotel not seen yet, goes to the region of the logged-in
+ * account (see {@link #useAccountRegion}): the terminal's home region until a login
+ * or registration was answered by another region. States map to regions
+ * through the explicit region table ({@code secondserve.api.regionTable}) and,
+ * for states not in it, a consistent-hash ring, so adding a region moves only
+ * about 1/n of the unlisted states. With a single region all of this is a no-op.
+ */
+final class RegionRouter {
+
+    private static final int VIRTUAL_NODES = 64;
+    private static final Pattern HOTEL_SCOPED =
+            Pattern.compile("^/api/(?:hotels|food-items/hotel|food-requests/hotel)/(\\d+)(?:/.*)?$");
+
+    private final Map<String, ReplicaPool> pools = new LinkedHashMap<>();
+    private final Map<String, String> baseUrls = new LinkedHashMap<>(); // region -> URL requests are built against
+    private final String homeRegion;
+    private final Map<String, String> regionTable = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final SortedMap<Long, String> ring = new TreeMap<>();
+    private final Map<Long, String> hotelRegions = new ConcurrentHashMap<>();
+    private volatile String accountRegion; // holds the logged-in organisation's own data
+
+    RegionRouter(ApiConfig config, HttpClient httpClient, ApiMetrics metrics, Duration probeTimeout) {
+        for (Map.Entry<String, List<String>> region : config.getRegions().entrySet()) {
+            pools.put(region.getKey(), new ReplicaPool(region.getValue(), httpClient, metrics, probeTimeout));
+            baseUrls.put(region.getKey(), region.getValue().get(0));
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(region.getKey() + "#" + i), region.getKey());
+            }
+        }
+        this.homeRegion = config.getHomeRegion();
+        this.accountRegion = homeRegion;
+        this.regionTable.putAll(config.getRegionTable());
+    }
+
+    Set<String> regions() {
+        return pools.keySet();
+    }
+
+    String homeRegion() {
+        return homeRegion;
+    }
+
+    String baseUrl(String region) {
+        return baseUrls.get(region);
+    }
+
+    /** The region that should answer {@code path}. */
+    String regionFor(String path) {
+        if (pools.size() == 1) return homeRegion;
+        Matcher hotel = HOTEL_SCOPED.matcher(path);
+        if (hotel.matches()) {
+            return hotelRegions.getOrDefault(Long.parseLong(hotel.group(1)), accountRegion);
+        }
+        return accountRegion;
+    }
+
+    /** The region owning organisations in {@code state}: the region table, else the hash ring. */
+    String regionForState(String state) {
+        if (pools.size() == 1 || state == null || state.isBlank()) return homeRegion;
+        String listed = regionTable.get(state.trim());
+        if (listed != null && pools.containsKey(listed)) return listed;
+        Long point = hash(state.trim().toLowerCase(Locale.ROOT));
+        SortedMap<Long, String> tail = ring.tailMap(point);
+        return tail.isEmpty() ? ring.get(ring.firstKey()) : tail.get(tail.firstKey());
+    }
+
+    /** Remembers that {@code region}'s shard holds hotel {@code hotelId}. */
+    void learnHotel(long hotelId, String region) {
+        if (pools.size() > 1) hotelRegions.put(hotelId, region);
+    }
+
+    /** Sends the account's own calls to {@code region}, whose shard answered its login or registration. */
+    void useAccountRegion(String region) {
+        if (pools.containsKey(region)) accountRegion = region;
+    }
+
+    String accountRegion() {
+        return accountRegion;
+    }
+
+    /** The replica pool of the region {@code request} was built for. */
+    ReplicaPool poolFor(HttpRequest request) {
+        String uri = request.uri().toString();
+        for (Map.Entry<String, String> region : baseUrls.entrySet()) {
+            if (uri.startsWith(region.getValue() + "/")) return pools.get(region.getKey());
+        }
+        return pools.get(homeRegion); // e.g. a probe or an absolute URL from elsewhere
+    }
+
+    ReplicaPool accountPool() {
+        return pools.get(accountRegion);
+    }
+
+    // CRC32 of look-alike keys ("dhaka#0", "dhaka#1", ...) clusters on the ring, leaving one region
+    // with three times another's share; the 64-bit finaliser from MurmurHash3 spreads them out
+    private static long hash(String key) {
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        long h = crc.getValue();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.secondserve.api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The backend nodes this terminal may talk to, e.g.
+ * {@code -Dsecondserve.api.url=http://node1:8080,http://node2:8080}.
+ * <p>
+ * Each exchange goes to the admitted replica with the fewest requests outstanding
+ * (ties broken at random), so a slow node automatically gets less traffic. A replica
+ * is ejected after {@value #EJECT_AFTER_FAILURES} failures in a row, counting both
+ * real traffic (connection errors, timeouts, 502/503/504) and the health probe
+ * ({@code GET} {@value #HEALTH_PATH}) sent to every replica every few seconds. An
+ * ejected replica is readmitted after {@value #READMIT_AFTER_PROBES} healthy probes
+ * in a row. If every replica is ejected, traffic is spread over all of them rather
+ * than failing without trying.
+ * <p>
+ * Requests are built against the first URL, so cache and single-flight keys do not
+ * depend on the replica; {@link #route} points them at the chosen one just before
+ * sending. With a single URL there is nothing to balance and no probing is done.
+ */
+final class ReplicaPool {
+
+    static final String HEALTH_PATH = "/api/health";
+    private static final int EJECT_AFTER_FAILURES = 3;
+    private static final int READMIT_AFTER_PROBES = 2;
+    private static final Duration PROBE_INTERVAL = Duration.ofSeconds(5);
+
+    /** One backend node; the counters are guarded by the pool. */
+    static final class Replica {
+        final String baseUrl;
+        final AtomicInteger outstanding = new AtomicInteger();
+        boolean admitted = true;
+        int failures;
+        int healthyProbes;
+
+        Replica(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final HttpClient httpClient;
+    private final ApiMetrics metrics;
+    private final Duration probeTimeout;
+
+    ReplicaPool(List<String> baseUrls, HttpClient httpClient, ApiMetrics metrics, Duration probeTimeout) {
+        this(baseUrls, httpClient, metrics, probeTimeout, PROBE_INTERVAL);
+    }
+
+    /** As above with the time between health probes given, so tests can probe by hand. */
+    ReplicaPool(List<String> baseUrls, HttpClient httpClient, ApiMetrics metrics, Duration probeTimeout, Duration probeInterval) {
+        for (String baseUrl : baseUrls) {
+            replicas.add(new Replica(baseUrl));
+        }
+        this.httpClient = httpClient;
+        this.metrics = metrics;
+        this.probeTimeout = probeTimeout;
+        if (replicas.size() > 1) {
+            ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(ApiClient.daemonThreads("api-probe-"));
+            long millis = probeInterval.toMillis();
+            prober.scheduleWithFixedDelay(this::probeAll, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    int size() {
+        return replicas.size();
+    }
+
+    /** Whether the replica at {@code baseUrl} currently takes traffic. */
+    synchronized boolean isAdmitted(String baseUrl) {
+        for (Replica replica : replicas) {
+            if (replica.baseUrl.equals(baseUrl)) return replica.admitted;
+        }
+        throw new IllegalArgumentException("Unknown replica " + baseUrl);
+    }
+
+    /**
+     * Picks the replica for the next exchange, other than {@code avoid} if another one is
+     * admitted (a hedge should not queue behind the copy it is racing). The caller must
+     * report the outcome with {@link #release}.
+     */
+    synchronized Replica acquire(Replica avoid) {
+        List<Replica> candidates = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.admitted && replica != avoid) candidates.add(replica);
+        }
+        if (candidates.isEmpty() && avoid != null && avoid.admitted) {
+            candidates.add(avoid);
+        }
+        if (candidates.isEmpty()) {
+            candidates.addAll(replicas); // all ejected: better to try than to fail without asking
+        }
+        int fewest = Integer.MAX_VALUE;
+        List<Replica> least = new ArrayList<>();
+        for (Replica replica : candidates) {
+            int outstanding = replica.outstanding.get();
+            if (outstanding < fewest) {
+                fewest = outstanding;
+                least.clear();
+            }
+            if (outstanding == fewest) least.add(replica);
+        }
+        Replica chosen = least.get(ThreadLocalRandom.current().nextInt(least.size()));
+        chosen.outstanding.incrementAndGet();
+        if (replicas.size() > 1) metrics.increment("replica requests " + chosen.baseUrl);
+        return chosen;
+    }
+
+    /** Ends an exchange started with {@link #acquire}; {@code failed} means the replica itself looked unhealthy. */
+    void release(Replica replica, boolean failed) {
+        replica.outstanding.decrementAndGet();
+        if (failed) onFailure(replica);
+        else onSuccess(replica);
+    }
+
+    /** The request as it must be sent to {@code replica}. */
+    HttpRequest route(HttpRequest request, Replica replica) {
+        if (replica == replicas.get(0)) {
+            return request; // requests are built against the first replica
+        }
+        URI uri = request.uri();
+        String target = replica.baseUrl + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+        return HttpRequest.newBuilder(request, (name, value) -> true).uri(URI.create(target)).build();
+    }
+
+    /** Base URL for a long-lived connection such as the push channel: the least busy admitted replica. */
+    String streamBaseUrl() {
+        Replica replica = acquire(null);
+        replica.outstanding.decrementAndGet(); // not counted as an outstanding request
+        return replica.baseUrl;
+    }
+
+    private synchronized void onSuccess(Replica replica) {
+        replica.failures = 0;
+    }
+
+    private synchronized void onFailure(Replica replica) {
+        replica.failures++;
+        replica.healthyProbes = 0;
+        if (replica.admitted && replica.failures >= EJECT_AFTER_FAILURES && replicas.size() > 1) {
+            replica.admitted = false;
+            metrics.increment("replica ejected " + replica.baseUrl);
+            System.err.println("Replica " + replica.baseUrl + " ejected after " + replica.failures + " failure(s)");
+        }
+    }
+
+    private synchronized void onHealthyProbe(Replica replica) {
+        replica.failures = 0;
+        replica.healthyProbes++;
+        if (!replica.admitted && replica.healthyProbes >= READMIT_AFTER_PROBES) {
+            replica.admitted = true;
+            metrics.increment("replica readmitted " + replica.baseUrl);
+            System.out.println("Replica " + replica.baseUrl + " readmitted");
+        }
+    }
+
+    /** Sends one health probe to every replica; completes once all of them are answered and counted. */
+    CompletableFuture<Void> probeAll() {
+        List<CompletableFuture<?>> probes = new ArrayList<>();
+        for (Replica replica : replicas) {
+            HttpRequest probe = HttpRequest.newBuilder()
+                    .uri(URI.create(replica.baseUrl + HEALTH_PATH))
+                    .timeout(probeTimeout)
+                    .GET()
+                    .build();
+            probes.add(httpClient.sendAsync(probe, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (error == null && response.statusCode() >= 200 && response.statusCode() < 300) onHealthyProbe(replica);
+                        else onFailure(replica);
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(probes.toArray(new CompletableFuture<?>[0]));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.secondserve.api;
+
+import java.util.function.Supplier;
+
+/**
+ * How urgently a call is needed, highest first; see {@link RequestScheduler}.
+ * <p>
+ * Calls default to {@link #INTERACTIVE_WRITE} for writes and {@link #INTERACTIVE_READ}
+ * for GETs. Work nobody is waiting for is started inside
+ * {@link ApiClient#withPriority}, e.g. the periodic refreshes of the RefreshScheduler.
+ */
+public enum RequestPriority {
+    /** A write the user just asked for: saving, approving, logging food. */
+    INTERACTIVE_WRITE,
+    /** A read for something the user is looking at right now. */
+    INTERACTIVE_READ,
+    /** Data the user will probably want next. */
+    PREFETCH,
+    /** Periodic refreshes of views that push events already keep mostly current. */
+    BACKGROUND;
+
+    // Set only while ApiClient#withPriority runs its calls. Follow-up calls sent later from a callback
+    // (a fallback after a 404, say) run on another thread: capture current() and pass it to during()
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    boolean isInteractive() {
+        return this == INTERACTIVE_WRITE || this == INTERACTIVE_READ;
+    }
+
+    /** "background" for BACKGROUND, as used in metric keys. */
+    String label() {
+        return name().toLowerCase().replace('_', ' ');
+    }
+
+    /** {@code readOnly} for GETs and for POSTs that only read, like a batch of GETs. */
+    static RequestPriority of(boolean readOnly) {
+        RequestPriority current = CURRENT.get();
+        if (current != null) return current;
+        return readOnly ? INTERACTIVE_READ : INTERACTIVE_WRITE;
+    }
+
+    /** The priority set by an enclosing {@link ApiClient#withPriority}, or null for the default. */
+    static RequestPriority current() {
+        return CURRENT.get();
+    }
+
+    /** Runs {@code calls} at {@code priority}; null means the default for each call's method. */
+    static <T> T during(RequestPriority priority, Supplier<T> calls) {
+        RequestPriority outer = CURRENT.get();
+        if (priority == null) CURRENT.remove(); else CURRENT.set(priority);
+        try {
+            return calls.get();
+        } finally {
+            if (outer == null) CURRENT.remove(); else CURRENT.set(outer);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.secondserve.api;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking limit on the exchanges in flight across all endpoints, handing free
+ * slots out by {@link RequestPriority} rather than in arrival order, so a click
+ * does not wait behind a burst of refresh traffic.
+ * <p>
+ * At most {@value #MAX_IN_FLIGHT} exchanges run at once. Prefetches and background
+ * refreshes only start while fewer than {@value #MAX_NON_INTERACTIVE_IN_FLIGHT} are
+ * running, which keeps slots free for the user. A running exchange is never
+ * interrupted; waiting calls are served as described in {@link PriorityWaitQueue},
+ * which includes the starvation guard.
+ */
+final class RequestScheduler {
+
+    private static final int MAX_IN_FLIGHT = 8;
+    private static final int MAX_NON_INTERACTIVE_IN_FLIGHT = 4;
+
+    private final PriorityWaitQueue waiting; // guarded by "this"
+    private int inFlight; // guarded by "this"
+
+    RequestScheduler(ApiMetrics metrics) {
+        this.waiting = new PriorityWaitQueue(metrics);
+    }
+
+    /** Completes when the caller may start its exchange; it must call {@link #release()} exactly once afterwards. */
+    synchronized CompletableFuture<Void> acquire(RequestPriority priority) {
+        if (inFlight < limitOf(priority) && !waiting.hasWaitingAtOrAbove(priority)) {
+            inFlight++;
+            return CompletableFuture.completedFuture(null);
+        }
+        return waiting.add(priority).permit;
+    }
+
+    void release() {
+        PriorityWaitQueue.Waiter next;
+        synchronized (this) {
+            inFlight--;
+            next = waiting.poll(priority -> inFlight < limitOf(priority));
+            if (next != null) inFlight++;
+        }
+        // A permit whose caller was cancelled meanwhile is released again right away by the caller
+        if (next != null) next.permit.complete(null);
+    }
+
+    private static int limitOf(RequestPriority priority) {
+        return priority.isInteractive() ? MAX_IN_FLIGHT : MAX_NON_INTERACTIVE_IN_FLIGHT;
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.secondserve.api;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Wraps every ApiClient exchange with the resilience rules for its endpoint family
+ * ({@code /api/hotels}, {@code /api/food-items}, {@code /api/food-requests}, everything else):
+ * <ul>
+ *   <li>a bulkhead limiting concurrent calls per family</li>
+ *   <li>a {@link RequestScheduler} limiting the calls in flight overall, which starts
+ *       waiting calls by {@link RequestPriority}; the time a call waited for both is
+ *       recorded per class as {@code "queue <class>"}, e.g. {@code "queue background"}</li>
+ *   <li>a circuit breaker per family that fails fast while the backend is sick</li>
+ *   <li>for GETs and creates carrying an idempotency key, which are safe to repeat:
+ *       up to {@value #MAX_RETRIES} retries
+ *       of connection errors, timeouts and 502/503/504, with full-jitter
+ *       exponential backoff so terminals do not retry in lockstep</li>
+ *   <li>for keyed creates, a 409 that is not a replayed answer means the server is still
+ *       working on an earlier copy under the same key (e.g. the one that timed out); it is
+ *       asked again with the same backoff, up to {@value #MAX_IN_PROGRESS_POLLS} times,
+ *       until the first answer can be replayed</li>
+ * </ul>
+ * Each attempt is routed to a backend replica by the {@link ReplicaPool} of the
+ * request's region (see {@link RegionRouter}). Other writes are
+ * only repeated when the connection could not even be opened, so the server never
+ * saw them; with several replicas that moves them to a healthy node.
+ * A POST that only reads (a batch of GETs) is sent as read-only and treated like a GET
+ * in all of this.
+ * GETs sent with {@code hedge} may get a second copy to another replica when the
+ * first is unusually slow (see {@link Hedging}); the first usable answer wins and
+ * the other copy is cancelled. Both copies share the call's bulkhead permit and slot.
+ * Cancelling the returned future aborts the exchange, or any pending retry.
+ * The per-request timeout itself is set on every HttpRequest by ApiClient.
+ * Only the response headers are covered: a streamed body is read after the permit is released.
+ */
+final class ResilientTransport {
+
+    private static final int MAX_RETRIES = 2;
+    private static final int MAX_IN_PROGRESS_POLLS = 5;
+    /** Response header marking the stored answer to an idempotency key that was used before. */
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final long BASE_BACKOFF_MILLIS = 200;
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+    private static final int MAX_CONCURRENT_PER_FAMILY = 6;
+    private static final int MAX_QUEUED_PER_FAMILY = 100;
+
+    private final HttpClient httpClient;
+    private final Executor executor;
+    private final ApiMetrics metrics;
+    private final RegionRouter regions;
+    private final Hedging hedging;
+    private final RequestScheduler scheduler;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    ResilientTransport(HttpClient httpClient, Executor executor, ApiMetrics metrics, RegionRouter regions, Hedging hedging) {
+        this.httpClient = httpClient;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.regions = regions;
+        this.hedging = hedging;
+        this.scheduler = new RequestScheduler(metrics);
+    }
+
+    <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        return send(request, bodyHandler, false);
+    }
+
+    /**
+     * As above; {@code hedge} opts an idempotent GET into hedging. The call's priority
+     * is taken now, from {@link ApiClient#withPriority} or the method, and kept for retries.
+     */
+    <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, boolean hedge) {
+        return send(request, bodyHandler, hedge, "GET".equals(request.method()));
+    }
+
+    /**
+     * As above, for a request that only reads whatever its method (e.g. {@code POST /api/batch}
+     * of GETs): with {@code readOnly} it is retried, hedged and prioritised like a GET.
+     */
+    <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                boolean hedge, boolean readOnly) {
+        String family = familyOf(request);
+        RequestPriority priority = RequestPriority.of(readOnly);
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        attempt(request, bodyHandler, family, priority, 0, 0, hedge && readOnly, readOnly, result);
+        return result;
+    }
+
+    CircuitBreaker.State circuitState(String family) {
+        return breaker(family).getState();
+    }
+
+    private <T> void attempt(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, String family,
+                             RequestPriority priority, int retry, int polls, boolean hedge, boolean readOnly,
+                             CompletableFuture<HttpResponse<T>> result) {
+        if (result.isDone()) return; // cancelled while waiting to retry
+
+        CircuitBreaker breaker = breaker(family);
+        if (!breaker.tryAcquire()) {
+            result.completeExceptionally(new ServiceUnavailableException(
+                    "The server is not responding to " + family + " requests; not retrying for a few seconds"));
+            return;
+        }
+
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(family, name -> new Bulkhead(name, MAX_CONCURRENT_PER_FAMILY, MAX_QUEUED_PER_FAMILY, metrics));
+        long queued = System.nanoTime();
+        admit(bulkhead, priority)
+                .thenCompose(admitted -> {
+                    metrics.record("queue " + priority.label(), System.nanoTime() - queued);
+                    if (result.isDone()) {
+                        scheduler.release();
+                        bulkhead.release(); // cancelled while queued; never hit the network
+                        return CompletableFuture.<HttpResponse<T>>failedFuture(new CancellationException());
+                    }
+                    CompletableFuture<HttpResponse<T>> exchange = exchange(request, bodyHandler, hedge);
+                    // Cancelling the caller's future aborts the exchange itself
+                    result.whenComplete((response, error) -> {
+                        if (result.isCancelled()) exchange.cancel(true);
+                    });
+                    return exchange.whenComplete((response, error) -> {
+                        scheduler.release();
+                        bulkhead.release();
+                    });
+                })
+                .whenComplete((response, error) -> {
+                    Throwable cause = error == null ? null : ApiException.rootCause(error);
+                    if (cause instanceof ServiceUnavailableException || result.isCancelled()) {
+                        breaker.onAbandoned(); // rejected by the bulkhead or cancelled; says nothing about the server
+                        if (cause == null) discard(response);
+                        result.completeExceptionally(cause != null ? cause : new CancellationException());
+                        return;
+                    }
+
+                    boolean failed = cause != null || isServerFailure(response.statusCode());
+                    if (failed) breaker.onFailure(); else breaker.onSuccess();
+
+                    if (failed && retry < MAX_RETRIES && isRetryable(request, readOnly, response, cause)) {
+                        discard(response);
+                        long delay = backoffMillis(retry);
+                        metrics.record("retry " + ApiClient.endpointKey(request), TimeUnit.MILLISECONDS.toNanos(delay));
+                        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor)
+                                .execute(() -> attempt(request, bodyHandler, family, priority, retry + 1, polls, hedge, readOnly, result));
+                    } else if (!failed && polls < MAX_IN_PROGRESS_POLLS && isStillProcessing(request, response)) {
+                        discard(response);
+                        long delay = backoffMillis(polls);
+                        metrics.record("in progress " + ApiClient.endpointKey(request), TimeUnit.MILLISECONDS.toNanos(delay));
+                        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor)
+                                .execute(() -> attempt(request, bodyHandler, family, priority, retry, polls + 1, hedge, readOnly, result));
+                    } else if (cause != null) {
+                        result.completeExceptionally(cause);
+                    } else {
+                        result.complete(response);
+                    }
+                });
+    }
+
+    // One attempt: a single exchange, or a hedged pair of them. Caller-seen latency goes to "latency <endpoint>".
+    private <T> CompletableFuture<HttpResponse<T>> exchange(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, boolean hedge) {
+        String endpoint = ApiClient.endpointKey(request);
+        long start = System.nanoTime();
+        ReplicaPool replicas = regions.poolFor(request); // the replicas of the request's region
+        ReplicaPool.Replica primary = replicas.acquire(null);
+        CompletableFuture<HttpResponse<T>> first = sendTo(request, bodyHandler, replicas, primary);
+        long delay = hedge ? hedging.delayNanos(endpoint) : -1;
+        HedgedExchange<T> hedged = delay < 0 ? null : new HedgedExchange<>(endpoint);
+        if (hedge) {
+            // The hedge delay learns from the first copy only, never from the (shorter) time a winning hedge gave
+            first.whenComplete((response, error) -> {
+                boolean cutShort = error != null && hedged != null && hedged.hedgeWon();
+                if (error == null || cutShort) hedging.record(endpoint, System.nanoTime() - start);
+            });
+        }
+        CompletableFuture<HttpResponse<T>> exchange;
+        if (hedged == null) {
+            exchange = first;
+        } else {
+            hedged.add(first, false);
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, executor)
+                    .execute(() -> hedged.launchHedge(() -> sendTo(request, bodyHandler, replicas, replicas.acquire(primary))));
+            exchange = hedged.result;
+        }
+        exchange.whenComplete((response, error) -> {
+            if (error != null) return;
+            metrics.record("latency " + endpoint, System.nanoTime() - start);
+        });
+        return exchange; // not the derived stage: cancelling must reach the exchange
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendTo(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                          ReplicaPool replicas, ReplicaPool.Replica replica) {
+        CompletableFuture<HttpResponse<T>> exchange = httpClient.sendAsync(replicas.route(request, replica), bodyHandler);
+        exchange.whenComplete((response, error) -> replicas.release(replica, isReplicaFailure(response, error)));
+        return exchange;
+    }
+
+    /** The copies of one hedged GET; {@link #result} gets the first usable answer. */
+    private final class HedgedExchange<T> {
+        final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        private final String endpoint;
+        private final List<CompletableFuture<HttpResponse<T>>> copies = new ArrayList<>(); // guarded by "this"
+        private int running; // guarded by "this"
+        private volatile boolean hedgeWon;
+
+        HedgedExchange(String endpoint) {
+            this.endpoint = endpoint;
+            // Cancelled by the caller, or decided: nothing still running is needed any more
+            result.whenComplete((response, error) -> {
+                List<CompletableFuture<HttpResponse<T>>> all;
+                synchronized (this) {
+                    all = new ArrayList<>(copies);
+                }
+                all.forEach(copy -> copy.cancel(true));
+            });
+        }
+
+        boolean hedgeWon() {
+            return hedgeWon;
+        }
+
+        void launchHedge(Supplier<CompletableFuture<HttpResponse<T>>> send) {
+            synchronized (this) {
+                if (result.isDone()) return; // answered in time
+            }
+            if (!hedging.tryAcquire()) {
+                metrics.increment("hedge over budget " + endpoint);
+                return;
+            }
+            metrics.increment("hedge sent " + endpoint);
+            add(send.get(), true);
+        }
+
+        void add(CompletableFuture<HttpResponse<T>> copy, boolean isHedge) {
+            synchronized (this) {
+                copies.add(copy);
+                running++;
+            }
+            if (result.isDone()) copy.cancel(true);
+            copy.whenComplete((response, error) -> settle(response, error, isHedge));
+        }
+
+        // A failed copy only decides the outcome if no other copy could still do better
+        private void settle(HttpResponse<T> response, Throwable error, boolean isHedge) {
+            boolean decisive;
+            synchronized (this) {
+                running--;
+                decisive = !isReplicaFailure(response, error) || running == 0;
+            }
+            if (decisive && isHedge && error == null) {
+                hedgeWon = true; // set first: completing the result cancels the first copy, which reads it
+            }
+            boolean won = decisive && (error != null ? result.completeExceptionally(error) : result.complete(response));
+            if (!won) {
+                discard(response);
+            } else if (isHedge && error == null) {
+                metrics.increment("hedge won " + endpoint);
+            }
+        }
+    }
+
+    /**
+     * Completes once the call holds both its family's permit and a scheduler slot. Interactive
+     * calls take the permit first, so calls stuck on one family cannot hold every slot. The others
+     * take the slot first: a background call waiting for a slot behind interactive work must not
+     * sit on one of its family's permits meanwhile, or interactive calls to that family wait for it.
+     */
+    private CompletableFuture<Void> admit(Bulkhead bulkhead, RequestPriority priority) {
+        if (priority.isInteractive()) {
+            return bulkhead.acquire(priority).thenCompose(permit -> scheduler.acquire(priority));
+        }
+        return scheduler.acquire(priority).thenCompose(slot -> bulkhead.acquire(priority)
+                .whenComplete((permit, error) -> {
+                    if (error != null) scheduler.release(); // rejected by the bulkhead
+                }));
+    }
+
+    private CircuitBreaker breaker(String family) {
+        return breakers.computeIfAbsent(family, CircuitBreaker::new);
+    }
+
+    // Idempotent reads and keyed creates are repeated automatically; other writes only if they never left this machine
+    private static boolean isRetryable(HttpRequest request, boolean readOnly, HttpResponse<?> response, Throwable cause) {
+        boolean idempotent = readOnly
+                || request.headers().firstValue(ApiClient.IDEMPOTENCY_KEY_HEADER).isPresent();
+        if (!idempotent) return neverSent(cause);
+        if (cause != null) return cause instanceof IOException; // connect failures and HttpTimeoutException
+        int status = response.statusCode();
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    // The first copy of a keyed create is still running on the server; a replayed 409 is a real conflict
+    private static boolean isStillProcessing(HttpRequest request, HttpResponse<?> response) {
+        return response.statusCode() == 409
+                && request.headers().firstValue(ApiClient.IDEMPOTENCY_KEY_HEADER).isPresent()
+                && response.headers().firstValue(REPLAYED_HEADER).isEmpty();
+    }
+
+    // Full jitter, so terminals do not retry in lockstep
+    private static long backoffMillis(int attempt) {
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+    private static boolean neverSent(Throwable cause) {
+        return cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException;
+    }
+
+    // Says something about the node rather than the request: unreachable, too slow, or its gateway gave up
+    private static boolean isReplicaFailure(HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            return ApiException.rootCause(error) instanceof IOException;
+        }
+        int status = response.statusCode();
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    private static boolean isServerFailure(int statusCode) {
+        return statusCode >= 500;
+    }
+
+    private static void discard(HttpResponse<?> response) {
+        if (response != null && response.body() instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) response.body()).close();
+            } catch (Exception ignored) {
+                // the body was going to be thrown away anyway
+            }
+        }
+    }
+
+    /** "/api/food-items" for "/api/food-items/hotel/3/pending"; "other" for auth, NGOs and so on. */
+    static String familyOf(HttpRequest request) {
+        String path = request.uri().getPath();
+        for (String family : new String[] {"/api/hotels", "/api/food-items", "/api/food-requests"}) {
+            if (path.equals(family) || path.startsWith(family + "/")) return family;
+        }
+        return "other";
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.secondserve.api;
+
+/**
+ * Raised without contacting the server when the client already knows the call
+ * cannot succeed right now: the endpoint family's circuit breaker is open, or
+ * its bulkhead queue is full. Like a connection failure it is not an
+ * {@link ApiException}, so views report it as "could not reach the server".
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.secondserve.api;
+
+import java.net.http.HttpRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Merges identical GETs that are in flight at the same time into one exchange.
+ * <p>
+ * The first caller for a URL (and login) starts the call; callers arriving before
+ * it completes wait for the same result, so the body is downloaded and decoded
+ * once and the decoded object is handed to all of them. Such results are shared
+ * and must be treated as read-only. Nothing is cached: a GET issued after the
+ * exchange completed starts a new one.
+ * <p>
+ * Each caller gets its own future. Cancelling it only drops that caller; the
+ * exchange itself is aborted once every caller has cancelled. Counters in
+ * {@link ApiMetrics}: {@code "single-flight hit <endpoint>"} per caller that joined
+ * a running exchange, {@code "single-flight merge <endpoint>"} per exchange that
+ * served more than one caller.
+ */
+final class SingleFlight {
+
+    private final ApiMetrics metrics;
+    private final Map<String, Flight> flights = new HashMap<>(); // guarded by "this"
+
+    SingleFlight(ApiMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> execute(HttpRequest request, Supplier<CompletableFuture<T>> call) {
+        String key = keyOf(request);
+        String endpoint = ApiClient.endpointKey(request);
+        Flight flight;
+        boolean leader;
+        synchronized (this) {
+            flight = flights.get(key);
+            leader = flight == null;
+            if (leader) {
+                flight = new Flight();
+                flights.put(key, flight);
+            }
+            flight.waiters++;
+            flight.callers++;
+        }
+
+        if (leader) {
+            start(key, endpoint, flight, call);
+        } else {
+            metrics.increment("single-flight hit " + endpoint);
+        }
+
+        Flight joined = flight;
+        CompletableFuture<T> waiter = new CompletableFuture<>();
+        joined.result.whenComplete((value, error) -> {
+            if (error != null) waiter.completeExceptionally(error);
+            else waiter.complete((T) value);
+        });
+        waiter.whenComplete((value, error) -> {
+            if (waiter.isCancelled()) leave(key, joined);
+        });
+        return waiter;
+    }
+
+    private <T> void start(String key, String endpoint, Flight flight, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> exchange = call.get();
+        synchronized (this) {
+            flight.exchange = exchange;
+            if (flight.waiters == 0) exchange.cancel(true); // every caller left before it even started
+        }
+        exchange.whenComplete((value, error) -> {
+            int callers;
+            synchronized (this) {
+                flights.remove(key, flight); // later GETs go to the server again
+                callers = flight.callers;
+            }
+            if (callers > 1) {
+                metrics.increment("single-flight merge " + endpoint);
+            }
+            if (error != null) flight.result.completeExceptionally(error);
+            else flight.result.complete(value);
+        });
+    }
+
+    private synchronized void leave(String key, Flight flight) {
+        flight.waiters--;
+        if (flight.waiters == 0 && !flight.result.isDone()) {
+            flights.remove(key, flight);
+            if (flight.exchange != null) flight.exchange.cancel(true);
+        }
+    }
+
+    // Different logins must never see each other's answers
+    private static String keyOf(HttpRequest request) {
+        return request.uri() + " " + request.headers().firstValue("Authorization").orElse("");
+    }
+
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        CompletableFuture<?> exchange;
+        int waiters; // callers still interested
+        int callers; // callers served in total
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.secondserve.api;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.net.http.HttpResponse;
+
+/**
+ * Chooses between JSON and CBOR (RFC 8949) for DTO payloads.
+ * <p>
+ * CBOR carries the same data model as JSON, so the same DTOs and Jackson
+ * configuration map both; it just skips text number/date parsing, which is what
+ * costs the low-power terminals most. Every request offers both formats in
+ * {@code Accept} with CBOR preferred, and each response is decoded according to
+ * its own {@code Content-Type}, so a server that only speaks JSON keeps working
+ * unchanged. Request bodies are only sent as CBOR once the server has answered in
+ * CBOR, i.e. proved that it understands it.
+ */
+final class WireFormat {
+
+    static final String JSON = "application/json";
+    static final String CBOR = "application/cbor";
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final boolean offerBinary;
+    private volatile boolean serverSpeaksBinary;
+
+    WireFormat(ObjectMapper jsonMapper, boolean offerBinary) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = new CBORMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.offerBinary = offerBinary;
+    }
+
+    /** The Accept header for API requests. */
+    String accept() {
+        return offerBinary ? CBOR + ", " + JSON + ";q=0.5" : JSON;
+    }
+
+    /** The mapper for a response body, by its Content-Type. */
+    ObjectMapper forResponse(HttpResponse<?> response) {
+        if (isBinary(response)) {
+            serverSpeaksBinary = true;
+            return cborMapper;
+        }
+        return jsonMapper;
+    }
+
+    static boolean isBinary(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type").orElse("").startsWith(CBOR);
+    }
+
+    /** The mapper for request bodies: CBOR once the server has shown it speaks it, JSON until then. */
+    ObjectMapper forRequest() {
+        return offerBinary && serverSpeaksBinary ? cborMapper : jsonMapper;
+    }
+
+    String contentType(ObjectMapper mapper) {
+        return mapper == cborMapper ? CBOR : JSON;
+    }
+
+    /** "cbor" or "json", for metric keys. */
+    String name(ObjectMapper mapper) {
+        return mapper == cborMapper ? "cbor" : "json";
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.secondserve.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, checksummed record log on local disk.
+ * <p>
+ * Each record is {@code [int length][byte type][long crc32][payload]}, where the
+ * checksum covers type and payload. Appends are written to the file immediately
+ * and fsync'ed in batches: the future returned by {@link #append} completes once
+ * a force() covering that record has finished, so many appends in a burst share
+ * one disk flush. On open, records are read back until the first torn or corrupt
+ * one, and the file is truncated there.
+ */
+final class WriteAheadJournal implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + 1 + Long.BYTES;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final long FSYNC_DELAY_MILLIS = 20;
+
+    /** A record read back from disk. */
+    static final class Record {
+        final byte type;
+        final byte[] payload;
+
+        Record(byte type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    private final FileChannel channel;
+    private final List<Record> recovered;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(ApiClient.daemonThreads("api-journal-"));
+    // Held around force(), truncate and close, but not by append: an fsync must not stall the FX thread
+    // that logs the next item. Taken before "this" when both are needed.
+    private final Object forceLock = new Object();
+
+    // --- Guarded by "this" ---
+    private List<CompletableFuture<Void>> awaitingFsync = new ArrayList<>();
+    private boolean flushScheduled;
+
+    WriteAheadJournal(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.recovered = recover();
+    }
+
+    /** The valid records that were on disk when the journal was opened, oldest first. */
+    List<Record> recovered() {
+        return recovered;
+    }
+
+    /** Appends one record; the future completes when it is durable. */
+    synchronized CompletableFuture<Void> append(byte type, byte[] payload) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length).put(type).putLong(checksum(type, payload)).put(payload).flip();
+        channel.position(channel.size());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        awaitingFsync.add(durable);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            flusher.schedule(this::flush, FSYNC_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return durable;
+    }
+
+    /** Drops every record. Only call when nothing in the journal is still needed. */
+    void truncate() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                channel.truncate(0);
+            }
+            channel.force(true);
+        }
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        flusher.shutdown();
+        synchronized (forceLock) {
+            synchronized (this) {
+                channel.close();
+            }
+        }
+    }
+
+    private void flush() {
+        List<CompletableFuture<Void>> batch;
+        synchronized (this) {
+            batch = awaitingFsync;
+            awaitingFsync = new ArrayList<>();
+            flushScheduled = false;
+            if (batch.isEmpty()) return;
+        }
+        // Records appended while this runs are forced too; their futures wait for the next flush
+        synchronized (forceLock) {
+            try {
+                if (!channel.isOpen()) return;
+                channel.force(false);
+            } catch (IOException e) {
+                batch.forEach(future -> future.completeExceptionally(new UncheckedIOException(e)));
+                return;
+            }
+        }
+        batch.forEach(future -> future.complete(null));
+    }
+
+    private List<Record> recover() throws IOException {
+        List<Record> records = new ArrayList<>();
+        long position = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            byte type = header.get();
+            long crc = header.getLong();
+            if (length < 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > size) break; // torn tail
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            if (checksum(type, payload.array()) != crc) break; // corrupt record; nothing after it is trusted
+            records.add(new Record(type, payload.array()));
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            System.err.println("Journal: discarding " + (size - position) + " bytes of incomplete or corrupt data");
+            channel.truncate(position);
+            channel.force(true);
+        }
+        return records;
+    }
+
+    private static long checksum(byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.secondserve.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of {@code POST /api/batch}: several GETs a screen needs, answered together
+ * in one {@link BatchResponseDto}. Each part is identified by its {@code id}.
+ */
+public class BatchRequestDto {
+    private List<Part> requests = new ArrayList<>();
+
+    public BatchRequestDto() {}
+
+    public BatchRequestDto(List<Part> requests) {
+        this.requests = requests;
+    }
+
+    public List<Part> getRequests() { return requests; }
+    public void setRequests(List<Part> requests) { this.requests = requests != null ? requests : new ArrayList<>(); }
+
+    public static class Part {
+        private String id;
+        private String method = "GET";
+        private String path; // including the query string, e.g. "/api/food-items/hotel/1?fields=id,foodName"
+
+        public Part() {}
+
+        public Part(String id, String path) {
+            this.id = id;
+            this.path = path;
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.secondserve.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answer of {@code POST /api/batch}: one part per requested GET, with the status,
+ * headers (ETag, X-Sync-Cursor, ...) and body that GET would have returned on its own.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchResponseDto {
+    private List<Part> responses = new ArrayList<>();
+
+    public BatchResponseDto() {}
+
+    public BatchResponseDto(List<Part> responses) {
+        this.responses = responses;
+    }
+
+    public List<Part> getResponses() { return responses; }
+    public void setResponses(List<Part> responses) { this.responses = responses != null ? responses : new ArrayList<>(); }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Part {
+        private String id;
+        private int status;
+        private Map<String, String> headers = new HashMap<>();
+        private JsonNode body;
+
+        public Part() {}
+
+        public Part(String id, int status, Map<String, String> headers, JsonNode body) {
+            this.id = id;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+
+        public int getStatus() { return status; }
+        public void setStatus(int status) { this.status = status; }
+
+        public Map<String, String> getHeaders() { return headers; }
+        public void setHeaders(Map<String, String> headers) { this.headers = headers != null ? headers : new HashMap<>(); }
+
+        public JsonNode getBody() { return body; }
+        public void setBody(JsonNode body) { this.body = body; }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.secondserve.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Body of the bulk transition endpoints: apply one action ("approve", "reject"
+ * or "complete") to many ids in a single request. An id listed in {@code versions}
+ * is only changed if the server still holds that version (412 for that id otherwise).
+ */
+public class BulkTransitionRequestDto {
+    private String action;
+    private List<Long> ids;
+    private Map<Long, Long> versions; // id -> version the client saw; optional
+
+    public BulkTransitionRequestDto() {}
+
+    public BulkTransitionRequestDto(String action, List<Long> ids) {
+        this.action = action;
+        this.ids = ids;
+    }
+
+    public BulkTransitionRequestDto(String action, List<Long> ids, Map<Long, Long> versions) {
+        this(action, ids);
+        this.versions = versions;
+    }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public Map<Long, Long> getVersions() { return versions; }
+    public void setVersions(Map<Long, Long> versions) { this.versions = versions; }
+}
@@ -0,0 +1,68 @@
+package com.example.secondserve.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Answer of a bulk transition: one result per requested id, in request order.
+ * Ids are processed independently, so some may succeed while others fail.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulkTransitionResultDto {
+    private List<ItemResult> results = new ArrayList<>();
+
+    public BulkTransitionResultDto() {}
+
+    public List<ItemResult> getResults() { return results; }
+    public void setResults(List<ItemResult> results) { this.results = results; }
+
+    @JsonIgnore
+    public List<Long> getSucceededIds() {
+        return results.stream().filter(ItemResult::isSuccess).map(ItemResult::getId).collect(Collectors.toList());
+    }
+
+    @JsonIgnore
+    public List<ItemResult> getFailures() {
+        return results.stream().filter(result -> !result.isSuccess()).collect(Collectors.toList());
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ItemResult {
+        private Long id;
+        private boolean success;
+        private int status;      // HTTP-style status for this id, e.g. 200, 404, 412
+        private String message;  // Why it failed, if it did
+        private Object current;  // With 412: the entity as it is now (ApiClient decodes it to the entity's type)
+
+        public ItemResult() {}
+
+        public ItemResult(Long id, boolean success, int status, String message) {
+            this.id = id;
+            this.success = success;
+            this.status = status;
+            this.message = message;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+
+        public int getStatus() { return status; }
+        public void setStatus(int status) { this.status = status; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public Object getCurrent() { return current; }
+        public void setCurrent(Object current) { this.current = current; }
+
+        /** The current entity sent with a 412, or null if there is none. */
+        public <T> T getCurrent(Class<T> type) { return type.cast(current); }
+    }
+}
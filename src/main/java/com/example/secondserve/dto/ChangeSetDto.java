@@ -0,0 +1,43 @@
+package com.example.secondserve.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The answer of a {@code .../changes?since=<cursor>} endpoint: everything that
+ * happened to one collection after the given cursor.
+ * <p>
+ * When {@code reset} is true the server could not answer from the cursor (it was
+ * missing or too old) and {@code added} holds the complete collection instead.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ChangeSetDto<T> {
+
+    private String cursor;
+    private boolean reset;
+    private List<T> added = new ArrayList<>();
+    private List<T> updated = new ArrayList<>();
+    private List<Long> removed = new ArrayList<>();
+
+    public ChangeSetDto() {
+    }
+
+    // --- Getters and Setters ---
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public boolean isReset() { return reset; }
+    public void setReset(boolean reset) { this.reset = reset; }
+
+    public List<T> getAdded() { return added; }
+    public void setAdded(List<T> added) { this.added = added != null ? added : new ArrayList<>(); }
+
+    public List<T> getUpdated() { return updated; }
+    public void setUpdated(List<T> updated) { this.updated = updated != null ? updated : new ArrayList<>(); }
+
+    public List<Long> getRemoved() { return removed; }
+    public void setRemoved(List<Long> removed) { this.removed = removed != null ? removed : new ArrayList<>(); }
+}
@@ -0,0 +1,41 @@
+package com.example.secondserve.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projection of FoodItemDto for the NGO's "available food" table of a hotel:
+ * the columns it shows plus the id and quantity needed to request an item.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FoodItemListingDto {
+    private Long id;
+    private String foodName;
+    private BigDecimal quantity;
+    private String unit;
+    private String condition;
+    private LocalDate expiryDate;
+    private String currentUserRequestStatus;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getFoodName() { return foodName; }
+    public void setFoodName(String foodName) { this.foodName = foodName; }
+
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public String getCondition() { return condition; }
+    public void setCondition(String condition) { this.condition = condition; }
+
+    public LocalDate getExpiryDate() { return expiryDate; }
+    public void setExpiryDate(LocalDate expiryDate) { this.expiryDate = expiryDate; }
+
+    public String getCurrentUserRequestStatus() { return currentUserRequestStatus; }
+    public void setCurrentUserRequestStatus(String currentUserRequestStatus) { this.currentUserRequestStatus = currentUserRequestStatus; }
+}
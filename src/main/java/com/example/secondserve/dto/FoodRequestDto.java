@@ -16,8 +16,26 @@ public class FoodRequestDto {
     private String notes;
     private String requestStatus;  // CHANGE FROM ENUM TO STRING
     private LocalDateTime pickupDate;
+    private Long version;          // Bumped by the server on every change; sent back as If-Match
     public FoodRequestDto() {}
 
+    // A separate copy, for views that change a row the shared caches still hold
+    public FoodRequestDto(FoodRequestDto other) {
+        this.id = other.id;
+        this.ngoId = other.ngoId;
+        this.ngoName = other.ngoName;
+        this.foodItemId = other.foodItemId;
+        this.foodItemName = other.foodItemName;
+        this.hotelName = other.hotelName;
+        this.requestedQuantity = other.requestedQuantity;
+        this.unit = other.unit;
+        this.requestDate = other.requestDate;
+        this.notes = other.notes;
+        this.requestStatus = other.requestStatus;
+        this.pickupDate = other.pickupDate;
+        this.version = other.version;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -59,4 +77,7 @@ public class FoodRequestDto {
     public void setPickupDate(LocalDateTime pickupDate) {
         this.pickupDate = pickupDate;
     }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.secondserve.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Projection of HotelDto for the NGO's hotel cards: only what a card shows.
+ * The client asks for exactly these properties with {@code ?fields=}, so contact
+ * details, licence data and credentials are neither sent nor parsed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HotelCardDto {
+    private long id;
+    private String hotelName;
+    private String city;
+    private String state;
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getHotelName() { return hotelName; }
+    public void setHotelName(String hotelName) { this.hotelName = hotelName; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+}
@@ -11,9 +11,12 @@ module com.example.secondserve {
     requires eu.hansolo.tilesfx;
     requires com.almasb.fxgl.all;
     requires java.net.http;
+    requires jdk.management;
     requires com.fasterxml.jackson.datatype.jsr310;
     requires com.fasterxml.jackson.databind;
+    requires com.fasterxml.jackson.dataformat.cbor;
 
     opens com.example.secondserve to javafx.fxml;
+    opens com.example.secondserve.dto to com.fasterxml.jackson.databind;
     exports com.example.secondserve;
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.example.secondserve;
+
+import com.example.secondserve.dto.FoodItemDto;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Scrolls a long list of leftover cards, first in a {@link CardList} and then built
+ * into a plain VBox the way the screens did before, and prints for each the startup
+ * time, the frame times while scrolling and the number of nodes in the scene.
+ * <p>
+ * Needs a display, so it is not run by the test suite and is not shipped with the client.
+ * Run its {@code main} from the test classpath (e.g. from the IDE); the number of rows
+ * (default 10000) can be given as the first program argument.
+ * At 60 Hz a smooth scroll shows frame times of about 16.7 ms.
+ */
+public class CardListBenchmark extends Application {
+
+    private static final int FRAMES = 600; // ten seconds at 60 fps
+    private static final double PIXELS_PER_FRAME = 120;
+
+    private final List<FoodItemDto> rows = new ArrayList<>();
+    private Stage stage;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        this.stage = stage;
+        List<String> args = getParameters().getRaw();
+        int count = args.isEmpty() ? 10_000 : Integer.parseInt(args.get(0));
+        for (long id = 1; id <= count; id++) {
+            rows.add(sampleItem(id));
+        }
+        stage.setTitle("CardList benchmark - " + count + " rows");
+        runCardList(() -> runVBox(Platform::exit));
+        stage.show();
+    }
+
+    // The list as the screens show it now: cards for the visible rows only
+    private void runCardList(Runnable next) {
+        long start = System.nanoTime();
+        ListView<FoodItemDto> view = new ListView<>();
+        CardList<FoodItemDto> cards = new CardList<>(view, FoodItemDto::getId, ItemCard::new);
+        cards.setAll(rows);
+        show(view);
+        measure("CardList", start, view, () -> {
+            VirtualFlow<?> flow = (VirtualFlow<?>) view.lookup(".virtual-flow");
+            if (flow != null) flow.scrollPixels(PIXELS_PER_FRAME);
+        }, () -> cards.getCardsBuilt() + " cards built", next);
+    }
+
+    // The list as the screens showed it before: one card per row in a VBox
+    private void runVBox(Runnable next) {
+        long start = System.nanoTime();
+        VBox box = new VBox(10);
+        for (FoodItemDto row : rows) {
+            ItemCard card = new ItemCard();
+            card.show(row);
+            box.getChildren().add(card.getNode());
+        }
+        ScrollPane pane = new ScrollPane(box);
+        pane.setFitToWidth(true);
+        show(pane);
+        measure("VBox", start, pane, () -> {
+            double scrollable = box.getHeight() - pane.getViewportBounds().getHeight();
+            if (scrollable > 0) pane.setVvalue(Math.min(1, pane.getVvalue() + PIXELS_PER_FRAME / scrollable));
+        }, () -> rows.size() + " cards built", next);
+    }
+
+    private void show(Parent root) {
+        Scene scene = new Scene(root, 1000, 700);
+        scene.getStylesheets().add(getClass().getResource("hotelDashboard.css").toExternalForm());
+        stage.setScene(scene);
+    }
+
+    /**
+     * Waits for the list to be shown, then calls {@code scrollStep} once per frame for
+     * {@value #FRAMES} frames, prints the results and runs {@code next}.
+     */
+    private void measure(String name, long start, Parent root, Runnable scrollStep, Supplier<String> cardsBuilt, Runnable next) {
+        long[] frameNanos = new long[FRAMES];
+        new AnimationTimer() {
+            private long startupNanos;
+            private long last;
+            private int frame = -2; // the first pulse lays the list out, the second one starts scrolling
+
+            @Override
+            public void handle(long now) {
+                if (frame >= 0) {
+                    frameNanos[frame] = now - last;
+                } else if (frame == -1) {
+                    startupNanos = System.nanoTime() - start;
+                }
+                last = now;
+                frame++;
+                if (frame < FRAMES) {
+                    if (frame >= 0) scrollStep.run();
+                    return;
+                }
+                stop();
+                Arrays.sort(frameNanos);
+                System.out.printf("%-8s startup %6.0f ms | frames p50 %5.1f ms, p99 %5.1f ms, max %6.1f ms | %d nodes, %s%n",
+                        name, millis(startupNanos), millis(frameNanos[FRAMES / 2]), millis(frameNanos[FRAMES * 99 / 100]),
+                        millis(frameNanos[FRAMES - 1]), countNodes(root), cardsBuilt.get());
+                next.run();
+            }
+        }.start();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    private static FoodItemDto sampleItem(long id) {
+        FoodItemDto item = new FoodItemDto();
+        item.setId(id);
+        item.setFoodName("Leftover #" + id);
+        item.setQuantity(BigDecimal.valueOf(1 + id % 20));
+        item.setUnit("kg");
+        item.setExpiryDate(LocalDate.now().plusDays(id % 3));
+        return item;
+    }
+
+    // Same layout as the leftover cards of the hotel dashboard
+    private static class ItemCard implements CardList.Card<FoodItemDto> {
+        private final Label nameLabel = new Label();
+        private final Label quantityLabel = new Label();
+        private final Label expiryLabel = new Label();
+        private final HBox card = new HBox(10);
+
+        ItemCard() {
+            card.setAlignment(Pos.CENTER_LEFT);
+            card.getStyleClass().add("leftover-card");
+            nameLabel.setMinWidth(200);
+            nameLabel.getStyleClass().add("leftover-name");
+            quantityLabel.setMinWidth(120);
+            quantityLabel.getStyleClass().add("leftover-details");
+            expiryLabel.getStyleClass().add("leftover-details");
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            Button approveButton = new Button("Approve");
+            approveButton.getStyleClass().add("approve-button");
+            Button rejectButton = new Button("Reject");
+            rejectButton.getStyleClass().add("reject-button");
+            card.getChildren().addAll(new CheckBox(), nameLabel, quantityLabel, expiryLabel, spacer, approveButton, rejectButton);
+        }
+
+        @Override
+        public HBox getNode() {
+            return card;
+        }
+
+        @Override
+        public void show(FoodItemDto item) {
+            nameLabel.setText(item.getFoodName());
+            quantityLabel.setText(String.format("%.2f %s", item.getQuantity(), item.getUnit()));
+            expiryLabel.setText("Expires: " + item.getExpiryDate().toString());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.DashboardStatsDto;
+import com.example.secondserve.dto.HotelDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** A hotel manager's first screen, read through {@code POST /api/batch}. */
+class BatchTest {
+
+    private static final String BATCH = "POST /api/batch";
+
+    @TempDir
+    Path dataDir;
+
+    private StandInServer server;
+    private ApiClient api;
+
+    @BeforeEach
+    void connect() throws Exception {
+        server = StandInServer.start(0);
+        api = StandInClients.connect(server, dataDir);
+        StandInClients.logIn(api, "manager1@example.com", "HOTEL_MANAGER");
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void partsShareOneRequestAndFailOnTheirOwn() throws Exception {
+        Batch batch = api.newBatch();
+        CompletableFuture<HotelDto> hotel = batch.hotel(1);
+        CompletableFuture<HotelDto> missing = batch.hotel(999);
+        CompletableFuture<DashboardStatsDto> stats = batch.dashboardStats();
+        batch.send();
+
+        assertEquals(1L, hotel.get(5, TimeUnit.SECONDS).getId());
+        assertNotNull(stats.get(5, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+        assertEquals(404, ApiException.unwrap(error).getStatusCode());
+        assertEquals(1, api.getMetrics().get("latency " + BATCH)[0]);
+        assertEquals(3, api.getMetrics().count("batch parts " + BATCH));
+    }
+
+    @Test
+    void batchOfReadsIsRetriedLikeTheReadsThemselves() throws Exception {
+        server.simulateFailures(1);
+        Batch batch = api.newBatch();
+        CompletableFuture<HotelDto> hotel = batch.hotel(1);
+        CompletableFuture<DashboardStatsDto> stats = batch.dashboardStats();
+        batch.send();
+
+        assertEquals(1L, hotel.get(5, TimeUnit.SECONDS).getId());
+        assertNotNull(stats.get(5, TimeUnit.SECONDS));
+        assertEquals(1, api.getMetrics().get("retry " + BATCH)[0]);
+    }
+
+    @Test
+    void failedBatchFailsEveryPartOnceTheRetriesAreUsedUp() {
+        server.simulateFailures(3);
+        Batch batch = api.newBatch();
+        CompletableFuture<HotelDto> hotel = batch.hotel(1);
+        CompletableFuture<DashboardStatsDto> stats = batch.dashboardStats();
+        batch.send();
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> hotel.get(10, TimeUnit.SECONDS));
+        assertEquals(503, ApiException.unwrap(error).getStatusCode());
+        assertThrows(ExecutionException.class, () -> stats.get(10, TimeUnit.SECONDS));
+        assertEquals(2, api.getMetrics().get("retry " + BATCH)[0]);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.BulkTransitionResultDto;
+import com.example.secondserve.dto.FoodRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Two managers deciding on the same requests: the second decision is made on an outdated copy. */
+class ConflictTest {
+
+    private static final long HOTEL_ID = 1;
+    private static final long NGO_ID = 1;
+
+    @TempDir
+    Path dataDir;
+
+    private StandInServer server;
+    private ApiClient api;
+
+    @BeforeEach
+    void connect() throws Exception {
+        server = StandInServer.start(0);
+        api = StandInClients.connect(server, dataDir);
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void decisionOnAnOutdatedCopyFailsWithTheCurrentRequest() throws Exception {
+        FoodRequestDto loaded = request(101);
+        DeltaSync<FoodRequestDto> pending = api.pendingRequestsForHotelSync(HOTEL_ID);
+        pending.refresh().get(5, TimeUnit.SECONDS);
+        DeltaSync<FoodRequestDto> history = api.requestsForNgoSync(NGO_ID);
+        history.refresh().get(5, TimeUnit.SECONDS);
+        api.transitionFoodRequest(loaded, "approve").get(5, TimeUnit.SECONDS); // the other manager
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> api.transitionFoodRequest(loaded, "reject").get(5, TimeUnit.SECONDS));
+        ConflictException conflict = ConflictException.unwrap(error);
+        assertNotNull(conflict, "expected a ConflictException, got " + error.getCause());
+        assertEquals(412, conflict.getStatusCode());
+        FoodRequestDto current = conflict.getCurrent(FoodRequestDto.class);
+        assertEquals(loaded.getId(), current.getId());
+        assertEquals("APPROVED", current.getRequestStatus());
+        assertTrue(current.getVersion() > loaded.getVersion());
+
+        // Without a refresh, the cached history took the current copy and the pending list dropped it
+        FoodRequestDto cached = history.snapshot().stream()
+                .filter(request -> request.getId().equals(loaded.getId())).findFirst().orElseThrow();
+        assertEquals("APPROVED", cached.getRequestStatus());
+        assertTrue(pending.snapshot().stream().noneMatch(request -> request.getId().equals(loaded.getId())));
+    }
+
+    @Test
+    void bulkDecisionReportsEachOutdatedRequestWithItsCurrentCopy() throws Exception {
+        FoodRequestDto changedMeanwhile = request(101);
+        FoodRequestDto untouched = request(103);
+        api.transitionFoodRequest(changedMeanwhile, "approve").get(5, TimeUnit.SECONDS);
+
+        BulkTransitionResultDto result = api.bulkTransitionFoodRequests(List.of(changedMeanwhile, untouched), "reject")
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(untouched.getId()), result.getSucceededIds());
+        BulkTransitionResultDto.ItemResult failure = result.getFailures().get(0);
+        assertEquals(412, failure.getStatus());
+        FoodRequestDto current = failure.getCurrent(FoodRequestDto.class);
+        assertEquals(changedMeanwhile.getId(), current.getId());
+        assertEquals("APPROVED", current.getRequestStatus());
+        assertNull(result.getResults().get(1).getCurrent());
+    }
+
+    // A new pending request for one of the stand-in's approved food items
+    private FoodRequestDto request(long foodItemId) throws Exception {
+        FoodRequestDto request = new FoodRequestDto();
+        request.setFoodItemId(foodItemId);
+        request.setRequestedQuantity(BigDecimal.ONE);
+        return api.createFoodRequest(request).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.FoodItemDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The pending food items of the stand-in's hotel 1, kept current by delta sync. */
+class DeltaSyncTest {
+
+    private static final long HOTEL_ID = 1;
+
+    @TempDir
+    Path dataDir;
+
+    private StandInServer server;
+    private ApiClient api;
+
+    @BeforeEach
+    void connect() throws Exception {
+        server = StandInServer.start(0);
+        api = StandInClients.connect(server, dataDir);
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void firstRefreshLoadsTheListAndLaterOnesOnlyTheChanges() throws Exception {
+        DeltaSync<FoodItemDto> sync = api.pendingFoodItemsSync(HOTEL_ID);
+        DeltaSync.Result<FoodItemDto> first = refresh(sync);
+        assertTrue(first.isFullReload());
+        assertTrue(sync.isWarm(), "the list came with a cursor");
+        int seeded = first.getItems().size();
+
+        FoodItemDto created = create("Khichuri");
+        DeltaSync.Result<FoodItemDto> second = refresh(sync);
+        assertFalse(second.isFullReload());
+        assertEquals(List.of(created.getId()), ids(second.getAdded()));
+        assertEquals(seeded + 1, second.getItems().size());
+
+        api.approveFoodItem(created.getId()).get(5, TimeUnit.SECONDS); // no longer pending
+        DeltaSync.Result<FoodItemDto> third = refresh(sync);
+        assertFalse(third.isFullReload());
+        assertEquals(List.of(created.getId()), third.getRemoved());
+        assertEquals(seeded, sync.snapshot().size());
+
+        assertFalse(refresh(sync).hasChanges());
+    }
+
+    @Test
+    void fallsBackToTheFullListWhenTheServerHasNoChangesEndpoint() throws Exception {
+        DeltaSync<FoodItemDto> sync = api.pendingFoodItemsSync(HOTEL_ID);
+        int seeded = refresh(sync).getItems().size();
+        server.disableChangeFeeds();
+
+        FoodItemDto created = create("Halwa");
+        DeltaSync.Result<FoodItemDto> result = refresh(sync);
+        assertTrue(result.isFullReload());
+        assertEquals(seeded + 1, result.getItems().size());
+        assertTrue(ids(result.getItems()).contains(created.getId()));
+        assertFalse(sync.isWarm(), "the changes endpoint is not asked again");
+        assertTrue(refresh(sync).isFullReload());
+    }
+
+    @Test
+    void theFallbackKeepsTheCallersPriority() throws Exception {
+        DeltaSync<FoodItemDto> sync = api.pendingFoodItemsSync(HOTEL_ID);
+        refresh(sync);
+        server.disableChangeFeeds();
+
+        api.withPriority(RequestPriority.BACKGROUND, sync::refresh).get(5, TimeUnit.SECONDS);
+        // The 404 from /changes and the full list that replaced it
+        assertEquals(2, api.getMetrics().get("queue background")[0]);
+    }
+
+    private static DeltaSync.Result<FoodItemDto> refresh(DeltaSync<FoodItemDto> sync) throws Exception {
+        return sync.refresh().get(5, TimeUnit.SECONDS);
+    }
+
+    private FoodItemDto create(String name) throws Exception {
+        FoodItemDto item = new FoodItemDto();
+        item.setFoodName(name);
+        item.setQuantity(BigDecimal.valueOf(2));
+        item.setUnit("kg");
+        item.setExpiryDate(LocalDate.now().plusDays(1));
+        return api.createFoodItem(item).get(5, TimeUnit.SECONDS);
+    }
+
+    private static List<Long> ids(List<FoodItemDto> items) {
+        return items.stream().map(FoodItemDto::getId).collect(Collectors.toList());
+    }
+}
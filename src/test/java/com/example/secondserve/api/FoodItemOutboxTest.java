@@ -0,0 +1,143 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.FoodItemDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Kitchen items logged while the server is away, and what happens to them once it is back. */
+class FoodItemOutboxTest {
+
+    private static final long HOTEL_ID = 1;
+
+    @TempDir
+    Path dataDir;
+
+    private StandInServer server;
+    private ApiClient api;
+    private final List<FoodItemOutbox> opened = new ArrayList<>();
+
+    @BeforeEach
+    void connect() throws Exception {
+        server = StandInServer.start(0);
+        api = StandInClients.connect(server, dataDir);
+        StandInClients.logIn(api, "manager1@example.com", "HOTEL_MANAGER"); // the outbox only replays during a session
+    }
+
+    @AfterEach
+    void stop() {
+        opened.forEach(FoodItemOutbox::close);
+        server.stop();
+    }
+
+    @Test
+    void itemLoggedDuringAnOutageArrivesOnceItIsOver() throws Exception {
+        int before = pendingCount();
+        server.simulateOutage(true);
+        FoodItemOutbox outbox = open(api.getFoodItemOutbox());
+        CompletableFuture<FoodItemOutbox.Entry> synced = awaitSynced(outbox, "Khichuri");
+
+        FoodItemOutbox.Entry entry = outbox.submit(item("Khichuri"));
+        Thread.sleep(500);
+        assertEquals(FoodItemOutbox.State.QUEUED, entry.getState());
+        server.simulateOutage(false);
+
+        synced.get(30, TimeUnit.SECONDS);
+        assertEquals(before + 1, pendingCount());
+        // The server holds it under the entry's key: sending it again gets the same item back
+        FoodItemDto again = api.createFoodItem(entry.getItem(), entry.getKey()).get(5, TimeUnit.SECONDS);
+        assertEquals(entry.getServerItem().getId(), again.getId());
+        assertEquals(before + 1, pendingCount());
+    }
+
+    @Test
+    void itemStillQueuedAtExitIsSentAfterTheNextLogin() throws Exception {
+        int before = pendingCount();
+        server.simulateOutage(true);
+        FoodItemOutbox outbox = open(api.getFoodItemOutbox());
+        outbox.submit(item("Shingara"));
+        outbox.close(); // the app exits with the item still queued
+        server.simulateOutage(false);
+
+        FoodItemOutbox restarted = StandInClients.connect(server, dataDir).getFoodItemOutbox();
+        CompletableFuture<FoodItemOutbox.Entry> synced = awaitSynced(restarted, "Shingara");
+        open(restarted);
+
+        assertEquals("Shingara", synced.get(30, TimeUnit.SECONDS).getServerItem().getFoodName());
+        assertEquals(before + 1, pendingCount());
+    }
+
+    @Test
+    void itemsGoOutInOrderAndOnlyRefusedOnesAreGivenUp() throws Exception {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        BiFunction<FoodItemDto, String, CompletableFuture<FoodItemDto>> sender = (item, key) -> {
+            sent.add(item.getFoodName());
+            if (item.getFoodName().equals("Refused")) {
+                return CompletableFuture.failedFuture(new ApiException(422, "{}"));
+            }
+            if (item.getFoodName().equals("Unlucky") && Collections.frequency(sent, "Unlucky") == 1) {
+                return CompletableFuture.failedFuture(new ApiException(503, ""));
+            }
+            return CompletableFuture.completedFuture(item);
+        };
+        FoodItemOutbox outbox = open(new FoodItemOutbox(dataDir.resolve("scripted"),
+                new ObjectMapper().registerModule(new JavaTimeModule()), sender));
+        CompletableFuture<FoodItemOutbox.Entry> last = awaitSynced(outbox, "Last");
+
+        outbox.submit(item("First"));
+        FoodItemOutbox.Entry refused = outbox.submit(item("Refused"));
+        FoodItemOutbox.Entry unlucky = outbox.submit(item("Unlucky"));
+        outbox.submit(item("Last"));
+
+        last.get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("First", "Refused", "Unlucky", "Unlucky", "Last"), sent);
+        assertEquals(FoodItemOutbox.State.FAILED, refused.getState());
+        assertEquals(FoodItemOutbox.State.SYNCED, unlucky.getState());
+        assertEquals(List.of(), outbox.pending());
+    }
+
+    private FoodItemOutbox open(FoodItemOutbox outbox) throws Exception {
+        outbox.open(HOTEL_ID);
+        opened.add(outbox);
+        return outbox;
+    }
+
+    private static CompletableFuture<FoodItemOutbox.Entry> awaitSynced(FoodItemOutbox outbox, String foodName) {
+        CompletableFuture<FoodItemOutbox.Entry> synced = new CompletableFuture<>();
+        outbox.subscribe(Runnable::run, entry -> {
+            if (entry.getState() == FoodItemOutbox.State.SYNCED && entry.getItem().getFoodName().equals(foodName)) {
+                synced.complete(entry);
+            }
+        });
+        return synced;
+    }
+
+    private int pendingCount() throws Exception {
+        return api.getPendingFoodItems(HOTEL_ID).get(5, TimeUnit.SECONDS).size();
+    }
+
+    private static FoodItemDto item(String name) {
+        FoodItemDto item = new FoodItemDto();
+        item.setFoodName(name);
+        item.setQuantity(BigDecimal.valueOf(2));
+        item.setUnit("kg");
+        item.setExpiryDate(LocalDate.now().plusDays(1));
+        return item;
+    }
+}
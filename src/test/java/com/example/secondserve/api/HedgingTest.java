@@ -0,0 +1,84 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The hedging policy on its own, then hedged GETs against two stand-in replicas. */
+class HedgingTest {
+
+    private static final String HOTEL = "GET /api/hotels/{id}";
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @TempDir
+    Path dataDir;
+
+    private final List<StandInServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(StandInServer::stop);
+    }
+
+    @Test
+    void nothingIsHedgedUntilTheEndpointHasEnoughSamples() {
+        Hedging hedging = new Hedging(50, 1);
+        for (int i = 1; i < 20; i++) {
+            hedging.record(HOTEL, i * MILLIS);
+            assertEquals(-1, hedging.delayNanos(HOTEL));
+        }
+        hedging.record(HOTEL, 20 * MILLIS);
+        assertEquals(10 * MILLIS, hedging.delayNanos(HOTEL), "the median of 1..20 ms");
+        assertEquals(-1, hedging.delayNanos("GET /api/ngos/{id}"), "samples are kept per endpoint");
+    }
+
+    @Test
+    void hedgesStayWithinTheBudget() {
+        Hedging hedging = new Hedging(95, 0.25);
+        int hedges = 0;
+        for (int call = 0; call < 100; call++) {
+            hedging.delayNanos(HOTEL); // every call earns a quarter of a hedge
+            if (hedging.tryAcquire()) hedges++;
+        }
+        assertEquals(25, hedges);
+        assertFalse(new Hedging(95, 0).delayNanos(HOTEL) >= 0, "a budget of 0 turns hedging off");
+    }
+
+    @Test
+    void slowReplicaIsOvertakenByAHedge() throws Exception {
+        StandInServer slow = start();
+        StandInServer fast = start();
+        ApiClient api = new ApiClient(new ApiConfig(slow.getBaseUrl() + "," + fast.getBaseUrl(),
+                Duration.ofSeconds(2), Duration.ofSeconds(5), dataDir, false, 50, 1));
+        for (int i = 0; i < 25; i++) {
+            api.getHotel(1).get(5, TimeUnit.SECONDS); // both replicas answer quickly: the hedge delay is a few ms
+        }
+
+        slow.simulateTailLatency(1, 3_000);
+        // Each idle replica is as likely to get the first copy, so some of these go to the slow one first
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            assertEquals(1L, api.getHotel(1).get(5, TimeUnit.SECONDS).getId());
+            long took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(took < 1_500, "call " + i + " waited for the slow replica: " + took + " ms");
+        }
+        assertTrue(api.getMetrics().count("hedge won " + HOTEL) > 0);
+    }
+
+    private StandInServer start() throws Exception {
+        StandInServer server = StandInServer.start(0);
+        servers.add(server);
+        return server;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.FoodItemDto;
+import com.example.secondserve.dto.HotelDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/** GETs revalidated with If-None-Match against the stand-in, which answers 304 while nothing changed. */
+class HttpCacheTest {
+
+    @TempDir
+    Path dataDir;
+
+    private StandInServer server;
+    private ApiClient api;
+
+    @BeforeEach
+    void connect() throws Exception {
+        server = StandInServer.start(0);
+        api = StandInClients.connect(server, dataDir);
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void unchangedResourceIsRevalidatedAndReused() throws Exception {
+        HotelDto first = api.getHotel(1).get(5, TimeUnit.SECONDS);
+        assertEquals(0, revalidated("GET /api/hotels/{id}"));
+
+        HotelDto second = api.getHotel(1).get(5, TimeUnit.SECONDS);
+        assertEquals(1, revalidated("GET /api/hotels/{id}"));
+        assertEquals(first.getHotelName(), second.getHotelName());
+    }
+
+    @Test
+    void changedResourceIsDownloadedAgain() throws Exception {
+        HotelDto loaded = api.getHotel(1).get(5, TimeUnit.SECONDS);
+        loaded.setHotelName("Grand Palace Hotel & Suites");
+        api.updateHotel(1, loaded).get(5, TimeUnit.SECONDS);
+
+        HotelDto reloaded = api.getHotel(1).get(5, TimeUnit.SECONDS);
+        assertEquals("Grand Palace Hotel & Suites", reloaded.getHotelName());
+        assertEquals(0, revalidated("GET /api/hotels/{id}"));
+    }
+
+    @Test
+    void revalidatedStreamedListDeliversTheRowsKeptLastTime() throws Exception {
+        List<FoodItemDto> first = stream();
+        assertFalse(first.isEmpty());
+
+        List<FoodItemDto> second = stream();
+        assertEquals(1, revalidated("GET /api/food-items/hotel/{id}"));
+        assertEquals(ids(first), ids(second));
+    }
+
+    private List<FoodItemDto> stream() throws Exception {
+        List<FoodItemDto> rows = Collections.synchronizedList(new ArrayList<>());
+        int total = api.streamFoodItemsForHotel(1, Runnable::run, rows::addAll).get(5, TimeUnit.SECONDS);
+        assertEquals(total, rows.size());
+        return rows;
+    }
+
+    private long revalidated(String endpoint) {
+        return api.getMetrics().count("cache revalidated " + endpoint);
+    }
+
+    private static List<Long> ids(List<FoodItemDto> items) {
+        return items.stream().map(FoodItemDto::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.FoodItemDto;
+import com.example.secondserve.dto.FoodRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotentCreatesTest {
+
+    private static final long HOTEL_ID = 1;
+    private static final long AVAILABLE_ITEM_ID = 101; // seeded by the stand-in, approved
+
+    @TempDir
+    Path dataDir;
+
+    private StandInServer server;
+    private ApiClient api;
+
+    @BeforeEach
+    void connect() throws Exception {
+        server = StandInServer.start(0);
+        api = StandInClients.connect(server, dataDir);
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void sameKeyAgainGetsTheFirstItemInsteadOfADuplicate() throws Exception {
+        int before = pendingCount();
+        FoodItemDto first = api.createFoodItem(item("Polao"), "key-1").get(5, TimeUnit.SECONDS);
+        FoodItemDto again = api.createFoodItem(item("Polao"), "key-1").get(5, TimeUnit.SECONDS);
+        assertEquals(first.getId(), again.getId());
+        assertEquals(before + 1, pendingCount());
+    }
+
+    @Test
+    void sameKeyForAnotherItemIsRefused() throws Exception {
+        api.createFoodItem(item("Polao"), "key-2").get(5, TimeUnit.SECONDS);
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> api.createFoodItem(item("Firni"), "key-2").get(5, TimeUnit.SECONDS));
+        assertEquals(422, ApiException.unwrap(error).getStatusCode());
+    }
+
+    @Test
+    void identicalSubmissionWithinTheWindowIsSentOnce() throws Exception {
+        FoodRequestDto request = new FoodRequestDto();
+        request.setFoodItemId(AVAILABLE_ITEM_ID);
+        request.setRequestedQuantity(BigDecimal.ONE);
+        CompletableFuture<FoodRequestDto> first = api.createFoodRequest(request);
+        CompletableFuture<FoodRequestDto> doubleClick = api.createFoodRequest(request);
+
+        assertEquals(first.get(5, TimeUnit.SECONDS).getId(), doubleClick.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(1, api.getMetrics().count("create deduplicated /api/food-requests"));
+    }
+
+    @Test
+    void retryWhileTheFirstCopyIsStillRunningWaitsForItsAnswer() throws Exception {
+        // Every copy the stand-in processes takes 500 ms; the client gives up on an attempt after 250 ms
+        ApiClient impatient = new ApiClient(new ApiConfig(server.getBaseUrl(), Duration.ofSeconds(2),
+                Duration.ofMillis(250), dataDir, false, 95, 0));
+        int before = pendingCount();
+        server.simulateTailLatency(1.0, 500);
+
+        FoodItemDto created = impatient.createFoodItem(item("Jilapi"), "key-3").get(10, TimeUnit.SECONDS);
+
+        server.simulateTailLatency(0, 0);
+        assertTrue(impatient.getMetrics().get("in progress POST /api/food-items")[0] > 0, "the retry was answered 409");
+        assertEquals(before + 1, pendingCount());
+        assertEquals("Jilapi", created.getFoodName());
+    }
+
+    private int pendingCount() throws Exception {
+        return api.getPendingFoodItems(HOTEL_ID).get(5, TimeUnit.SECONDS).size();
+    }
+
+    private static FoodItemDto item(String name) {
+        FoodItemDto item = new FoodItemDto();
+        item.setFoodName(name);
+        item.setQuantity(BigDecimal.valueOf(4));
+        item.setUnit("kg");
+        item.setExpiryDate(LocalDate.now().plusDays(1));
+        return item;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.secondserve.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonArrayStreamTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void keepsTheElementsOfAShortList() throws Exception {
+        List<Integer> delivered = new ArrayList<>();
+        List<Integer> kept = new ArrayList<>();
+        int total = stream(delivered).readAll(mapper, json("[1, 2, 3]"), kept, 3);
+        assertEquals(3, total);
+        assertEquals(List.of(1, 2, 3), delivered);
+        assertEquals(List.of(1, 2, 3), kept);
+    }
+
+    @Test
+    void dropsWhatItKeptOnceTheListIsTooLong() throws Exception {
+        List<Integer> delivered = new ArrayList<>();
+        List<Integer> kept = new ArrayList<>();
+        int total = stream(delivered).readAll(mapper, json("[1, 2, 3, 4]"), kept, 3);
+        assertEquals(4, total);
+        assertEquals(List.of(1, 2, 3, 4), delivered, "every element is still delivered");
+        assertTrue(kept.isEmpty());
+    }
+
+    private JsonArrayStream<Integer> stream(List<Integer> delivered) {
+        return new JsonArrayStream<>(mapper.constructType(Integer.class), Runnable::run, delivered::addAll);
+    }
+
+    private static ByteArrayInputStream json(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.HotelDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Profile edits saved as JSON Merge Patch against the stand-in's hotel 1. */
+class MergePatchTest {
+
+    private static final String PATCH = "PATCH /api/hotels/{id}";
+
+    @TempDir
+    Path dataDir;
+
+    private StandInServer server;
+    private ApiClient api;
+
+    @BeforeEach
+    void connect() throws Exception {
+        server = StandInServer.start(0);
+        api = StandInClients.connect(server, dataDir);
+        StandInClients.logIn(api, "manager1@example.com", "HOTEL_MANAGER");
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void diffHoldsOnlyWhatChanged() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Object before = mapper.readTree("{\"a\":1,\"b\":{\"x\":1,\"y\":2},\"c\":[1,2],\"d\":\"kept\"}");
+        Object after = mapper.readTree("{\"a\":1,\"b\":{\"x\":1,\"y\":3},\"c\":[1],\"e\":true}");
+
+        assertEquals(mapper.readTree("{\"b\":{\"y\":3},\"c\":[1],\"d\":null,\"e\":true}"),
+                MergePatch.diff(mapper, before, after));
+        assertEquals(0, MergePatch.diff(mapper, before, before).size());
+    }
+
+    @Test
+    void onlyTheEditedFieldIsSent() throws Exception {
+        HotelDto loaded = api.getHotel(1).get(5, TimeUnit.SECONDS);
+
+        HotelDto saved = api.patchHotel(1, loaded, hotel -> hotel.setPhone("+880-1711-000000")).get(5, TimeUnit.SECONDS);
+
+        assertEquals("+880-1711-000000", saved.getPhone());
+        assertEquals(loaded.getHotelName(), saved.getHotelName());
+        assertEquals(1, api.getMetrics().count("patch fields " + PATCH));
+        assertEquals("+880-1711-000000", api.getHotel(1).get(5, TimeUnit.SECONDS).getPhone());
+    }
+
+    @Test
+    void editThatChangesNothingIsNotSent() throws Exception {
+        HotelDto loaded = api.getHotel(1).get(5, TimeUnit.SECONDS);
+
+        assertSame(loaded, api.patchHotel(1, loaded, hotel -> hotel.setPhone(loaded.getPhone())).get(5, TimeUnit.SECONDS));
+        assertEquals(0, api.getMetrics().get("latency " + PATCH)[0]);
+    }
+
+    @Test
+    void outdatedCopyIsRefused() throws Exception {
+        ApiClient otherTerminal = StandInClients.connect(server, dataDir.resolve("other"));
+        HotelDto loadedThere = otherTerminal.getHotel(1).get(5, TimeUnit.SECONDS);
+        HotelDto loaded = api.getHotel(1).get(5, TimeUnit.SECONDS);
+        api.patchHotel(1, loaded, hotel -> hotel.setPhone("+880-1711-000000")).get(5, TimeUnit.SECONDS);
+
+        // The other terminal's copy predates that save: the server refuses it
+        ExecutionException refused = assertThrows(ExecutionException.class, () ->
+                otherTerminal.patchHotel(1, loadedThere, hotel -> hotel.setManagerName("Someone Else")).get(5, TimeUnit.SECONDS));
+        assertEquals(412, ApiException.unwrap(refused).getStatusCode());
+
+        // This terminal already holds the newer version, so it refuses its own old copy without asking
+        ExecutionException stale = assertThrows(ExecutionException.class, () ->
+                api.patchHotel(1, loaded, hotel -> hotel.setManagerName("Someone Else")).get(5, TimeUnit.SECONDS));
+        assertEquals(412, ApiException.unwrap(stale).getStatusCode());
+        assertEquals(1, api.getMetrics().get("latency " + PATCH)[0]);
+        assertEquals(loaded.getManagerName(), api.getHotel(1).get(5, TimeUnit.SECONDS).getManagerName());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.dto.FoodRequestDto;
+import com.example.secondserve.dto.HotelCardDto;
+import com.example.secondserve.dto.HotelDto;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and decode time of the lists the NGO screens download, as plain and
+ * gzipped JSON: the request history ({@code FoodRequestDto}), and the hotel list as
+ * full {@code HotelDto}s and as the {@code HotelCardDto} projection that
+ * {@code ?fields=} asks for. Decoding reads the bytes as the client does, inflating
+ * gzip as a stream while Jackson parses.
+ * <p>
+ * Not run by the test suite. Run its {@code main} from the test classpath (e.g. from
+ * the IDE); list sizes can be given as program arguments (default 100 1000 5000).
+ * Times are the median of 31 runs after warming up.
+ */
+public class PayloadBenchmark {
+
+    private static final int WARMUP_RUNS = 60;
+    private static final int MEASURED_RUNS = 31;
+
+    // Configured like the server (ISO date text) for writing and like ApiClient for reading
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length == 0 ? new int[]{100, 1000, 5000} : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        PayloadBenchmark benchmark = new PayloadBenchmark();
+        System.out.printf("%-28s %6s %11s %11s %9s %11s %11s%n",
+                "payload", "rows", "json bytes", "gzip bytes", "ratio", "json ms", "gzip ms");
+        for (int size : sizes) {
+            benchmark.run("request history", size, SampleDtos.requestHistory(size), FoodRequestDto.class);
+            List<HotelDto> hotels = SampleDtos.hotels(size);
+            benchmark.run("hotels, full HotelDto", size, hotels, HotelDto.class);
+            // What the server sends for ?fields=id,hotelName,city,state
+            List<HotelCardDto> cards = benchmark.mapper.convertValue(hotels,
+                    benchmark.mapper.getTypeFactory().constructCollectionType(List.class, HotelCardDto.class));
+            benchmark.run("hotels, HotelCardDto fields", size, cards, HotelCardDto.class);
+        }
+    }
+
+    private void run(String name, int rows, List<?> list, Class<?> elementType) throws IOException {
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, elementType);
+        byte[] json = mapper.writeValueAsBytes(list);
+        byte[] gzip = gzip(json);
+        double jsonMillis = medianMillis(() -> mapper.readValue(json, listType));
+        double gzipMillis = medianMillis(() -> {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+                return mapper.readValue(in, listType);
+            }
+        });
+        System.out.printf("%-28s %6d %11d %11d %8.1fx %11.2f %11.2f%n",
+                name, rows, json.length, gzip.length, json.length / (double) gzip.length, jsonMillis, gzipMillis);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Decode {
+        Object run() throws IOException;
+    }
+
+    private static double medianMillis(Decode decode) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            decode.run();
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            decode.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[MEASURED_RUNS / 2] / 1e6;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.FoodItemDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PushChannelTest {
+
+    @TempDir
+    Path dataDir;
+
+    private StandInServer server;
+    private ApiClient api;
+
+    @BeforeEach
+    void connect() throws Exception {
+        server = StandInServer.start(0);
+        api = StandInClients.connect(server, dataDir);
+        StandInClients.logIn(api, "manager1@example.com", "HOTEL_MANAGER");
+    }
+
+    @AfterEach
+    void stop() {
+        api.getPushChannel().stop();
+        server.stop();
+    }
+
+    @Test
+    void deliversTheEventForAFoodItemLoggedElsewhere() throws Exception {
+        BlockingQueue<FoodItemDto> pending = new LinkedBlockingQueue<>();
+        api.getPushChannel().subscribe("food-item.pending", FoodItemDto.class, Runnable::run, pending::add);
+        api.getPushChannel().start();
+        awaitConnected();
+
+        FoodItemDto item = new FoodItemDto();
+        item.setFoodName("Pulao");
+        item.setQuantity(BigDecimal.valueOf(3));
+        item.setUnit("kg");
+        item.setExpiryDate(LocalDate.now().plusDays(1));
+        FoodItemDto created = api.createFoodItem(item).get(5, TimeUnit.SECONDS);
+
+        FoodItemDto pushed = pending.poll(5, TimeUnit.SECONDS);
+        assertNotNull(pushed, "no food-item.pending event");
+        assertEquals(created.getId(), pushed.getId());
+        assertEquals("Pulao", pushed.getFoodName());
+    }
+
+    @Test
+    void closingASubscriptionStopsDelivery() throws Exception {
+        BlockingQueue<FoodItemDto> pending = new LinkedBlockingQueue<>();
+        PushChannel.Subscription subscription =
+                api.getPushChannel().subscribe("food-item.pending", FoodItemDto.class, Runnable::run, pending::add);
+        BlockingQueue<Object> stats = new LinkedBlockingQueue<>();
+        api.getPushChannel().subscribe("dashboard.stats", Object.class, Runnable::run, stats::add);
+        api.getPushChannel().start();
+        awaitConnected();
+        subscription.close();
+
+        FoodItemDto item = new FoodItemDto();
+        item.setFoodName("Naan");
+        item.setQuantity(BigDecimal.ONE);
+        item.setUnit("kg");
+        item.setExpiryDate(LocalDate.now().plusDays(1));
+        api.createFoodItem(item).get(5, TimeUnit.SECONDS);
+
+        // The stats event is published after the pending one, so once it is here the other would be too
+        assertNotNull(stats.poll(5, TimeUnit.SECONDS), "no dashboard.stats event");
+        assertTrue(pending.isEmpty());
+    }
+
+    private void awaitConnected() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!api.getPushChannel().isConnected()) {
+            assertTrue(System.nanoTime() < deadline, "push channel did not connect");
+            Thread.sleep(20);
+        }
+    }
+}
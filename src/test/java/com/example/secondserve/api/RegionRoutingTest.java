@@ -0,0 +1,159 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.AuthResponse;
+import com.example.secondserve.dto.HotelDto;
+import com.example.secondserve.dto.LoginRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * One stand-in per region, each holding the seeded hotel of its own division:
+ * dhaka (hotel 1, the home region), chattogram (hotel 2) and sylhet (hotel 3).
+ */
+class RegionRoutingTest {
+
+    private static final List<String> REGIONS = List.of("dhaka", "chattogram", "sylhet");
+    private static final Map<String, String> REGION_TABLE = Map.of(
+            "Dhaka Division", "dhaka", "Chattogram Division", "chattogram", "Sylhet Division", "sylhet");
+
+    @TempDir
+    Path dataDir;
+
+    private final Map<String, StandInServer> servers = new LinkedHashMap<>();
+
+    @BeforeEach
+    void startRegions() throws Exception {
+        for (String region : REGIONS) {
+            StandInServer server = StandInServer.start(0);
+            server.shardByState(REGION_TABLE.entrySet().stream()
+                    .filter(entry -> entry.getValue().equals(region)).findFirst().orElseThrow().getKey());
+            servers.put(region, server);
+        }
+    }
+
+    @AfterEach
+    void stopRegions() {
+        servers.values().forEach(StandInServer::stop);
+    }
+
+    @Test
+    void eachStateAlwaysGoesToTheSameRegion() {
+        RegionRouter router = router(REGIONS, Map.of("Sylhet Division", "dhaka"));
+        RegionRouter restarted = router(REGIONS, Map.of("Sylhet Division", "dhaka"));
+        for (String state : states(500)) {
+            assertEquals(router.regionForState(state), restarted.regionForState(state), state);
+        }
+        assertEquals(router.regionForState("State 7"), router.regionForState("  state 7 "));
+        assertEquals("dhaka", router.regionForState("Sylhet Division"), "the region table wins over the ring");
+    }
+
+    @Test
+    void addingARegionMovesAboutAQuarterOfTheStatesToIt() {
+        RegionRouter before = router(REGIONS, Map.of());
+        List<String> grown = new ArrayList<>(REGIONS);
+        grown.add("rajshahi");
+        RegionRouter after = router(grown, Map.of());
+
+        int moved = 0;
+        List<String> states = states(2000);
+        for (String state : states) {
+            String was = before.regionForState(state);
+            String is = after.regionForState(state);
+            if (!was.equals(is)) {
+                assertEquals("rajshahi", is, state + " moved between two old regions");
+                moved++;
+            }
+        }
+        double share = moved / (double) states.size();
+        assertTrue(share > 0.15 && share < 0.35, "moved " + share);
+    }
+
+    @Test
+    void hotelsOfEveryRegionAreMerged() throws Exception {
+        ApiClient api = connect("terminal");
+        List<HotelDto> hotels = api.getHotels().get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(1L, 2L, 3L), ids(hotels));
+
+        // The scatter taught the client which shard holds each hotel
+        assertEquals("Seaside Inn", api.getHotel(2).get(5, TimeUnit.SECONDS).getHotelName());
+        assertEquals("Hilltop Resort", api.getHotel(3).get(5, TimeUnit.SECONDS).getHotelName());
+    }
+
+    @Test
+    void deadRegionLeavesTheOthersHotels() throws Exception {
+        ApiClient api = connect("terminal");
+        servers.get("sylhet").stop();
+
+        List<HotelDto> hotels = api.getHotels().get(20, TimeUnit.SECONDS);
+        assertEquals(List.of(1L, 2L), ids(hotels));
+        assertEquals(1, api.getMetrics().count("scatter failed sylhet"));
+    }
+
+    @Test
+    void loginFindsAnAccountRegisteredInAnotherRegion() throws Exception {
+        HotelDto hotel = new HotelDto();
+        hotel.setHotelName("Tea Garden Lodge");
+        hotel.setEmail("lodge@example.com");
+        hotel.setPassword("secret");
+        hotel.setState("Sylhet Division");
+        AuthResponse registered = connect("signup").registerHotel(hotel).get(5, TimeUnit.SECONDS);
+
+        // Another terminal, in the dhaka region, only knows the email
+        ApiClient api = connect("terminal");
+        AuthResponse session = api.login(new LoginRequest("lodge@example.com", "secret", "HOTEL_MANAGER"))
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(registered.getUserId(), session.getUserId());
+        assertEquals("Tea Garden Lodge", api.getHotel(session.getUserId()).get(5, TimeUnit.SECONDS).getHotelName());
+
+        ExecutionException unknown = assertThrows(ExecutionException.class,
+                () -> api.login(new LoginRequest("nobody@example.com", "secret", "HOTEL_MANAGER")).get(10, TimeUnit.SECONDS));
+        assertEquals(401, ApiException.unwrap(unknown).getStatusCode());
+    }
+
+    private ApiClient connect(String name) {
+        Map<String, List<String>> regions = new LinkedHashMap<>();
+        servers.forEach((region, server) -> regions.put(region, List.of(server.getBaseUrl())));
+        return new ApiClient(StandInClients.config(servers.get("dhaka").getBaseUrl(), dataDir.resolve(name))
+                .withRegions(regions, "dhaka", REGION_TABLE));
+    }
+
+    private RegionRouter router(List<String> names, Map<String, String> regionTable) {
+        Map<String, List<String>> regions = new LinkedHashMap<>();
+        for (String name : names) {
+            regions.put(name, List.of("http://" + name + ".invalid"));
+        }
+        ApiConfig config = StandInClients.config("http://dhaka.invalid", dataDir)
+                .withRegions(regions, names.get(0), regionTable);
+        return new RegionRouter(config, HttpClient.newHttpClient(), new ApiMetrics(), Duration.ofSeconds(1));
+    }
+
+    private static List<String> states(int count) {
+        List<String> states = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            states.add("State " + i);
+        }
+        return states;
+    }
+
+    private static List<Long> ids(List<HotelDto> hotels) {
+        return hotels.stream().map(HotelDto::getId).sorted().collect(Collectors.toList());
+    }
+}
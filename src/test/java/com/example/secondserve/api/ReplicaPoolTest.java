@@ -0,0 +1,145 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.devserver.StandInServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a {@link ReplicaPool} against three stand-in backends. Background probing is
+ * switched off; the tests call {@link ReplicaPool#probeAll} themselves.
+ */
+class ReplicaPoolTest {
+
+    private final List<StandInServer> servers = new ArrayList<>();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ApiMetrics metrics = new ApiMetrics();
+    private ReplicaPool pool;
+
+    @BeforeEach
+    void startServers() throws IOException {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            StandInServer server = StandInServer.start(0);
+            servers.add(server);
+            urls.add(server.getBaseUrl());
+        }
+        pool = new ReplicaPool(urls, httpClient, metrics, Duration.ofSeconds(2), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(StandInServer::stop);
+    }
+
+    @Test
+    void picksTheReplicaWithFewestOutstandingRequests() {
+        ReplicaPool.Replica first = pool.acquire(null);
+        ReplicaPool.Replica second = pool.acquire(null);
+        ReplicaPool.Replica third = pool.acquire(null);
+        assertEquals(3, new HashSet<>(List.of(first, second, third)).size(), "each idle replica gets one");
+
+        pool.release(second, false);
+        assertSame(second, pool.acquire(null), "the only replica with nothing outstanding");
+    }
+
+    @Test
+    void slowReplicaGetsLessTraffic() throws Exception {
+        StandInServer slow = servers.get(0);
+        slow.simulateTailLatency(1.0, 200);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                done.add(callers.submit(() -> {
+                    for (int j = 0; j < 10; j++) send("/api/health");
+                    return null;
+                }));
+            }
+            for (Future<?> caller : done) caller.get();
+        } finally {
+            callers.shutdownNow();
+        }
+        long slowCount = metrics.count("replica requests " + slow.getBaseUrl());
+        for (StandInServer fast : servers.subList(1, 3)) {
+            long fastCount = metrics.count("replica requests " + fast.getBaseUrl());
+            assertTrue(slowCount < fastCount, "slow replica got " + slowCount + ", a fast one " + fastCount);
+        }
+    }
+
+    @Test
+    void ejectsAfterThreeFailuresInARow() throws Exception {
+        StandInServer failing = servers.get(0);
+        failing.simulateOutage(true);
+        int failures = 0;
+        while (pool.isAdmitted(failing.getBaseUrl())) {
+            if (send("/api/health") == 503) failures++;
+        }
+        assertEquals(3, failures);
+
+        Set<Integer> statuses = new HashSet<>();
+        long before = metrics.count("replica requests " + failing.getBaseUrl());
+        for (int i = 0; i < 20; i++) statuses.add(send("/api/health"));
+        assertEquals(Set.of(200), statuses);
+        assertEquals(before, metrics.count("replica requests " + failing.getBaseUrl()), "no traffic after ejection");
+    }
+
+    @Test
+    void readmitsAfterTwoHealthyProbes() throws Exception {
+        StandInServer failing = servers.get(0);
+        failing.simulateOutage(true);
+        for (int i = 0; i < 3; i++) pool.probeAll().get();
+        assertFalse(pool.isAdmitted(failing.getBaseUrl()));
+
+        failing.simulateOutage(false);
+        pool.probeAll().get();
+        assertFalse(pool.isAdmitted(failing.getBaseUrl()), "one healthy probe is not enough");
+        pool.probeAll().get();
+        assertTrue(pool.isAdmitted(failing.getBaseUrl()));
+    }
+
+    @Test
+    void stillSendsWhenEveryReplicaIsEjected() throws Exception {
+        servers.forEach(server -> server.simulateOutage(true));
+        for (int i = 0; i < 3; i++) pool.probeAll().get();
+        for (StandInServer server : servers) assertFalse(pool.isAdmitted(server.getBaseUrl()));
+
+        // The request is still sent and the server's answer comes back, rather than a refusal
+        assertEquals(503, send("/api/health"));
+        servers.forEach(server -> server.simulateOutage(false));
+        assertEquals(200, send("/api/health"));
+    }
+
+    // Sends one GET the way ResilientTransport does: built against the first URL, routed, released
+    private int send(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(servers.get(0).getBaseUrl() + path)).GET().build();
+        ReplicaPool.Replica replica = pool.acquire(null);
+        boolean failed = true;
+        try {
+            int status = httpClient.send(pool.route(request, replica), HttpResponse.BodyHandlers.discarding()).statusCode();
+            failed = status >= 500;
+            return status;
+        } finally {
+            pool.release(replica, failed);
+        }
+    }
+}
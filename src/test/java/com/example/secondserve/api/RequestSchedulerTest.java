@@ -0,0 +1,72 @@
+package com.example.secondserve.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Who gets the next free slot of a {@link RequestScheduler}, which allows 8 exchanges, 4 of them non-interactive. */
+class RequestSchedulerTest {
+
+    private final ApiMetrics metrics = new ApiMetrics();
+    private final RequestScheduler scheduler = new RequestScheduler(metrics);
+
+    @Test
+    void backgroundWorkLeavesSlotsFreeForTheUser() {
+        List<CompletableFuture<Void>> background = acquire(RequestPriority.BACKGROUND, 5);
+        assertEquals(4, background.stream().filter(CompletableFuture::isDone).count());
+
+        List<CompletableFuture<Void>> clicks = acquire(RequestPriority.INTERACTIVE_READ, 4);
+        assertTrue(clicks.stream().allMatch(CompletableFuture::isDone), "4 slots are kept for the user");
+        assertFalse(scheduler.acquire(RequestPriority.INTERACTIVE_WRITE).isDone(), "all 8 are taken");
+    }
+
+    @Test
+    void freedSlotGoesToTheMostUrgentWaitingCall() {
+        acquire(RequestPriority.INTERACTIVE_READ, 8);
+        CompletableFuture<Void> refresh = scheduler.acquire(RequestPriority.BACKGROUND);
+        CompletableFuture<Void> prefetch = scheduler.acquire(RequestPriority.PREFETCH);
+        CompletableFuture<Void> read = scheduler.acquire(RequestPriority.INTERACTIVE_READ);
+        CompletableFuture<Void> save = scheduler.acquire(RequestPriority.INTERACTIVE_WRITE);
+
+        scheduler.release();
+        assertTrue(save.isDone());
+        assertFalse(read.isDone());
+        scheduler.release();
+        assertTrue(read.isDone());
+        // 8 are still running: more than a prefetch may start next to
+        scheduler.release();
+        assertFalse(prefetch.isDone());
+        for (int i = 0; i < 4; i++) scheduler.release();
+        assertTrue(prefetch.isDone());
+        assertFalse(refresh.isDone());
+        scheduler.release();
+        assertTrue(refresh.isDone());
+    }
+
+    @Test
+    void callThatWaitedTooLongGoesNextWhateverItsClass() throws Exception {
+        acquire(RequestPriority.INTERACTIVE_READ, 8);
+        CompletableFuture<Void> refresh = scheduler.acquire(RequestPriority.BACKGROUND);
+        Thread.sleep(PriorityWaitQueue.MAX_WAIT_MILLIS + 100);
+        CompletableFuture<Void> read = scheduler.acquire(RequestPriority.INTERACTIVE_READ);
+
+        scheduler.release();
+        assertTrue(refresh.isDone(), "the refresh starved and is promoted");
+        assertFalse(read.isDone());
+        assertEquals(1, metrics.count("queue promoted background"));
+    }
+
+    private List<CompletableFuture<Void>> acquire(RequestPriority priority, int count) {
+        List<CompletableFuture<Void>> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(scheduler.acquire(priority));
+        }
+        return permits;
+    }
+}
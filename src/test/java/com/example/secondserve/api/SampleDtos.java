@@ -0,0 +1,76 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.dto.FoodRequestDto;
+import com.example.secondserve.dto.HotelDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Realistic DTO lists for the payload benchmarks, shaped like the stand-in's seeded data. */
+final class SampleDtos {
+
+    private static final String[] FOODS = {"Vegetable Biryani", "Dal", "Bread Rolls", "Chicken Curry", "Fruit Salad"};
+    private static final String[] HOTELS = {"Grand Palace Hotel", "Seaside Inn", "Hilltop Resort"};
+    private static final String[] STATUSES = {"COMPLETED", "REJECTED", "APPROVED", "PENDING"};
+    private static final String[] NOTES = {
+            "Pickup by van, please pack in trays",
+            "Volunteer will collect after evening prayers",
+            "For the shelter on Lake Road",
+            null,
+    };
+    private static final String[][] PLACES = {
+            {"Dhaka", "Dhaka Division"}, {"Chattogram", "Chattogram Division"}, {"Sylhet", "Sylhet Division"},
+    };
+
+    private SampleDtos() {
+    }
+
+    /** An NGO's request history of {@code count} rows, as {@code /api/food-requests/ngo/{id}} returns it. */
+    static List<FoodRequestDto> requestHistory(int count) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 30);
+        List<FoodRequestDto> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            FoodRequestDto request = new FoodRequestDto();
+            request.setId(1000L + i);
+            request.setNgoId(1L);
+            request.setNgoName("Food For All");
+            request.setFoodItemId(101L + i % FOODS.length);
+            request.setFoodItemName(FOODS[i % FOODS.length]);
+            request.setHotelName(HOTELS[i % HOTELS.length]);
+            request.setRequestedQuantity(BigDecimal.valueOf(1 + i % 9, 1).add(BigDecimal.ONE));
+            request.setUnit(i % 2 == 0 ? "kg" : "portions");
+            request.setRequestDate(start.plusMinutes(37L * i));
+            request.setNotes(NOTES[i % NOTES.length]);
+            request.setRequestStatus(STATUSES[i % STATUSES.length]);
+            request.setPickupDate(i % 4 == 0 ? start.plusMinutes(37L * i + 90) : null);
+            request.setVersion(1L + i % 3);
+            rows.add(request);
+        }
+        return rows;
+    }
+
+    /** {@code count} full hotel profiles, as {@code /api/hotels} returns them without {@code ?fields=}. */
+    static List<HotelDto> hotels(int count) {
+        List<HotelDto> hotels = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String[] place = PLACES[i % PLACES.length];
+            HotelDto hotel = new HotelDto();
+            hotel.setId(i + 1);
+            hotel.setHotelName(HOTELS[i % HOTELS.length] + " " + (i + 1));
+            hotel.setManagerName("Manager " + (i + 1));
+            hotel.setEmail("manager" + (i + 1) + "@example.com");
+            hotel.setAddress((i + 10) + " Main Road");
+            hotel.setCity(place[0]);
+            hotel.setState(place[1]);
+            hotel.setPostalCode(String.valueOf(1000 + i % 9000));
+            hotel.setPhone("+880-1700-" + String.format("%06d", i));
+            hotel.setHotelLicense("LIC-" + (1000 + i));
+            hotel.setHotelCode("HTL" + (i + 1));
+            hotel.setRegistrationDate(LocalDateTime.of(2023, 6, 1, 12, 0).plusDays(i % 365));
+            hotels.add(hotel);
+        }
+        return hotels;
+    }
+}
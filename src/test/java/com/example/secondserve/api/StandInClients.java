@@ -0,0 +1,37 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.SessionManager;
+import com.example.secondserve.devserver.StandInServer;
+import com.example.secondserve.dto.AuthResponse;
+import com.example.secondserve.dto.LoginRequest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/** ApiClients for tests, talking to stand-in backends instead of the configured server. */
+final class StandInClients {
+
+    private StandInClients() {
+    }
+
+    /** JSON rather than CBOR, so failures are readable; no hedging unless a test asks for it. */
+    static ApiConfig config(String baseUrls, Path dataDir) {
+        return new ApiConfig(baseUrls, Duration.ofSeconds(2), Duration.ofSeconds(5), dataDir, false, 95, 0);
+    }
+
+    static ApiClient connect(StandInServer server, Path dataDir) {
+        return new ApiClient(config(server.getBaseUrl(), dataDir));
+    }
+
+    /**
+     * Logs in through {@code api} and makes that the session, as the login screen does. The session
+     * also starts the shared client's push channel, which is stopped again: it is not the one under test.
+     */
+    static AuthResponse logIn(ApiClient api, String email, String userType) throws Exception {
+        AuthResponse session = api.login(new LoginRequest(email, "secret", userType)).get(5, TimeUnit.SECONDS);
+        SessionManager.createSession(session);
+        ApiClient.getInstance().getPushChannel().stop();
+        return session;
+    }
+}
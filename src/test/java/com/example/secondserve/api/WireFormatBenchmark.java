@@ -0,0 +1,135 @@
+package com.example.secondserve.api;
+
+import com.example.secondserve.dto.FoodRequestDto;
+import com.example.secondserve.dto.HotelDto;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode throughput, and bytes allocated per call, of DTO lists as JSON and
+ * CBOR, each with and without gzip, for several list sizes. The mappers are set up
+ * like the two ends of WireFormat: JSON with ISO date text as the server writes it,
+ * CBOR with dates as numeric arrays.
+ * <p>
+ * Not run by the test suite. Run its {@code main} from the test classpath (e.g. from
+ * the IDE); list sizes can be given as program arguments (default 10 100 1000 10000).
+ * Allocation is read from com.sun.management.ThreadMXBean and shows as n/a on JVMs
+ * without it.
+ */
+public class WireFormatBenchmark {
+
+    private static final long WARMUP_NANOS = 300_000_000L;
+    private static final long MEASURE_NANOS = 700_000_000L;
+
+    private final ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ObjectMapper cbor = new CBORMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length == 0 ? new int[]{10, 100, 1000, 10000} : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        WireFormatBenchmark benchmark = new WireFormatBenchmark();
+        System.out.printf("%-15s %-9s %6s %10s %12s %12s %13s %13s%n",
+                "dto", "format", "rows", "bytes", "encode/s", "decode/s", "encode alloc", "decode alloc");
+        for (int size : sizes) {
+            benchmark.compare("FoodRequestDto", size, SampleDtos.requestHistory(size), FoodRequestDto.class);
+            benchmark.compare("HotelDto", size, SampleDtos.hotels(size), HotelDto.class);
+        }
+    }
+
+    private void compare(String dto, int rows, List<?> list, Class<?> elementType) throws IOException {
+        run(dto, "json", rows, list, elementType, json, false);
+        run(dto, "json+gzip", rows, list, elementType, json, true);
+        run(dto, "cbor", rows, list, elementType, cbor, false);
+        run(dto, "cbor+gzip", rows, list, elementType, cbor, true);
+    }
+
+    private void run(String dto, String format, int rows, List<?> list, Class<?> elementType,
+                     ObjectMapper mapper, boolean gzip) throws IOException {
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, elementType);
+        byte[] body = encode(mapper, list, gzip);
+        Result encoding = measure(() -> encode(mapper, list, gzip));
+        Result decoding = measure(() -> {
+            if (!gzip) return mapper.readValue(body, listType);
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                return mapper.readValue(in, listType);
+            }
+        });
+        System.out.printf("%-15s %-9s %6d %10d %12.0f %12.0f %13s %13s%n", dto, format, rows, body.length,
+                encoding.callsPerSecond, decoding.callsPerSecond, bytes(encoding.allocatedPerCall), bytes(decoding.allocatedPerCall));
+    }
+
+    private static byte[] encode(ObjectMapper mapper, List<?> list, boolean gzip) throws IOException {
+        if (!gzip) return mapper.writeValueAsBytes(list);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream compressed = new GZIPOutputStream(out)) {
+            mapper.writeValue(compressed, list);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Object run() throws IOException;
+    }
+
+    private static final class Result {
+        final double callsPerSecond;
+        final long allocatedPerCall; // -1 if unknown
+
+        Result(double callsPerSecond, long allocatedPerCall) {
+            this.callsPerSecond = callsPerSecond;
+            this.allocatedPerCall = allocatedPerCall;
+        }
+    }
+
+    // Repeats the call for a fixed time after warming up, so small and large lists both get enough runs
+    private static Result measure(Call call) throws IOException {
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            call.run();
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long calls = 0;
+        long elapsed;
+        do {
+            call.run();
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        long allocated = allocatedBytes() - allocatedBefore;
+        return new Result(calls / (elapsed / 1e9), allocatedBefore < 0 ? -1 : allocated / calls);
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean
+                ? ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes()
+                : -1;
+    }
+
+    private static String bytes(long count) {
+        if (count < 0) return "n/a";
+        if (count < 10_000) return count + " B";
+        if (count < 10_000_000) return (count / 1024) + " KB";
+        return (count / (1024 * 1024)) + " MB";
+    }
+}
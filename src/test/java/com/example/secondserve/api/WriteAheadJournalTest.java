@@ -0,0 +1,98 @@
+package com.example.secondserve.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Writes records, damages the file the way a crash or a bad disk would, and opens it again. */
+class WriteAheadJournalTest {
+
+    private static final int HEADER_BYTES = Integer.BYTES + 1 + Long.BYTES;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversEveryRecordInOrder() throws Exception {
+        Path file = write("one", "two", "three");
+        try (WriteAheadJournal journal = new WriteAheadJournal(file)) {
+            assertEquals(List.of("one", "two", "three"), payloads(journal));
+            assertEquals(List.of((byte) 1, (byte) 2, (byte) 3),
+                    journal.recovered().stream().map(record -> record.type).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void tornTailIsCutOffAndAppendingCarriesOn() throws Exception {
+        Path file = write("one", "two");
+        long intact = Files.size(file);
+        // A crash halfway through the third record: its header promises more bytes than were written
+        byte[] torn = {0, 0, 0, 100, 1, 0, 0, 0, 0, 0, 0, 0, 0, 'p', 'a', 'r'};
+        Files.write(file, torn, StandardOpenOption.APPEND);
+
+        try (WriteAheadJournal journal = new WriteAheadJournal(file)) {
+            assertEquals(List.of("one", "two"), payloads(journal));
+            assertEquals(intact, Files.size(file));
+            journal.append((byte) 1, bytes("three")).get(5, TimeUnit.SECONDS);
+        }
+        try (WriteAheadJournal journal = new WriteAheadJournal(file)) {
+            assertEquals(List.of("one", "two", "three"), payloads(journal));
+        }
+    }
+
+    @Test
+    void recordFailingItsChecksumIsDroppedWithEverythingAfterIt() throws Exception {
+        Path file = write("one", "two", "three");
+        byte[] data = Files.readAllBytes(file);
+        int secondPayload = HEADER_BYTES + "one".length() + HEADER_BYTES;
+        data[secondPayload] ^= 0x20; // "two" becomes "Two"
+        Files.write(file, data);
+
+        try (WriteAheadJournal journal = new WriteAheadJournal(file)) {
+            assertEquals(List.of("one"), payloads(journal));
+            assertEquals(HEADER_BYTES + "one".length(), Files.size(file));
+        }
+    }
+
+    @Test
+    void truncateDropsEveryRecord() throws Exception {
+        Path file = write("one", "two");
+        try (WriteAheadJournal journal = new WriteAheadJournal(file)) {
+            journal.truncate();
+            journal.append((byte) 1, bytes("three")).get(5, TimeUnit.SECONDS);
+        }
+        try (WriteAheadJournal journal = new WriteAheadJournal(file)) {
+            assertEquals(List.of("three"), payloads(journal));
+        }
+    }
+
+    // A journal holding one record per payload, of types 1, 2, 3...; every append is durable before it closes
+    private Path write(String... payloads) throws Exception {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadJournal journal = new WriteAheadJournal(file)) {
+            for (int i = 0; i < payloads.length; i++) {
+                journal.append((byte) (i + 1), bytes(payloads[i])).get(5, TimeUnit.SECONDS);
+            }
+        }
+        return file;
+    }
+
+    private static List<String> payloads(WriteAheadJournal journal) {
+        return journal.recovered().stream()
+                .map(record -> new String(record.payload, StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.secondserve.devserver;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * A request run through the normal route handlers with its response kept in memory.
+ * <p>
+ * Used for the parts of a {@code POST /api/batch}, each run as if it were a GET of
+ * its own so the batch handler can put its answer into the combined one (parts
+ * always ask for plain JSON; the batch response as a whole is negotiated and
+ * compressed like any other), and for POSTs with an {@code Idempotency-Key}, whose
+ * answer is kept to be replayed.
+ */
+final class BufferedExchange extends HttpExchange {
+
+    private final HttpExchange batch;
+    private final String method;
+    private final URI uri;
+    private final byte[] requestBody;
+    private final Headers requestHeaders = new Headers();
+    private final Headers responseHeaders = new Headers();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private int status = -1;
+
+    BufferedExchange(HttpExchange batch, String pathAndQuery) {
+        this.batch = batch;
+        this.method = "GET";
+        this.uri = URI.create(pathAndQuery);
+        this.requestBody = new byte[0];
+        requestHeaders.set("Accept", "application/json");
+        String authorization = batch.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null) requestHeaders.set("Authorization", authorization);
+    }
+
+    /** The request of {@code original} as it arrived, its body already read into {@code requestBody}. */
+    BufferedExchange(HttpExchange original, byte[] requestBody) {
+        this.batch = original;
+        this.method = original.getRequestMethod();
+        this.uri = original.getRequestURI();
+        this.requestBody = requestBody;
+        requestHeaders.putAll(original.getRequestHeaders());
+    }
+
+    byte[] body() {
+        return body.toByteArray();
+    }
+
+    @Override public Headers getRequestHeaders() { return requestHeaders; }
+    @Override public Headers getResponseHeaders() { return responseHeaders; }
+    @Override public URI getRequestURI() { return uri; }
+    @Override public String getRequestMethod() { return method; }
+    @Override public HttpContext getHttpContext() { return batch.getHttpContext(); }
+    @Override public void close() { }
+    @Override public InputStream getRequestBody() { return new ByteArrayInputStream(requestBody); }
+    @Override public OutputStream getResponseBody() { return body; }
+    @Override public void sendResponseHeaders(int rCode, long responseLength) { status = rCode; }
+    @Override public InetSocketAddress getRemoteAddress() { return batch.getRemoteAddress(); }
+    @Override public int getResponseCode() { return status; }
+    @Override public InetSocketAddress getLocalAddress() { return batch.getLocalAddress(); }
+    @Override public String getProtocol() { return batch.getProtocol(); }
+    @Override public Object getAttribute(String name) { return null; }
+    @Override public void setAttribute(String name, Object value) { }
+    @Override public void setStreams(InputStream i, OutputStream o) { }
+    @Override public HttpPrincipal getPrincipal() { return null; }
+}
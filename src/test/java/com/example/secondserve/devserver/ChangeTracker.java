@@ -0,0 +1,84 @@
+package com.example.secondserve.devserver;
+
+import com.example.secondserve.dto.ChangeSetDto;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Change log for one entity table of the stand-in backend, used to answer the
+ * {@code .../changes?since=<cursor>} endpoints. Every write bumps a sequence
+ * number; the cursor handed to clients is simply the current sequence.
+ * Not thread-safe - callers hold the server's data lock.
+ */
+final class ChangeTracker {
+
+    private long sequence;
+    private final Map<Long, long[]> versions = new HashMap<>(); // id -> {createdAt, modifiedAt}
+    private final Map<Long, Long> deletedAt = new HashMap<>();
+
+    String cursor() {
+        return Long.toString(sequence);
+    }
+
+    void created(long id) {
+        sequence++;
+        versions.put(id, new long[] {sequence, sequence});
+        deletedAt.remove(id);
+    }
+
+    void modified(long id) {
+        sequence++;
+        long[] version = versions.get(id);
+        if (version != null) version[1] = sequence;
+    }
+
+    void deleted(long id) {
+        sequence++;
+        versions.remove(id);
+        deletedAt.put(id, sequence);
+    }
+
+    /**
+     * Changes of the rows of {@code all} selected by {@code filter} after {@code since}.
+     * A row that changed and no longer matches the filter is reported as removed.
+     * An unparsable or future cursor gets a reset with the full filtered collection.
+     */
+    <T> ChangeSetDto<T> changesSince(String since, Collection<T> all, Function<T, Long> idOf, Predicate<T> filter) {
+        ChangeSetDto<T> changes = new ChangeSetDto<>();
+        changes.setCursor(cursor());
+
+        long from;
+        try {
+            from = Long.parseLong(since);
+        } catch (NumberFormatException | NullPointerException e) {
+            from = -1;
+        }
+        if (from < 0 || from > sequence) {
+            changes.setReset(true);
+            for (T row : all) {
+                if (filter.test(row)) changes.getAdded().add(row);
+            }
+            return changes;
+        }
+
+        for (T row : all) {
+            long[] version = versions.get(idOf.apply(row));
+            if (version == null || version[1] <= from) continue;
+            if (!filter.test(row)) {
+                changes.getRemoved().add(idOf.apply(row));
+            } else if (version[0] > from) {
+                changes.getAdded().add(row);
+            } else {
+                changes.getUpdated().add(row);
+            }
+        }
+        for (Map.Entry<Long, Long> tombstone : deletedAt.entrySet()) {
+            if (tombstone.getValue() > from) changes.getRemoved().add(tombstone.getKey());
+        }
+        return changes;
+    }
+}
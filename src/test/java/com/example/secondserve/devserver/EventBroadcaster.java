@@ -0,0 +1,99 @@
+package com.example.secondserve.devserver;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server side of {@code GET /api/events} for the stand-in backend.
+ * Keeps every open text/event-stream response and writes each published event
+ * to all of them. The last events are retained so a client reconnecting with
+ * {@code Last-Event-ID} gets what it missed.
+ */
+final class EventBroadcaster {
+
+    private static final int REPLAY_BUFFER_SIZE = 256;
+
+    private final List<OutputStream> clients = new CopyOnWriteArrayList<>();
+    private final Deque<String[]> recent = new ArrayDeque<>(); // {id, frame}
+    private final ScheduledExecutorService keepAlive = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stand-in-sse-keepalive");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long nextId = 1;
+
+    EventBroadcaster() {
+        keepAlive.scheduleAtFixedRate(this::ping, 15, 15, TimeUnit.SECONDS);
+    }
+
+    // Synchronized like publish() so a ping never interleaves with an event frame
+    private synchronized void ping() {
+        writeToAll(":keep-alive\n\n");
+    }
+
+    /** Opens a stream for one client and replays anything after its Last-Event-ID. */
+    void open(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        synchronized (this) {
+            if (lastEventId != null) {
+                long lastSeen = Long.parseLong(lastEventId);
+                for (String[] event : recent) {
+                    if (Long.parseLong(event[0]) > lastSeen) write(out, event[1]);
+                }
+            }
+            clients.add(out);
+        }
+        write(out, ":connected\n\n");
+    }
+
+    synchronized void publish(String eventType, String jsonData) {
+        String id = Long.toString(nextId++);
+        String frame = "id: " + id + "\nevent: " + eventType + "\ndata: " + jsonData + "\n\n";
+        recent.addLast(new String[] {id, frame});
+        if (recent.size() > REPLAY_BUFFER_SIZE) recent.removeFirst();
+        writeToAll(frame);
+    }
+
+    void closeAll() {
+        keepAlive.shutdownNow();
+        for (OutputStream out : clients) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // client already gone
+            }
+        }
+        clients.clear();
+    }
+
+    private void writeToAll(String frame) {
+        for (OutputStream out : clients) {
+            if (!write(out, frame)) clients.remove(out);
+        }
+    }
+
+    private static boolean write(OutputStream out, String frame) {
+        try {
+            out.write(frame.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return true;
+        } catch (IOException e) {
+            return false; // disconnected client
+        }
+    }
+}
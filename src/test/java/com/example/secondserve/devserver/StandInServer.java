@@ -0,0 +1,925 @@
+package com.example.secondserve.devserver;
+
+import com.example.secondserve.dto.AuthResponse;
+import com.example.secondserve.dto.BatchRequestDto;
+import com.example.secondserve.dto.BatchResponseDto;
+import com.example.secondserve.dto.BulkTransitionRequestDto;
+import com.example.secondserve.dto.BulkTransitionResultDto;
+import com.example.secondserve.dto.ChangeSetDto;
+import com.example.secondserve.dto.DashboardStatsDto;
+import com.example.secondserve.dto.FoodItemDto;
+import com.example.secondserve.dto.FoodRequestDto;
+import com.example.secondserve.dto.HotelDto;
+import com.example.secondserve.dto.NgoDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A small in-memory stand-in for the SecondServe backend, for running the
+ * desktop client without the real server. It implements the same endpoints the
+ * client calls, with seeded sample data, and pushes the live update events
+ * consumed by {@code PushChannel}.
+ * <p>
+ * It lives with the tests, which start it in-process, and is not shipped with the client.
+ * For manual runs start it from the test classpath (e.g. from the IDE) with
+ * {@code com.example.secondserve.devserver.StandInServer [port]}
+ * and point the client at it with {@code -Dsecondserve.api.url=http://localhost:<port>}.
+ * Any email/password logs in; authorization headers are not checked. Hotel, NGO,
+ * dashboard-stats and hotel food-item GETs carry ETag/Last-Modified validators and
+ * answer conditional requests with 304; hotel and NGO profiles also take conditional
+ * JSON Merge Patch updates. Food requests carry a version that their status changes may be made
+ * conditional on with If-Match; a change based on an older version gets 412 and the current request.
+ * {@code POST /api/batch} runs several GETs and answers them together.
+ * POSTs with an {@code Idempotency-Key} are run once per key. Clients that list {@code application/cbor}
+ * in Accept get CBOR bodies and may send CBOR. A {@code fields=a,b,c} query parameter
+ * trims every returned object to those properties.
+ */
+public final class StandInServer {
+
+    private static final long HOTEL_ID = 1L;
+    private static final long NGO_ID = 1L;
+
+    private final HttpServer server;
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    // Dates stay numeric arrays in CBOR, so a client decodes them without any text parsing
+    private final ObjectMapper cborMapper = new CBORMapper().registerModule(new JavaTimeModule());
+    private final EventBroadcaster events = new EventBroadcaster();
+    private final List<Route> routes = new ArrayList<>();
+
+    // --- In-memory data, guarded by "this" ---
+    private final Map<Long, HotelDto> hotels = new TreeMap<>();
+    private final Map<Long, NgoDto> ngos = new TreeMap<>();
+    private final Map<Long, FoodItemDto> foodItems = new TreeMap<>();
+    private final Map<Long, FoodRequestDto> foodRequests = new TreeMap<>();
+    private final AtomicLong nextId = new AtomicLong(100);
+    private final ChangeTracker foodItemChanges = new ChangeTracker();
+    private final ChangeTracker foodRequestChanges = new ChangeTracker();
+    private final Map<String, Validator> validators = new ConcurrentHashMap<>(); // by request URL
+    private final Map<String, Replay> replays = new ConcurrentHashMap<>(); // by Idempotency-Key
+    private volatile double slowFraction; // share of requests delayed by slowMillis, to reproduce tail latency
+    private volatile long slowMillis;
+    private volatile boolean down; // answers 503 to everything, health checks included
+    private final AtomicInteger failuresLeft = new AtomicInteger(); // next requests answered with 503
+    private volatile boolean changeFeeds = true; // false: /changes endpoints are 404, like a server without delta sync
+    private boolean sharded; // holds one region's hotels only, so it does not know every account
+
+    private StandInServer(int port, int historyRows) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(workers);
+        server.createContext("/api", this::dispatch);
+        registerRoutes();
+        seed();
+        seedRequestHistory(historyRows);
+    }
+
+    /** Starts a server on {@code port}; pass 0 to pick a free port. */
+    public static StandInServer start(int port) throws IOException {
+        return start(port, 0);
+    }
+
+    /**
+     * As above, with {@code historyRows} past (completed or rejected) requests of the
+     * NGO, for measuring payload size and decode time on a realistic history list.
+     */
+    public static StandInServer start(int port, int historyRows) throws IOException {
+        StandInServer standIn = new StandInServer(port, historyRows);
+        standIn.server.start();
+        return standIn;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    /** Delays a random {@code fraction} of requests by {@code millis}, like a node with a bad tail. */
+    public void simulateTailLatency(double fraction, long millis) {
+        this.slowFraction = fraction;
+        this.slowMillis = millis;
+    }
+
+    /** While {@code down}, answers every request (health checks too) with 503, like a node that is failing. */
+    public void simulateOutage(boolean down) {
+        this.down = down;
+    }
+
+    /** Answers the next {@code count} requests with 503, like a node that recovers after a hiccup. */
+    public void simulateFailures(int count) {
+        failuresLeft.set(count);
+    }
+
+    /** Answers every {@code /changes} endpoint with 404 from now on, like a server from before delta sync. */
+    public void disableChangeFeeds() {
+        this.changeFeeds = false;
+    }
+
+    /**
+     * Keeps only the hotels in {@code states} (and their food items), like the shard of
+     * one region; start one stand-in per region to try region routing locally. A shard
+     * answers 401 to a login it holds no account for, where other stand-ins take any email.
+     */
+    public synchronized void shardByState(String... states) {
+        List<String> kept = Arrays.asList(states);
+        sharded = true;
+        hotels.values().removeIf(hotel -> !kept.contains(hotel.getState()));
+        foodItems.values().removeIf(item -> !hotels.containsKey(item.getHotelId()));
+    }
+
+    public void stop() {
+        events.closeAll();
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int historyRows = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        StandInServer standIn = start(port, historyRows);
+        System.out.println("Stand-in backend listening on " + standIn.getBaseUrl());
+    }
+
+    // --- Routing ---
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange, Matcher path) throws IOException;
+    }
+
+    private static final class Route {
+        final String method;
+        final Pattern pattern;
+        final Handler handler;
+
+        Route(String method, String regex, Handler handler) {
+            this.method = method;
+            this.pattern = Pattern.compile(regex);
+            this.handler = handler;
+        }
+    }
+
+    private void route(String method, String regex, Handler handler) {
+        routes.add(new Route(method, regex, handler));
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        if (down || (!(exchange instanceof BufferedExchange) && failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0)) {
+            sendStatus(exchange, 503);
+            return;
+        }
+        String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        if ("POST".equals(exchange.getRequestMethod()) && idempotencyKey != null && !(exchange instanceof BufferedExchange)) {
+            runOnce(exchange, idempotencyKey);
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        if (slowFraction > 0 && ThreadLocalRandom.current().nextDouble() < slowFraction) {
+            try {
+                Thread.sleep(slowMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            for (Route route : routes) {
+                Matcher matcher = route.pattern.matcher(path);
+                if (route.method.equals(exchange.getRequestMethod()) && matcher.matches()) {
+                    route.handler.handle(exchange, matcher);
+                    return;
+                }
+            }
+            sendStatus(exchange, 404);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            sendStatus(exchange, 500);
+        }
+    }
+
+    private void registerRoutes() {
+        route("GET", "/api/events", (ex, m) -> events.open(ex));
+        route("GET", "/api/health", (ex, m) -> sendJson(ex, 200, Map.of("status", "UP")));
+
+        route("POST", "/api/auth/login", (ex, m) -> {
+            JsonNode login = readBody(ex, JsonNode.class); // LoginRequest has no default constructor
+            AuthResponse session = logIn(login.path("userType").asText(), login.path("email").asText());
+            if (session == null) sendJson(ex, 401, Map.of("message", "Invalid email or password"));
+            else sendJson(ex, 200, session);
+        });
+        route("POST", "/api/staff/register", (ex, m) ->
+                sendJson(ex, 201, session("KITCHEN_STAFF", "new-user@example.com", HOTEL_ID)));
+        route("POST", "/api/hotels/register", (ex, m) -> {
+            HotelDto hotel = registerHotel(readBody(ex, HotelDto.class));
+            sendJson(ex, 201, session("HOTEL_MANAGER", hotel.getEmail(), hotel.getId()));
+        });
+        route("POST", "/api/ngos/register", (ex, m) -> {
+            NgoDto ngo = registerNgo(readBody(ex, NgoDto.class));
+            sendJson(ex, 201, session("NGO", ngo.getEmail(), ngo.getId()));
+        });
+
+        route("POST", "/api/batch", (ex, m) -> {
+            BatchRequestDto batch = readBody(ex, BatchRequestDto.class);
+            List<BatchResponseDto.Part> answers = new ArrayList<>();
+            for (BatchRequestDto.Part part : batch.getRequests()) {
+                answers.add(runBatchPart(ex, part));
+            }
+            sendJson(ex, 200, new BatchResponseDto(answers));
+        });
+
+        route("GET", "/api/hotels", (ex, m) -> sendCacheable(ex, snapshot(hotels)));
+        route("GET", "/api/hotels/dashboard-stats", (ex, m) -> sendCacheable(ex, dashboardStats()));
+        route("GET", "/api/hotels/(\\d+)", (ex, m) -> sendCacheableOr404(ex, get(hotels, id(m))));
+        route("PUT", "/api/hotels/(\\d+)", (ex, m) -> {
+            HotelDto update = readBody(ex, HotelDto.class);
+            sendOr404(ex, updateHotel(id(m), update));
+        });
+        route("PATCH", "/api/hotels/(\\d+)", (ex, m) -> mergePatch(ex, hotels, id(m), HotelDto.class,
+                List.of("hotelName", "managerName", "phone", "address")));
+
+        route("GET", "/api/ngos/(\\d+)", (ex, m) -> sendCacheableOr404(ex, get(ngos, id(m))));
+        route("PUT", "/api/ngos/(\\d+)", (ex, m) -> {
+            NgoDto update = readBody(ex, NgoDto.class);
+            sendOr404(ex, updateNgo(id(m), update));
+        });
+        route("PATCH", "/api/ngos/(\\d+)", (ex, m) -> mergePatch(ex, ngos, id(m), NgoDto.class,
+                List.of("ngoName", "contactPerson", "phone", "address")));
+
+        route("GET", "/api/food-items/hotel/(\\d+)", (ex, m) -> sendCacheable(ex,
+                filterItems(item -> item.getHotelId() == id(m) && Boolean.TRUE.equals(item.getIsAvailable()))));
+        syncedList("/api/food-items/hotel/(\\d+)/pending", foodItemChanges, foodItems, FoodItemDto::getId,
+                (ex, m) -> item -> item.getHotelId() == id(m) && !Boolean.TRUE.equals(item.getIsAvailable()));
+        syncedList("/api/food-items/hotel/(\\d+)/today", foodItemChanges, foodItems, FoodItemDto::getId,
+                (ex, m) -> item -> item.getHotelId() == id(m) && item.getLoggedAt().toLocalDate().equals(LocalDate.now()));
+        route("POST", "/api/food-items", (ex, m) -> sendJson(ex, 201,
+                createFoodItem(readBody(ex, FoodItemDto.class))));
+        route("POST", "/api/food-items/bulk-transition", (ex, m) -> {
+            BulkTransitionRequestDto bulk = readBody(ex, BulkTransitionRequestDto.class);
+            sendJson(ex, 200, bulkTransition(bulk, id ->
+                    ("reject".equals(bulk.getAction()) ? rejectFoodItem(id) : approveFoodItem(id) != null) ? 200 : 404));
+        });
+        route("PUT", "/api/food-items/(\\d+)/approve", (ex, m) -> sendOr404(ex, approveFoodItem(id(m))));
+        route("DELETE", "/api/food-items/(\\d+)", (ex, m) -> sendStatus(ex, rejectFoodItem(id(m)) ? 204 : 404));
+
+        syncedList("/api/food-requests/ngo/(\\d+)", foodRequestChanges, foodRequests, FoodRequestDto::getId,
+                (ex, m) -> request -> request.getNgoId() == id(m));
+        syncedList("/api/food-requests/hotel/(\\d+)", foodRequestChanges, foodRequests, FoodRequestDto::getId, (ex, m) -> {
+            String status = queryParam(ex, "status");
+            return request -> status == null || status.equalsIgnoreCase(request.getRequestStatus());
+        });
+        route("POST", "/api/food-requests", (ex, m) -> {
+            FoodRequestDto created = createFoodRequest(readBody(ex, FoodRequestDto.class));
+            if (created == null) sendStatus(ex, 409); else sendJson(ex, 201, created);
+        });
+        route("POST", "/api/food-requests/bulk-transition", (ex, m) -> {
+            BulkTransitionRequestDto bulk = readBody(ex, BulkTransitionRequestDto.class);
+            if (bulk.getAction() == null || !bulk.getAction().matches("approve|reject|complete")) {
+                sendStatus(ex, 400);
+                return;
+            }
+            Map<Long, Long> versions = bulk.getVersions() != null ? bulk.getVersions() : Map.of();
+            BulkTransitionResultDto result;
+            synchronized (this) {
+                result = bulkTransition(bulk, id -> {
+                    FoodRequestDto request = foodRequests.get(id);
+                    if (request == null) return 404;
+                    if (versions.containsKey(id) && !versions.get(id).equals(request.getVersion())) return 412;
+                    transitionFoodRequest(id, bulk.getAction());
+                    return 200;
+                });
+                // As with a single change refused with 412, the current request goes with the refusal
+                result.getResults().stream().filter(item -> item.getStatus() == 412)
+                        .forEach(item -> item.setCurrent(foodRequests.get(item.getId())));
+            }
+            sendJson(ex, 200, result);
+        });
+        route("PUT", "/api/food-requests/(\\d+)/(approve|reject|complete)", (ex, m) -> {
+            synchronized (this) {
+                FoodRequestDto request = foodRequests.get(id(m));
+                if (request == null) {
+                    sendStatus(ex, 404);
+                    return;
+                }
+                // Decided on an older copy (another manager got there first): refused, with the current copy
+                boolean stale = !matches(ex.getRequestHeaders().getFirst("If-Match"), versionTag(request));
+                FoodRequestDto answer = stale ? request : transitionFoodRequest(request.getId(), m.group(2));
+                ex.getResponseHeaders().set("ETag", versionTag(answer));
+                sendJson(ex, stale ? 412 : 200, answer);
+            }
+        });
+    }
+
+    /** The first answer to a POST with an Idempotency-Key. */
+    private static final class Replay {
+        final String fingerprint; // method, path and body of the first request
+        final CompletableFuture<BufferedExchange> response = new CompletableFuture<>();
+
+        Replay(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Runs a POST carrying an Idempotency-Key once. The same key again gets the first answer
+     * replayed (with {@code Idempotent-Replayed: true}) instead of creating a duplicate; a
+     * different request under a used key is refused with 422, and a repeat that arrives while
+     * the first is still being processed with 409. An answer of 5xx is not kept, so the
+     * client can try again with the same key. Keys are kept for the life of the stand-in.
+     */
+    private void runOnce(HttpExchange exchange, String key) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String fingerprint = exchange.getRequestMethod() + " " + exchange.getRequestURI() + " " + etagOf(body);
+        Replay fresh = new Replay(fingerprint);
+        Replay first = replays.putIfAbsent(key, fresh);
+        if (first == null) {
+            BufferedExchange buffered = new BufferedExchange(exchange, body);
+            dispatch(buffered);
+            if (buffered.getResponseCode() >= 500) {
+                replays.remove(key);
+            }
+            fresh.response.complete(buffered);
+            copyResponse(buffered, exchange);
+        } else if (!first.fingerprint.equals(fingerprint)) {
+            sendStatus(exchange, 422);
+        } else if (!first.response.isDone()) {
+            sendStatus(exchange, 409);
+        } else {
+            exchange.getResponseHeaders().set("Idempotent-Replayed", "true");
+            copyResponse(first.response.join(), exchange);
+        }
+    }
+
+    private static void copyResponse(BufferedExchange buffered, HttpExchange exchange) throws IOException {
+        byte[] body = buffered.body();
+        buffered.getResponseHeaders().forEach((name, values) -> exchange.getResponseHeaders().put(name, values));
+        exchange.sendResponseHeaders(buffered.getResponseCode(), body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Only plain reads can be batched; the event stream and nested batches cannot
+    private BatchResponseDto.Part runBatchPart(HttpExchange batch, BatchRequestDto.Part part) throws IOException {
+        String path = part.getPath();
+        if (!"GET".equals(part.getMethod()) || path == null || !path.startsWith("/api/")
+                || path.startsWith("/api/events") || path.startsWith("/api/batch")) {
+            return new BatchResponseDto.Part(part.getId(), 400, new HashMap<>(), null);
+        }
+        BufferedExchange exchange = new BufferedExchange(batch, path);
+        dispatch(exchange);
+        Map<String, String> headers = new HashMap<>();
+        exchange.getResponseHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("Content-Type") && !name.equalsIgnoreCase("Vary")) headers.put(name, values.get(0));
+        });
+        byte[] body = exchange.body();
+        return new BatchResponseDto.Part(part.getId(), exchange.getResponseCode(), headers,
+                body.length == 0 ? null : objectMapper.readTree(body));
+    }
+
+    /**
+     * Registers a list endpoint that also supports delta sync: the full list carries
+     * its cursor in X-Sync-Cursor and {@code <path>/changes?since=} answers with a change set.
+     */
+    private <T> void syncedList(String regex, ChangeTracker tracker, Map<Long, T> table, Function<T, Long> idOf,
+                                BiFunction<HttpExchange, Matcher, Predicate<T>> filterFor) {
+        route("GET", regex, (ex, m) -> {
+            Predicate<T> filter = filterFor.apply(ex, m);
+            List<T> rows;
+            String cursor;
+            synchronized (this) {
+                rows = table.values().stream().filter(filter).collect(Collectors.toList());
+                cursor = tracker.cursor();
+            }
+            ex.getResponseHeaders().set("X-Sync-Cursor", cursor);
+            sendJson(ex, 200, rows);
+        });
+        route("GET", regex + "/changes", (ex, m) -> {
+            if (!changeFeeds) {
+                sendStatus(ex, 404);
+                return;
+            }
+            Predicate<T> filter = filterFor.apply(ex, m);
+            ChangeSetDto<T> changes;
+            synchronized (this) {
+                changes = tracker.changesSince(queryParam(ex, "since"), table.values(), idOf, filter);
+            }
+            sendJson(ex, 200, changes);
+        });
+    }
+
+    // --- Domain operations ---
+
+    // The hotel or NGO registered with this email; any other email gets the seeded one, except on a shard
+    private synchronized AuthResponse logIn(String userType, String email) {
+        Long id = null;
+        if ("NGO".equals(userType)) {
+            for (NgoDto ngo : ngos.values()) {
+                if (ngo.getEmail().equalsIgnoreCase(email)) id = ngo.getId();
+            }
+            if (id == null && !sharded) id = NGO_ID;
+        } else {
+            for (HotelDto hotel : hotels.values()) {
+                if (hotel.getEmail().equalsIgnoreCase(email)) id = hotel.getId();
+            }
+            if (id == null && !sharded && hotels.containsKey(HOTEL_ID)) id = HOTEL_ID;
+        }
+        return id == null ? null : session(userType, email, id);
+    }
+
+    private synchronized AuthResponse session(String userType, String email, long userId) {
+        AuthResponse session = new AuthResponse();
+        session.setToken("stand-in-token");
+        session.setUserType(userType);
+        session.setUserId(userId);
+        session.setName("Stand-in User");
+        session.setEmail(email);
+        session.setOrganizationName("NGO".equals(userType) ? ngos.get(userId).getNgoName() : hotels.get(userId).getHotelName());
+        return session;
+    }
+
+    private synchronized HotelDto registerHotel(HotelDto hotel) {
+        hotel.setId(nextId.incrementAndGet());
+        hotel.setPassword(null);
+        hotel.setHotelCode("HTL" + hotel.getId());
+        hotel.setRegistrationDate(LocalDateTime.now());
+        hotels.put(hotel.getId(), hotel);
+        return hotel;
+    }
+
+    private synchronized NgoDto registerNgo(NgoDto ngo) {
+        ngo.setId(nextId.incrementAndGet());
+        ngo.setPassword(null);
+        ngo.setIsActive(true);
+        ngos.put(ngo.getId(), ngo);
+        return ngo;
+    }
+
+    private synchronized <T> List<T> snapshot(Map<Long, T> source) {
+        return new ArrayList<>(source.values());
+    }
+
+    private synchronized <T> T get(Map<Long, T> source, long id) {
+        return source.get(id);
+    }
+
+    private synchronized List<FoodItemDto> filterItems(Predicate<FoodItemDto> filter) {
+        return foodItems.values().stream().filter(filter).collect(Collectors.toList());
+    }
+
+    private synchronized List<FoodRequestDto> filterRequests(Predicate<FoodRequestDto> filter) {
+        return foodRequests.values().stream().filter(filter).collect(Collectors.toList());
+    }
+
+    private synchronized HotelDto updateHotel(long id, HotelDto update) {
+        HotelDto hotel = hotels.get(id);
+        if (hotel == null) return null;
+        if (update.getHotelName() != null) hotel.setHotelName(update.getHotelName());
+        if (update.getManagerName() != null) hotel.setManagerName(update.getManagerName());
+        if (update.getPhone() != null) hotel.setPhone(update.getPhone());
+        if (update.getAddress() != null) hotel.setAddress(update.getAddress());
+        return hotel;
+    }
+
+    private synchronized NgoDto updateNgo(long id, NgoDto update) {
+        NgoDto ngo = ngos.get(id);
+        if (ngo == null) return null;
+        if (update.getNgoName() != null) ngo.setNgoName(update.getNgoName());
+        if (update.getContactPerson() != null) ngo.setContactPerson(update.getContactPerson());
+        if (update.getPhone() != null) ngo.setPhone(update.getPhone());
+        if (update.getAddress() != null) ngo.setAddress(update.getAddress());
+        return ngo;
+    }
+
+    /**
+     * Applies a JSON Merge Patch to one entity. If-Match / If-Unmodified-Since are checked
+     * against the validators its GET would carry, so a patch based on an outdated copy
+     * gets 412 and changes nothing. Only {@code editable} properties may be patched (422 otherwise).
+     */
+    private <T> void mergePatch(HttpExchange exchange, Map<Long, T> table, long id, Class<T> type,
+                                List<String> editable) throws IOException {
+        JsonNode patch = readBody(exchange, JsonNode.class);
+        if (!patch.isObject()) {
+            sendStatus(exchange, 400);
+            return;
+        }
+        for (String name : (Iterable<String>) patch::fieldNames) {
+            if (!editable.contains(name)) {
+                sendStatus(exchange, 422);
+                return;
+            }
+        }
+        synchronized (this) {
+            T current = table.get(id);
+            if (current == null) {
+                sendStatus(exchange, 404);
+                return;
+            }
+            String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+            String ifUnmodifiedSince = exchange.getRequestHeaders().getFirst("If-Unmodified-Since");
+            String etag = etagOf(serialise(exchange, current));
+            Validator validator = validators.get(exchange.getRequestURI().toString());
+            boolean stale = ifMatch != null
+                    ? !matches(ifMatch, etag)
+                    : ifUnmodifiedSince != null && (validator == null || validator.lastModified.isAfter(parseHttpDate(ifUnmodifiedSince)));
+            if (stale) {
+                sendStatus(exchange, 412);
+                return;
+            }
+            ObjectNode merged = objectMapper.valueToTree(current);
+            patch.fields().forEachRemaining(field -> {
+                if (field.getValue().isNull()) merged.remove(field.getKey()); else merged.set(field.getKey(), field.getValue());
+            });
+            table.put(id, objectMapper.treeToValue(merged, type));
+            sendCacheable(exchange, table.get(id)); // the echo carries the new ETag
+        }
+    }
+
+    private synchronized FoodItemDto createFoodItem(FoodItemDto item) {
+        item.setId(nextId.incrementAndGet());
+        item.setHotelId(HOTEL_ID);
+        item.setHotelName(hotels.get(HOTEL_ID).getHotelName());
+        item.setIsAvailable(false);
+        item.setLoggedAt(LocalDateTime.now());
+        foodItems.put(item.getId(), item);
+        foodItemChanges.created(item.getId());
+        publish("food-item.pending", item);
+        publish("dashboard.stats", dashboardStats());
+        return item;
+    }
+
+    private synchronized FoodItemDto approveFoodItem(long id) {
+        FoodItemDto item = foodItems.get(id);
+        if (item == null) return null;
+        item.setIsAvailable(true);
+        foodItemChanges.modified(id);
+        publish("food-item.resolved", item);
+        return item;
+    }
+
+    private synchronized boolean rejectFoodItem(long id) {
+        FoodItemDto item = foodItems.remove(id);
+        if (item == null) return false;
+        foodItemChanges.deleted(id);
+        publish("food-item.resolved", item);
+        publish("dashboard.stats", dashboardStats());
+        return true;
+    }
+
+    private synchronized FoodRequestDto createFoodRequest(FoodRequestDto request) {
+        FoodItemDto item = foodItems.get(request.getFoodItemId());
+        if (item == null || !Boolean.TRUE.equals(item.getIsAvailable())) return null;
+        request.setId(nextId.incrementAndGet());
+        request.setNgoId(NGO_ID);
+        request.setNgoName(ngos.get(NGO_ID).getNgoName());
+        request.setFoodItemName(item.getFoodName());
+        request.setHotelName(item.getHotelName());
+        request.setUnit(item.getUnit());
+        request.setRequestDate(LocalDateTime.now());
+        request.setRequestStatus("PENDING");
+        request.setVersion(1L);
+        foodRequests.put(request.getId(), request);
+        foodRequestChanges.created(request.getId());
+        item.setCurrentUserRequestStatus("PENDING");
+        foodItemChanges.modified(item.getId());
+        publish("food-request.created", request);
+        return request;
+    }
+
+    private synchronized FoodRequestDto transitionFoodRequest(long id, String action) {
+        FoodRequestDto request = foodRequests.get(id);
+        if (request == null) return null;
+        switch (action) {
+            case "approve": request.setRequestStatus("APPROVED"); break;
+            case "reject": request.setRequestStatus("REJECTED"); break;
+            default:
+                request.setRequestStatus("COMPLETED");
+                request.setPickupDate(LocalDateTime.now());
+        }
+        request.setVersion(request.getVersion() + 1);
+        foodRequestChanges.modified(id);
+        publish("food-request.status", request);
+        if ("COMPLETED".equals(request.getRequestStatus())) {
+            publish("dashboard.stats", dashboardStats());
+        }
+        return request;
+    }
+
+    // Each id is handled on its own, so one missing or changed id does not fail the whole batch
+    private synchronized BulkTransitionResultDto bulkTransition(BulkTransitionRequestDto bulk, ToIntFunction<Long> transition) {
+        BulkTransitionResultDto result = new BulkTransitionResultDto();
+        for (Long id : bulk.getIds()) {
+            int status = transition.applyAsInt(id);
+            String message = status == 200 ? null : status == 412 ? "Changed by someone else" : "Not found";
+            result.getResults().add(new BulkTransitionResultDto.ItemResult(id, status == 200, status, message));
+        }
+        return result;
+    }
+
+    private synchronized DashboardStatsDto dashboardStats() {
+        LocalDateTime weekStart = LocalDate.now().minusDays(7).atStartOfDay();
+        DashboardStatsDto stats = new DashboardStatsDto();
+        stats.setTotalLoggedThisWeek(foodItems.values().stream()
+                .filter(item -> item.getLoggedAt().isAfter(weekStart))
+                .map(FoodItemDto::getQuantity)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        stats.setTotalDonatedThisWeek(foodRequests.values().stream()
+                .filter(request -> "COMPLETED".equals(request.getRequestStatus()))
+                .map(FoodRequestDto::getRequestedQuantity)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        stats.setHotelCode(hotels.get(HOTEL_ID).getHotelCode());
+        return stats;
+    }
+
+    private void publish(String eventType, Object payload) {
+        try {
+            events.publish(eventType, objectMapper.writeValueAsString(payload));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // --- Sample data ---
+
+    private void seed() {
+        String[][] hotelRows = {
+                {"Grand Palace Hotel", "Dhaka", "Dhaka Division", "1212"},
+                {"Seaside Inn", "Chattogram", "Chattogram Division", "4000"},
+                {"Hilltop Resort", "Sylhet", "Sylhet Division", "3100"},
+        };
+        for (int i = 0; i < hotelRows.length; i++) {
+            HotelDto hotel = new HotelDto();
+            hotel.setId(i + 1);
+            hotel.setHotelName(hotelRows[i][0]);
+            hotel.setManagerName("Manager " + (i + 1));
+            hotel.setEmail("manager" + (i + 1) + "@example.com");
+            hotel.setAddress((i + 10) + " Main Road");
+            hotel.setCity(hotelRows[i][1]);
+            hotel.setState(hotelRows[i][2]);
+            hotel.setPostalCode(hotelRows[i][3]);
+            hotel.setPhone("+880-1700-00000" + (i + 1));
+            hotel.setHotelLicense("LIC-" + (1000 + i));
+            hotel.setHotelCode("HTL" + (i + 1));
+            hotel.setRegistrationDate(LocalDateTime.now().minusMonths(6));
+            hotels.put(hotel.getId(), hotel);
+        }
+
+        NgoDto ngo = new NgoDto();
+        ngo.setId(NGO_ID);
+        ngo.setNgoName("Food For All");
+        ngo.setContactPerson("Stand-in Coordinator");
+        ngo.setEmail("ngo@example.com");
+        ngo.setPhone("+880-1800-000000");
+        ngo.setAddress("5 Relief Street");
+        ngo.setCity("Dhaka");
+        ngo.setState("Dhaka Division");
+        ngo.setLicenseNumber("NGO-42");
+        ngo.setIsActive(true);
+        ngos.put(ngo.getId(), ngo);
+
+        String[] foods = {"Vegetable Biryani", "Dal", "Bread Rolls", "Chicken Curry", "Fruit Salad"};
+        for (int i = 0; i < foods.length; i++) {
+            FoodItemDto item = new FoodItemDto();
+            item.setId(nextId.incrementAndGet());
+            item.setHotelId(HOTEL_ID);
+            item.setHotelName(hotels.get(HOTEL_ID).getHotelName());
+            item.setFoodName(foods[i]);
+            item.setQuantity(BigDecimal.valueOf(2 + i));
+            item.setUnit("kg");
+            item.setCategory("PREPARED_FOOD");
+            item.setCondition("FRESH");
+            item.setExpiryDate(LocalDate.now().plusDays(2));
+            item.setLoggedAt(LocalDateTime.now().minusHours(i));
+            item.setIsAvailable(i % 2 == 0); // alternate approved / awaiting approval
+            foodItems.put(item.getId(), item);
+            foodItemChanges.created(item.getId());
+        }
+    }
+
+    // Closed requests spread over the last months, with the free-text notes real NGOs leave
+    private synchronized void seedRequestHistory(int rows) {
+        String[] notes = {
+                "Pickup by van, please pack in trays",
+                "Volunteer will collect after evening prayers",
+                "For the shelter on Lake Road",
+                null,
+        };
+        List<FoodItemDto> items = new ArrayList<>(foodItems.values());
+        for (int i = 0; i < rows; i++) {
+            FoodItemDto item = items.get(i % items.size());
+            FoodRequestDto request = new FoodRequestDto();
+            request.setId(nextId.incrementAndGet());
+            request.setNgoId(NGO_ID);
+            request.setNgoName(ngos.get(NGO_ID).getNgoName());
+            request.setFoodItemId(item.getId());
+            request.setFoodItemName(item.getFoodName());
+            request.setHotelName(hotels.get(1L + i % hotels.size()).getHotelName());
+            request.setRequestedQuantity(BigDecimal.valueOf(1 + i % 9, 1).add(BigDecimal.ONE));
+            request.setUnit(item.getUnit());
+            request.setRequestDate(LocalDateTime.now().minusHours(6L * (rows - i)));
+            request.setNotes(notes[i % notes.length]);
+            boolean completed = i % 7 != 0;
+            request.setRequestStatus(completed ? "COMPLETED" : "REJECTED");
+            if (completed) request.setPickupDate(request.getRequestDate().plusHours(3));
+            request.setVersion(2L);
+            foodRequests.put(request.getId(), request);
+            foodRequestChanges.created(request.getId());
+        }
+    }
+
+    // --- HTTP helpers ---
+
+    private static long id(Matcher path) {
+        return Long.parseLong(path.group(1));
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) return pair.substring(eq + 1);
+        }
+        return null;
+    }
+
+    private <T> T readBody(HttpExchange exchange, Class<T> type) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        return mapperFor(exchange.getRequestHeaders().getFirst("Content-Type")).readValue(body, type);
+    }
+
+    private void sendOr404(HttpExchange exchange, Object body) throws IOException {
+        if (body == null) sendStatus(exchange, 404); else sendJson(exchange, 200, body);
+    }
+
+    private void sendCacheableOr404(HttpExchange exchange, Object body) throws IOException {
+        if (body == null) sendStatus(exchange, 404); else sendCacheable(exchange, body);
+    }
+
+    /**
+     * Sends a 200 with an ETag (a checksum of the body) and a Last-Modified (when that
+     * ETag was first seen for the URL), or an empty 304 when the client's
+     * If-None-Match / If-Modified-Since show it already has this version.
+     */
+    private void sendCacheable(HttpExchange exchange, Object body) throws IOException {
+        byte[] bytes = serialise(exchange, body);
+        String etag = etagOf(bytes);
+        String url = exchange.getRequestURI().toString();
+        Validator validator = validators.compute(url, (key, old) ->
+                old != null && old.etag.equals(etag) ? old : new Validator(etag, Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+        String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(validator.lastModified.atZone(ZoneOffset.UTC));
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Last-Modified", lastModified);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache"); // may be stored, but must be revalidated
+
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        boolean notModified = ifNoneMatch != null
+                ? List.of(ifNoneMatch.split("\\s*,\\s*")).contains(etag)
+                : ifModifiedSince != null && !validator.lastModified.isAfter(parseHttpDate(ifModifiedSince));
+        if (notModified) {
+            sendStatus(exchange, 304);
+            return;
+        }
+        sendBytes(exchange, 200, bytes);
+    }
+
+    // A food request's ETag is its version, so a client can send If-Match from the row it shows
+    private static String versionTag(FoodRequestDto request) {
+        return "\"" + request.getVersion() + "\"";
+    }
+
+    // If-Match is met by "*", any listed tag equal to the current one, or no header at all
+    private static boolean matches(String ifMatch, String etag) {
+        return ifMatch == null || ifMatch.trim().equals("*") || List.of(ifMatch.trim().split("\\s*,\\s*")).contains(etag);
+    }
+
+    private static String etagOf(byte[] representation) {
+        CRC32 crc = new CRC32();
+        crc.update(representation);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + representation.length + "\"";
+    }
+
+    private static Instant parseHttpDate(String value) {
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return Instant.EPOCH; // unreadable date: treat the resource as modified
+        }
+    }
+
+    private static final class Validator {
+        final String etag;
+        final Instant lastModified;
+
+        Validator(String etag, Instant lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    // Answers in CBOR if the client lists it in Accept, otherwise in JSON; sets Content-Type to match
+    private byte[] serialise(HttpExchange exchange, Object body) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        String contentType = accept != null && accept.contains("application/cbor") ? "application/cbor" : "application/json";
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().add("Vary", "Accept");
+        ObjectMapper mapper = mapperFor(contentType);
+        String fields = queryParam(exchange, "fields");
+        synchronized (this) {
+            // serialise under the data lock
+            return fields == null ? mapper.writeValueAsBytes(body) : mapper.writeValueAsBytes(project(mapper.valueToTree(body), fields));
+        }
+    }
+
+    // Sparse fieldset: keeps only the listed properties of the object, or of each object in the array
+    private static JsonNode project(JsonNode node, String fields) {
+        List<String> keep = List.of(fields.split(","));
+        if (node.isObject()) {
+            ((ObjectNode) node).retain(keep);
+        } else if (node.isArray()) {
+            node.forEach(element -> project(element, fields));
+        }
+        return node;
+    }
+
+    private ObjectMapper mapperFor(String contentType) {
+        return contentType != null && contentType.startsWith("application/cbor") ? cborMapper : objectMapper;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        sendBytes(exchange, status, serialise(exchange, body));
+    }
+
+    // Bodies of 1 KB and more are gzipped for clients that accept it, like a production server behind a proxy
+    private static void sendBytes(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (bytes.length >= 1024 && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+}